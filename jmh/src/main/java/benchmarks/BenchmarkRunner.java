@@ -0,0 +1,180 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Small benchmark harness that times operations and collects the results
+ *
+ * Every operation is first run a number of untimed warmup rounds so that the JIT compiler can optimise it,
+ * then it is run a number of measured rounds. The minimum, median, 90th percentile and maximum duration of
+ * the measured rounds are printed and can be written to a JSON file, so that results of two revisions can
+ * be compared with a plain diff.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * An operation whose duration is measured
+	 */
+	public interface Operation {
+		/**
+		 * Runs the operation once
+		 *
+		 * @throws Exception thrown if the operation fails, which aborts the benchmark
+		 */
+		void run() throws Exception;
+	}
+
+	private final int warmupRounds, measuredRounds;
+	private final Map<String, String> parameters = new LinkedHashMap<>();
+	private final List<Result> results = new ArrayList<>();
+
+	/**
+	 * Constructor that sets the number of rounds every operation is run
+	 *
+	 * @param warmupRounds the number of untimed rounds before the measurement
+	 * @param measuredRounds the number of timed rounds
+	 */
+	public BenchmarkRunner(int warmupRounds, int measuredRounds) {
+		this.warmupRounds = warmupRounds;
+		this.measuredRounds = measuredRounds;
+	}
+
+	/**
+	 * Records a parameter of this benchmark run, e.g. the size of the database, which is written to the JSON file
+	 *
+	 * @param name the name of the parameter
+	 * @param value the value of the parameter
+	 */
+	public void setParameter(String name, Object value) {
+		parameters.put(name, String.valueOf(value));
+	}
+
+	/**
+	 * Measures an operation and prints its result
+	 *
+	 * @param group the group of the benchmark, e.g. "read" or "write"
+	 * @param name the name of the benchmark
+	 * @param size the number of items the operation processes per round, used to report the time per item
+	 * @param operation the operation that is measured
+	 * @return the result of the measurement
+	 * @throws Exception thrown if the operation fails
+	 */
+	public Result run(String group, String name, int size, Operation operation) throws Exception {
+		return run(group, name, size, () -> { }, operation);
+	}
+
+	/**
+	 * Measures an operation that needs to be prepared before every round and prints its result
+	 *
+	 * @param group the group of the benchmark, e.g. "read" or "write"
+	 * @param name the name of the benchmark
+	 * @param size the number of items the operation processes per round, used to report the time per item
+	 * @param setup the preparation that is run before every round and is not measured
+	 * @param operation the operation that is measured
+	 * @return the result of the measurement
+	 * @throws Exception thrown if the preparation or the operation fails
+	 */
+	public Result run(String group, String name, int size, Operation setup, Operation operation) throws Exception {
+		long[] durations = new long[measuredRounds];
+		for (int round = 0; round < warmupRounds + measuredRounds; round++) {
+			setup.run();
+			long startTime = System.nanoTime();
+			operation.run();
+			long duration = System.nanoTime() - startTime;
+			if (round >= warmupRounds) {
+				durations[round - warmupRounds] = duration;
+			}
+		}
+		Arrays.sort(durations);
+		Result result = new Result(group, name, size, durations);
+		results.add(result);
+		System.out.println(result);
+		return result;
+	}
+
+	/**
+	 * Writes the parameters and all results of this run to a JSON file
+	 *
+	 * @param file the file that is created or overwritten
+	 * @throws IOException thrown if the file cannot be written
+	 */
+	public void writeJson(Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("{\n  \"parameters\": {");
+			String separator = "\n";
+			for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+				writer.write(separator + "    \"" + parameter.getKey() + "\": \"" + parameter.getValue() + "\"");
+				separator = ",\n";
+			}
+			writer.write("\n  },\n  \"results\": [");
+			separator = "\n";
+			for (Result result : results) {
+				writer.write(separator + "    " + result.toJson());
+				separator = ",\n";
+			}
+			writer.write("\n  ]\n}\n");
+		}
+	}
+
+	/**
+	 * The measured durations of one benchmark
+	 */
+	public static class Result {
+		private final String group, name;
+		private final int size;
+		private final double minMillis, medianMillis, p90Millis, maxMillis;
+
+		/**
+		 * Constructor that summarises the sorted durations of the measured rounds
+		 *
+		 * @param group the group of the benchmark
+		 * @param name the name of the benchmark
+		 * @param size the number of items processed per round
+		 * @param sortedDurations the durations of the measured rounds in nanoseconds, in ascending order
+		 */
+		private Result(String group, String name, int size, long[] sortedDurations) {
+			this.group = group;
+			this.name = name;
+			this.size = size;
+			minMillis = sortedDurations[0] / 1e6;
+			medianMillis = sortedDurations[sortedDurations.length / 2] / 1e6;
+			p90Millis = sortedDurations[(int) Math.ceil(sortedDurations.length * 0.9) - 1] / 1e6;
+			maxMillis = sortedDurations[sortedDurations.length - 1] / 1e6;
+		}
+
+		/**
+		 * @return the median duration of a round in milliseconds
+		 */
+		public double getMedianMillis() {
+			return medianMillis;
+		}
+
+		/**
+		 * @return this result as a single line JSON object
+		 */
+		private String toJson() {
+			return String.format(Locale.ROOT, "{\"group\": \"%s\", \"name\": \"%s\", \"size\": %d, "
+					+ "\"minMs\": %.3f, \"medianMs\": %.3f, \"p90Ms\": %.3f, \"maxMs\": %.3f, \"medianUsPerItem\": %.3f}",
+				group, name, size, minMillis, medianMillis, p90Millis, maxMillis, medianMillis * 1000 / size);
+		}
+
+		/**
+		 * @return this result as a line of the printed table
+		 */
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-6s %-40s %9d %12.3f ms %12.3f ms", group, name, size,
+				medianMillis, p90Millis);
+		}
+	}
+}
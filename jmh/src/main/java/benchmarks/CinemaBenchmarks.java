@@ -0,0 +1,396 @@
+package benchmarks;
+
+import application.MainApp;
+import helpers.DBHelper;
+import helpers.ScreeningDateComparator;
+import helpers.ScreeningNameComparator;
+import helpers.SeatFinder;
+import javafx.collections.ObservableList;
+import models.Booking;
+import models.BookingDAO;
+import models.Movie;
+import models.MovieDAO;
+import models.MovieMatch;
+import models.Screening;
+import models.ScreeningDAO;
+import models.Seat;
+import models.SeatOption;
+import models.SeatSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the database access, model and comparator hot paths of the application
+ *
+ * A synthetic database is created first (see SyntheticDatabase), afterwards the read paths of the DAOs,
+ * the write paths, the conversions between the seat Strings stored in the database and the Seat objects
+ * of the models, and the comparators used to sort the programme are measured.
+ *
+ * Run with "gradle :jmh:jmh -PjmhArgs=CinemaBenchmarks" from the directory that contains the db folder.
+ * The size of the synthetic database is set with the JMH parameters movies, screenings and bookings,
+ * e.g. -PjmhArgs="CinemaBenchmarks -p screenings=10000".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-exports=java.sql.rowset/com.sun.rowset=ALL-UNNAMED")
+public class CinemaBenchmarks {
+
+	// Number of screenings added per invocation by the batch insert benchmark
+	private static final int INSERT_BATCH = 100;
+	// Number of halls of 1000 seats searched by the SeatFinder benchmark
+	private static final int HALLS = 1000;
+
+	@Param("50")
+	private int movies;
+	@Param("1000")
+	private int screenings;
+	@Param("5000")
+	private int bookings;
+
+	private SyntheticDatabase database;
+	private int movieID;
+	private String username;
+	private String movieQuery;
+	private Booking bookingTemplate;
+	private ArrayList<Seat> freeSeats;
+	private final List<Screening> addedScreenings = new ArrayList<>();
+	private List<String> screeningSeats;
+	private List<String> bookingSeats;
+	private SeatFinder seatFinder;
+	private List<BitSet> hallSeats;
+	private SeatFinder hallFinder;
+	private List<Screening> shuffledScreenings;
+
+	/**
+	 * Creates the synthetic database and the inputs of the benchmarks
+	 *
+	 * @throws IOException thrown if the database cannot be copied
+	 * @throws SQLException thrown if the synthetic rows cannot be inserted
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException, SQLException {
+		// Only warnings are logged, so that the log output does not distort the measurements
+		MainApp.LOGGER.setLevel(java.util.logging.Level.WARNING);
+		database = new SyntheticDatabase(movies, screenings, bookings);
+
+		Movie movie = database.getMovies().get(0);
+		movieID = movie.getMovieID();
+		movieQuery = "synthetic " + movie.getName();
+		bookingTemplate = database.getBookings().get(0);
+		username = bookingTemplate.getUsername();
+		// Books a seat nobody has booked yet, as a seat can only be booked once per screening
+		int freeSeat = BookingDAO.searchBookedSeats(bookingTemplate.getScreenID()).nextClearBit(0);
+		freeSeats = new ArrayList<>();
+		freeSeats.add(new Seat((char) ('A' + freeSeat / Seat.SEATS_PER_ROW), freeSeat % Seat.SEATS_PER_ROW + 1, true));
+
+		screeningSeats = new ArrayList<>(database.getScreenings().size());
+		for (Screening screening : database.getScreenings()) {
+			screeningSeats.add(screening.getSeats());
+		}
+		bookingSeats = new ArrayList<>(database.getBookings().size());
+		for (Booking booking : database.getBookings()) {
+			bookingSeats.add(booking.getSeats());
+		}
+		seatFinder = new SeatFinder(screeningSeats.get(0).length() / Seat.SEATS_PER_ROW, Seat.SEATS_PER_ROW);
+		// Halls of 1000 seats in 25 rows of 40, two thirds of them booked at random
+		Random random = new Random(1);
+		hallSeats = new ArrayList<>(HALLS);
+		for (int i = 0; i < HALLS; i++) {
+			BitSet bookedSeats = new BitSet(1000);
+			for (int seat = 0; seat < 1000; seat++) {
+				if (random.nextInt(3) > 0) {
+					bookedSeats.set(seat);
+				}
+			}
+			hallSeats.add(bookedSeats);
+		}
+		hallFinder = new SeatFinder(25, 40);
+		// Sorts a copy shuffled with a fixed seed, so that every invocation and every run sorts the same order
+		shuffledScreenings = new ArrayList<>(database.getScreenings());
+		Collections.shuffle(shuffledScreenings, new Random(42));
+	}
+
+	/**
+	 * Removes the screenings added by the batch insert benchmark, so they do not influence the next iteration
+	 *
+	 * @throws SQLException thrown if a screening cannot be deleted
+	 */
+	@TearDown(Level.Iteration)
+	public void removeAddedScreenings() throws SQLException {
+		for (Screening screening : addedScreenings) {
+			ScreeningDAO.deleteScreening(screening);
+		}
+		addedScreenings.clear();
+	}
+
+	/**
+	 * Measures reading all screenings with DBHelper
+	 *
+	 * @return the rows of all screenings
+	 * @throws SQLException thrown if the query fails
+	 */
+	@Benchmark
+	public ResultSet dbExecuteQuery() throws SQLException {
+		return DBHelper.dbExecuteQuery("SELECT * FROM screenings");
+	}
+
+	/**
+	 * Measures reading a single movie
+	 *
+	 * @return the movie
+	 * @throws SQLException thrown if the query fails
+	 * @throws ClassNotFoundException thrown if the database driver cannot be loaded
+	 */
+	@Benchmark
+	public Movie searchMovie() throws SQLException, ClassNotFoundException {
+		return MovieDAO.searchMovie(movieID);
+	}
+
+	/**
+	 * Measures reading all movies
+	 *
+	 * @return the movies
+	 * @throws SQLException thrown if the query fails
+	 * @throws ClassNotFoundException thrown if the database driver cannot be loaded
+	 */
+	@Benchmark
+	public ObservableList<Movie> searchMovies() throws SQLException, ClassNotFoundException {
+		return MovieDAO.searchMovies();
+	}
+
+	/**
+	 * Measures the full text search of the movies
+	 *
+	 * @return the movies found
+	 * @throws SQLException thrown if the query fails
+	 */
+	@Benchmark
+	public List<MovieMatch> fullTextSearch() throws SQLException {
+		return MovieDAO.fullTextSearch(movieQuery, 20);
+	}
+
+	/**
+	 * Measures reading all screenings
+	 *
+	 * @return the screenings
+	 * @throws SQLException thrown if the query fails
+	 * @throws ClassNotFoundException thrown if the database driver cannot be loaded
+	 */
+	@Benchmark
+	public ObservableList<Screening> searchScreenings() throws SQLException, ClassNotFoundException {
+		return ScreeningDAO.searchScreenings();
+	}
+
+	/**
+	 * Measures reading the screenings that have not started yet
+	 *
+	 * @return the screenings
+	 * @throws SQLException thrown if the query fails
+	 * @throws ClassNotFoundException thrown if the database driver cannot be loaded
+	 */
+	@Benchmark
+	public ObservableList<Screening> searchUpcomingScreenings() throws SQLException, ClassNotFoundException {
+		return ScreeningDAO.searchUpcomingScreenings();
+	}
+
+	/**
+	 * Measures reading the bookings of a customer
+	 *
+	 * @return the bookings
+	 * @throws SQLException thrown if the query fails
+	 * @throws ClassNotFoundException thrown if the database driver cannot be loaded
+	 */
+	@Benchmark
+	public ObservableList<Booking> searchBookings() throws SQLException, ClassNotFoundException {
+		return BookingDAO.searchBookings(username);
+	}
+
+	/**
+	 * Measures adding a booking and deleting it again
+	 *
+	 * @return the booking, which has been given a bookingID
+	 * @throws SQLException thrown if the booking cannot be added or deleted
+	 */
+	@Benchmark
+	public Booking addAndDeleteBooking() throws SQLException {
+		Booking booking = new Booking();
+		booking.setUsername(username);
+		booking.screenIDProperty().set(bookingTemplate.getScreenID());
+		booking.setScreening(bookingTemplate.getScreening());
+		booking.setSeats(freeSeats);
+		BookingDAO.addBooking(booking);
+		BookingDAO.deleteBooking(booking);
+		return booking;
+	}
+
+	/**
+	 * Measures adding a batch of screenings
+	 *
+	 * @return the screenings, which have been given a screenID
+	 * @throws SQLException thrown if the screenings cannot be added
+	 */
+	@Benchmark
+	public List<Screening> addScreenings() throws SQLException {
+		Screening screening = database.getScreenings().get(0);
+		List<Screening> batch = new ArrayList<>(INSERT_BATCH);
+		for (int i = 0; i < INSERT_BATCH; i++) {
+			Screening copy = new Screening();
+			copy.movieIDProperty().set(screening.getMovieID());
+			copy.setMovie(screening.getMovie());
+			copy.setSeats(screening.getSeats());
+			copy.setDate(screening.getDate());
+			copy.setTime(screening.getTime());
+			batch.add(copy);
+		}
+		ScreeningDAO.addScreenings(batch);
+		addedScreenings.addAll(batch);
+		return batch;
+	}
+
+	/**
+	 * Measures converting the seat Strings of all screenings into Seat objects
+	 *
+	 * @param blackhole consumes the seats of every screening
+	 */
+	@Benchmark
+	public void screeningSetSeats(Blackhole blackhole) {
+		List<Screening> screenings = database.getScreenings();
+		for (int i = 0; i < screenings.size(); i++) {
+			screenings.get(i).setSeats(screeningSeats.get(i));
+			blackhole.consume(screenings.get(i).getSeatList());
+		}
+	}
+
+	/**
+	 * Measures converting the Seat objects of all screenings into seat Strings
+	 *
+	 * @param blackhole consumes the seat String of every screening
+	 */
+	@Benchmark
+	public void screeningGetSeats(Blackhole blackhole) {
+		for (Screening screening : database.getScreenings()) {
+			blackhole.consume(screening.getSeats());
+		}
+	}
+
+	/**
+	 * Measures counting the available seats of all screenings
+	 *
+	 * @param blackhole consumes the number of available seats of every screening
+	 */
+	@Benchmark
+	public void screeningGetAvailableSeats(Blackhole blackhole) {
+		for (Screening screening : database.getScreenings()) {
+			blackhole.consume(screening.getAvailableSeats());
+		}
+	}
+
+	/**
+	 * Measures finding the best 4 seats in every screening
+	 *
+	 * @param blackhole consumes the block found in every screening
+	 */
+	@Benchmark
+	public void seatFinderFindBest(Blackhole blackhole) {
+		for (String seats : screeningSeats) {
+			blackhole.consume(seatFinder.findBest(seats, 4, SeatFinder.Preference.CENTRE, 'A', 'E'));
+		}
+	}
+
+	/**
+	 * Measures finding the best 4 seats in halls of 1000 seats
+	 *
+	 * @param blackhole consumes the block found in every hall
+	 */
+	@Benchmark
+	public void seatFinderFindBestLargeHall(Blackhole blackhole) {
+		for (BitSet bookedSeats : hallSeats) {
+			blackhole.consume(hallFinder.findBest(bookedSeats, 4, SeatFinder.Preference.CENTRE, 'A', 'Y'));
+		}
+	}
+
+	/**
+	 * Measures searching all screenings for 4 adjacent seats
+	 *
+	 * @return the screenings found
+	 */
+	@Benchmark
+	public List<SeatOption> seatSearchFindAdjacentSeats() {
+		return SeatSearch.findAdjacentSeats(database.getScreenings(), 4, SeatFinder.Preference.CENTRE, 20);
+	}
+
+	/**
+	 * Measures converting the seat Strings of all bookings into Seat objects
+	 *
+	 * @param blackhole consumes the seats of every booking
+	 */
+	@Benchmark
+	public void bookingSetSeats(Blackhole blackhole) {
+		List<Booking> bookings = database.getBookings();
+		for (int i = 0; i < bookings.size(); i++) {
+			bookings.get(i).setSeats(bookingSeats.get(i));
+			blackhole.consume(bookings.get(i).getSeatList());
+		}
+	}
+
+	/**
+	 * Measures converting the Seat objects of all bookings into seat Strings
+	 *
+	 * @param blackhole consumes the seat String of every booking
+	 */
+	@Benchmark
+	public void bookingGetSeats(Blackhole blackhole) {
+		for (Booking booking : database.getBookings()) {
+			blackhole.consume(booking.getSeats());
+		}
+	}
+
+	/**
+	 * Measures sorting the programme by date
+	 *
+	 * @return the sorted copy of the shuffled screenings
+	 */
+	@Benchmark
+	public List<Screening> sortByDate() {
+		List<Screening> sorted = new ArrayList<>(shuffledScreenings);
+		sorted.sort(new ScreeningDateComparator());
+		return sorted;
+	}
+
+	/**
+	 * Measures sorting the programme by movie name
+	 *
+	 * @return the sorted copy of the shuffled screenings
+	 */
+	@Benchmark
+	public List<Screening> sortByName() {
+		List<Screening> sorted = new ArrayList<>(shuffledScreenings);
+		sorted.sort(new ScreeningNameComparator());
+		return sorted;
+	}
+}
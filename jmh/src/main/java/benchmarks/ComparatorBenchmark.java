@@ -0,0 +1,151 @@
+package benchmarks;
+
+import helpers.ScreeningDateComparator;
+import helpers.ScreeningNameComparator;
+import models.Movie;
+import models.Screening;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of sorting lists of screenings with the comparators in the helpers package
+ *
+ * Every list size is sorted with the comparators of this application as well as with the previous
+ * comparators, which parsed the date String of both screenings on every comparison.
+ * Lists of 1k, 10k, 100k and 1M screenings are sorted, other sizes can be chosen with the JMH parameter size,
+ * e.g. -PjmhArgs="ComparatorBenchmark -p size=1000". Sorting one million screenings requires a heap of about 1 GB.
+ * Every sort copies the list first, the copy is included in the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ComparatorBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int size;
+	@Param({"date (parsed)", "date (sort key)", "name (parsed)", "name (sort key)"})
+	private String comparatorName;
+
+	private List<Screening> screenings;
+	private Comparator<Screening> comparator;
+
+	/**
+	 * Creates the screenings and the comparator of the current parameters
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		screenings = createScreenings(size);
+		switch (comparatorName) {
+			case "date (parsed)":
+				comparator = new LegacyDateComparator();
+				break;
+			case "date (sort key)":
+				comparator = new ScreeningDateComparator();
+				break;
+			case "name (parsed)":
+				comparator = new LegacyNameComparator();
+				break;
+			case "name (sort key)":
+				comparator = new ScreeningNameComparator();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown comparator " + comparatorName);
+		}
+	}
+
+	/**
+	 * Sorts a copy of the screenings, which are in random order
+	 *
+	 * @return the sorted copy
+	 */
+	@Benchmark
+	public List<Screening> sort() {
+		List<Screening> sorted = new ArrayList<>(screenings);
+		sorted.sort(comparator);
+		return sorted;
+	}
+
+	/**
+	 * Creates screenings of 100 different movies on random days of the next two years in random order
+	 *
+	 * @param size the number of screenings
+	 * @return a list of screenings
+	 */
+	static List<Screening> createScreenings(int size) {
+		// Uses a fixed seed so that every run sorts the same lists
+		Random random = new Random(42);
+		List<Movie> movies = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			Movie movie = new Movie();
+			movie.setName("Movie " + i);
+			movies.add(movie);
+		}
+		LocalDate firstDay = LocalDate.of(2018, 1, 1);
+		List<Screening> screenings = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			Screening screening = new Screening();
+			screening.setScreenID(i + 1);
+			screening.setMovie(movies.get(random.nextInt(movies.size())));
+			screening.setDate(firstDay.plusDays(random.nextInt(730)).toString());
+			screening.setTime(12 + random.nextInt(13));
+			screenings.add(screening);
+		}
+		Collections.shuffle(screenings, random);
+		return screenings;
+	}
+
+	/**
+	 * The previous date comparator, which parses both dates on every comparison
+	 */
+	private static class LegacyDateComparator implements Comparator<Screening> {
+		@Override
+		public int compare(Screening screening1, Screening screening2) {
+			LocalDate date1 = LocalDate.parse(screening1.getDate());
+			LocalDate date2 = LocalDate.parse(screening2.getDate());
+			if (date1.isBefore(date2)) {
+				return -1;
+			} else if (date1.isAfter(date2)) {
+				return 1;
+			} else {
+				return screening1.getTime() - screening2.getTime();
+			}
+		}
+	}
+
+	/**
+	 * The previous name comparator, which creates a new date comparator whenever two names are equal
+	 */
+	private static class LegacyNameComparator implements Comparator<Screening> {
+		@Override
+		public int compare(Screening screening1, Screening screening2) {
+			String name1 = screening1.getMovie().getName();
+			String name2 = screening2.getMovie().getName();
+			if (name1.compareTo(name2) == 0) {
+				return new LegacyDateComparator().compare(screening1, screening2);
+			} else {
+				return name1.compareTo(name2);
+			}
+		}
+	}
+}
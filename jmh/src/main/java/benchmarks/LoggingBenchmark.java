@@ -0,0 +1,98 @@
+package benchmarks;
+
+import helpers.AsyncFileHandler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Measures how much time logging adds to every database query
+ *
+ * Every round logs the "Select statement" message that DBHelper writes for each query a number of times,
+ * once through the synchronous FileHandler that was used before and once through AsyncFileHandler, with
+ * the message built eagerly and lazily. The last two benchmarks show the cost of a message whose level is
+ * disabled. The time is measured on the logging thread, i.e. the time the JavaFX application thread would lose.
+ *
+ * The number of messages per round can be passed as program argument, by default 10000.
+ * The results are written to logging-results.json.
+ */
+public class LoggingBenchmark {
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args optionally the number of messages per round
+	 * @throws Exception thrown if the log files cannot be created
+	 */
+	public static void main(String[] args) throws Exception {
+		int messages = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		Path directory = Files.createTempDirectory("cinema-logging");
+		BenchmarkRunner runner = new BenchmarkRunner(3, 10);
+		runner.setParameter("messages", messages);
+		runner.setParameter("java.version", System.getProperty("java.version"));
+
+		FileHandler fileHandler = new FileHandler(directory.resolve("sync.txt").toString());
+		fileHandler.setFormatter(new SimpleFormatter());
+		Logger syncLogger = createLogger("sync", fileHandler, Level.FINE);
+		// Uses a queue that holds all messages of a round, so no message is dropped
+		AsyncFileHandler asyncHandler = new AsyncFileHandler(directory.resolve("async.txt"),
+			Long.MAX_VALUE, 1, messages * 2);
+		Logger asyncLogger = createLogger("async", asyncHandler, Level.FINE);
+		Logger disabledLogger = createLogger("disabled", asyncHandler, Level.WARNING);
+
+		runner.run("log", "FileHandler, eager message", messages, () -> {
+			for (int i = 0; i < messages; i++) {
+				syncLogger.info("Select statement: SELECT * FROM screenings WHERE screenID=" + i);
+			}
+		});
+		// Waits for the previous round to be written before every round, so the queue is empty
+		runner.run("log", "AsyncFileHandler, eager message", messages, asyncHandler::flush, () -> {
+			for (int i = 0; i < messages; i++) {
+				asyncLogger.info("Select statement: SELECT * FROM screenings WHERE screenID=" + i);
+			}
+		});
+		runner.run("log", "AsyncFileHandler, lazy message", messages, asyncHandler::flush, () -> {
+			for (int i = 0; i < messages; i++) {
+				final int screenID = i;
+				asyncLogger.info(() -> "Select statement: SELECT * FROM screenings WHERE screenID=" + screenID);
+			}
+		});
+		runner.run("log", "disabled level, eager message", messages, () -> {
+			for (int i = 0; i < messages; i++) {
+				disabledLogger.info("Select statement: SELECT * FROM screenings WHERE screenID=" + i);
+			}
+		});
+		runner.run("log", "disabled level, lazy message", messages, () -> {
+			for (int i = 0; i < messages; i++) {
+				final int screenID = i;
+				disabledLogger.info(() -> "Select statement: SELECT * FROM screenings WHERE screenID=" + screenID);
+			}
+		});
+		fileHandler.close();
+		asyncHandler.close();
+		System.out.println("Dropped records: " + asyncHandler.getDroppedRecords());
+		runner.writeJson(Paths.get("logging-results.json"));
+	}
+
+	/**
+	 * Internal helper method that creates a logger which only writes to the provided handler
+	 *
+	 * @param name the name of the logger
+	 * @param handler the handler the logger writes to
+	 * @param level the lowest level that is logged
+	 * @return the logger
+	 */
+	private static Logger createLogger(String name, Handler handler, Level level) {
+		Logger logger = Logger.getLogger("benchmarks.logging." + name);
+		logger.setUseParentHandlers(false);
+		logger.addHandler(handler);
+		logger.setLevel(level);
+		return logger;
+	}
+}
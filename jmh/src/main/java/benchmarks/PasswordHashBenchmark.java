@@ -0,0 +1,49 @@
+package benchmarks;
+
+import helpers.PasswordHasher;
+
+import java.nio.file.Paths;
+
+/**
+ * Measures how long hashing and verifying a password takes for different work factors
+ *
+ * A login verifies the entered password once, so the median verification time is the time the
+ * password check adds to every login. The benchmark reports the largest measured number of iterations
+ * that stays within a latency budget, which can be passed as first program argument in milliseconds
+ * (default 250). The chosen value is set with the system property cinema.password.iterations.
+ * The results are written to password-results.json.
+ */
+public class PasswordHashBenchmark {
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args optionally the latency budget of a login in milliseconds
+	 * @throws Exception thrown if the results cannot be written
+	 */
+	public static void main(String[] args) throws Exception {
+		double budgetMillis = args.length > 0 ? Double.parseDouble(args[0]) : 250;
+		int[] iterationCounts = {10000, 50000, 100000, 210000, 400000, 600000};
+		BenchmarkRunner runner = new BenchmarkRunner(2, 7);
+		runner.setParameter("budgetMs", budgetMillis);
+		runner.setParameter("java.version", System.getProperty("java.version"));
+
+		int recommendedIterations = 0;
+		for (int iterationCount : iterationCounts) {
+			PasswordHasher.setIterations(iterationCount);
+			String stored = PasswordHasher.hash("correct horse battery staple");
+			BenchmarkRunner.Result result = runner.run("login", "verify, " + iterationCount + " iterations", 1,
+				() -> PasswordHasher.verify("correct horse battery staple", stored));
+			if (result.getMedianMillis() <= budgetMillis) {
+				recommendedIterations = iterationCount;
+			}
+		}
+		if (recommendedIterations == 0) {
+			System.out.println("No measured work factor stays within " + budgetMillis + " ms");
+		} else {
+			System.out.println("Largest work factor within " + budgetMillis + " ms: " + recommendedIterations
+				+ " iterations (-Dcinema.password.iterations=" + recommendedIterations + ")");
+		}
+		runner.writeJson(Paths.get("password-results.json"));
+	}
+}
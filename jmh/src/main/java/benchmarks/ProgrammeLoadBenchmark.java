@@ -0,0 +1,117 @@
+package benchmarks;
+
+import application.MainApp;
+import helpers.DBHelper;
+import models.Screening;
+import models.ScreeningDAO;
+
+import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Measures how long it takes to load the programme from a database with many screenings
+ *
+ * A synthetic database is created whose screenings start in the past, so that about half of them
+ * have already started. The loading of all and of the upcoming screenings through ScreeningDAO is measured
+ * with the programme cache disabled, as well as the previous way of finding the upcoming screenings, which
+ * parsed the date of every screening, and queries for a period and for the number of upcoming screenings
+ * that either use the index on the starts_at column or compare the date and time columns.
+ *
+ * Must be run from the directory that contains the db folder. Arguments are given as key=value pairs:
+ * movies (default 50), screenings (default 100000), warmup (default 2), rounds (default 5) and out,
+ * the JSON file the results are written to (default programme-results.json).
+ * 100k screenings require a heap of about 1 GB, e.g. -Xmx1g.
+ */
+public class ProgrammeLoadBenchmark {
+
+	// Number of screenings the synthetic database creates per day
+	private static final int SLOTS_PER_DAY = 13;
+
+	/**
+	 * Creates the synthetic database, runs the benchmarks and writes the results to a JSON file
+	 *
+	 * @param args key=value pairs overriding the default settings
+	 * @throws Exception thrown if a benchmark fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		settings.put("movies", "50");
+		settings.put("screenings", "100000");
+		settings.put("warmup", "2");
+		settings.put("rounds", "5");
+		settings.put("out", "programme-results.json");
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			if (pair.length != 2 || !settings.containsKey(pair[0])) {
+				throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+			settings.put(pair[0], pair[1]);
+		}
+		// Only warnings are logged, so that the log output does not distort the measurements
+		MainApp.LOGGER.setLevel(Level.WARNING);
+		// Disables the programme cache, so that every call loads the screenings from the database
+		System.setProperty("cinema.programmeCache.ttlSeconds", "0");
+
+		int movieCount = Integer.parseInt(settings.get("movies"));
+		int screeningCount = Integer.parseInt(settings.get("screenings"));
+		// Starts the programme in the past, so that about half of the screenings have already started
+		LocalDate firstDay = LocalDate.now().minusDays(screeningCount / SLOTS_PER_DAY / 2);
+		System.out.println("Creating synthetic database...");
+		new SyntheticDatabase(movieCount, screeningCount, 0, firstDay);
+
+		BenchmarkRunner runner = new BenchmarkRunner(
+			Integer.parseInt(settings.get("warmup")), Integer.parseInt(settings.get("rounds")));
+		runner.setParameter("movies", movieCount);
+		runner.setParameter("screenings", screeningCount);
+		runner.setParameter("java.version", System.getProperty("java.version"));
+		System.out.printf("%-6s %-40s %9s %15s %15s%n", "group", "benchmark", "size", "median", "p90");
+
+		int upcomingCount = ScreeningDAO.searchUpcomingScreenings().size();
+		runner.run("load", "ScreeningDAO.searchScreenings", screeningCount, ScreeningDAO::searchScreenings);
+		runner.run("load", "ScreeningDAO.searchUpcomingScreenings", upcomingCount,
+			ScreeningDAO::searchUpcomingScreenings);
+		runner.run("load", "upcoming (parsed dates, previous)", upcomingCount, ProgrammeLoadBenchmark::parseUpcoming);
+
+		LocalDateTime today = LocalDate.now().atStartOfDay();
+		int weekCount = ScreeningDAO.searchScreenings(today, today.plusDays(7)).size();
+		runner.run("range", "ScreeningDAO.searchScreenings(7 days)", weekCount,
+			() -> ScreeningDAO.searchScreenings(today, today.plusDays(7)));
+		runner.run("range", "count upcoming (starts_at index)", upcomingCount, () -> DBHelper.dbExecuteQuery(
+			"SELECT COUNT(*) FROM screenings WHERE starts_at > " + Screening.toEpochSeconds(LocalDateTime.now())));
+		runner.run("range", "count upcoming (date and time)", upcomingCount, () -> DBHelper.dbExecuteQuery(
+			"SELECT COUNT(*) FROM screenings WHERE date > '" + LocalDate.now() + "' OR (date = '" + LocalDate.now()
+				+ "' AND time > " + LocalTime.now().getHour() + ")"));
+
+		runner.writeJson(Paths.get(settings.get("out")));
+		System.out.println("Results written to " + settings.get("out"));
+	}
+
+	/**
+	 * Internal helper method that finds the upcoming screenings the way the programme views did before
+	 * the starts_at column existed, by reading all screenings and parsing the date of each one
+	 *
+	 * The movies of the screenings are not loaded, which the previous views did with one query per screening.
+	 *
+	 * @return the number of upcoming screenings
+	 * @throws Exception thrown if the screenings cannot be read
+	 */
+	private static int parseUpcoming() throws Exception {
+		ResultSet rs = DBHelper.dbExecuteQuery("SELECT * FROM screenings");
+		int upcoming = 0;
+		while (rs.next()) {
+			LocalDate date = LocalDate.parse(rs.getString("date"));
+			int time = rs.getInt("time");
+			if (!(date.isBefore(LocalDate.now()) ||
+				(date.isEqual(LocalDate.now()) && LocalTime.now().getHour() >= time))) {
+				upcoming++;
+			}
+		}
+		return upcoming;
+	}
+}
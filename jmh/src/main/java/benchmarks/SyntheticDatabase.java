@@ -0,0 +1,194 @@
+package benchmarks;
+
+import helpers.DBHelper;
+import models.Booking;
+import models.BookingDAO;
+import models.Movie;
+import models.MovieDAO;
+import models.Screening;
+import models.ScreeningDAO;
+import models.Seat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates a temporary copy of the cinema database that is filled with a configurable number of synthetic rows
+ *
+ * The copy keeps the schema and the accounts of db/cinema.db, but its movies, screenings and bookings
+ * are replaced with generated ones. The data is inserted through the DAOs of this application, and
+ * the system property read by DBHelper is pointed at the copy, so all following database operations
+ * use the synthetic database instead of the real one.
+ */
+public class SyntheticDatabase {
+
+	// Number of seats in the cinema room
+	private static final int NUMBER_OF_SEATS = 50;
+	// Number of seats every synthetic booking reserves
+	private static final int SEATS_PER_BOOKING = 2;
+	// Number of different customers the synthetic bookings belong to
+	private static final int NUMBER_OF_CUSTOMERS = 100;
+
+	private final Path file;
+	private final List<Movie> movies = new ArrayList<>();
+	private final List<Screening> screenings = new ArrayList<>();
+	private final List<Booking> bookings = new ArrayList<>();
+
+	/**
+	 * Copies the cinema database, fills the copy with synthetic rows and makes DBHelper use it
+	 *
+	 * @param movieCount the number of movies
+	 * @param screeningCount the number of screenings, which are spread over the days starting with today
+	 * @param bookingCount the number of bookings, which are spread evenly over the screenings
+	 * @throws IOException thrown if the database cannot be copied
+	 * @throws SQLException thrown if the synthetic rows cannot be inserted
+	 */
+	public SyntheticDatabase(int movieCount, int screeningCount, int bookingCount) throws IOException, SQLException {
+		this(movieCount, screeningCount, bookingCount, LocalDate.now());
+	}
+
+	/**
+	 * Copies the cinema database, fills the copy with synthetic rows and makes DBHelper use it
+	 *
+	 * @param movieCount the number of movies
+	 * @param screeningCount the number of screenings, which are spread over the days starting with firstDay
+	 * @param bookingCount the number of bookings, which are spread evenly over the screenings
+	 * @param firstDay the day of the first screenings, e.g. a day in the past to create past screenings
+	 * @throws IOException thrown if the database cannot be copied
+	 * @throws SQLException thrown if the synthetic rows cannot be inserted
+	 */
+	public SyntheticDatabase(int movieCount, int screeningCount, int bookingCount, LocalDate firstDay)
+		throws IOException, SQLException {
+		if (bookingCount > (long) screeningCount * (NUMBER_OF_SEATS / SEATS_PER_BOOKING)) {
+			throw new IllegalArgumentException("Every screening can hold at most "
+				+ NUMBER_OF_SEATS / SEATS_PER_BOOKING + " bookings");
+		}
+		// Copies the database into a temporary file that is deleted when the JVM exits
+		file = Files.createTempFile("cinema-synthetic", ".db");
+		file.toFile().deleteOnExit();
+		Files.copy(Paths.get("db/cinema.db"), file, StandardCopyOption.REPLACE_EXISTING);
+		System.setProperty(DBHelper.DB_PATH_PROPERTY, file.toString());
+
+		// Removes the existing movies, screenings and bookings from the copy
+		DBHelper.dbExecuteUpdate("DELETE FROM bookings;");
+		DBHelper.dbExecuteUpdate("DELETE FROM screenings;");
+		DBHelper.dbExecuteUpdate("DELETE FROM movies;");
+
+		createMovies(movieCount);
+		MovieDAO.addMovies(movies);
+		// Creates the bookings first, so that their seats are already booked when the screenings are saved
+		createScreenings(screeningCount, firstDay);
+		createBookings(bookingCount);
+		ScreeningDAO.addScreenings(screenings);
+		for (Booking booking : bookings) {
+			booking.screenIDProperty().set(booking.getScreening().getScreenID());
+		}
+		BookingDAO.addBookings(bookings);
+	}
+
+	/**
+	 * Internal helper method that creates the synthetic movies
+	 *
+	 * @param movieCount the number of movies
+	 */
+	private void createMovies(int movieCount) {
+		String[] genres = {"Action", "Comedy", "Drama", "Horror", "Science Fiction"};
+		for (int i = 0; i < movieCount; i++) {
+			Movie movie = new Movie();
+			movie.setName("Synthetic Movie " + i);
+			movie.setDescription("Description of synthetic movie " + i);
+			movie.setGenre(genres[i % genres.length]);
+			movie.setYear(1950 + i % 70);
+			movie.setDirector("Director " + i % 50);
+			movie.setActors("Actor " + i % 200 + ", Actor " + (i + 1) % 200);
+			movie.setImgPath("django.jpg");
+			movie.setTrailerURL("https://www.youtube.com/embed/synthetic" + i);
+			movies.add(movie);
+		}
+	}
+
+	/**
+	 * Internal helper method that creates the synthetic screenings, thirteen per day starting with the provided day
+	 *
+	 * @param screeningCount the number of screenings
+	 * @param firstDay the day of the first screenings
+	 */
+	private void createScreenings(int screeningCount, LocalDate firstDay) {
+		final int SLOTS_PER_DAY = 13;
+		StringBuilder emptySeats = new StringBuilder();
+		for (int i = 0; i < NUMBER_OF_SEATS; i++) {
+			emptySeats.append('0');
+		}
+		for (int i = 0; i < screeningCount; i++) {
+			Screening screening = new Screening();
+			Movie movie = movies.get(i % movies.size());
+			// Sets the movieID without loading the movie from the database again
+			screening.movieIDProperty().set(movie.getMovieID());
+			screening.setMovie(movie);
+			screening.setSeats(emptySeats.toString());
+			screening.setDate(firstDay.plusDays(i / SLOTS_PER_DAY).toString());
+			screening.setTime(12 + i % SLOTS_PER_DAY);
+			screenings.add(screening);
+		}
+	}
+
+	/**
+	 * Internal helper method that creates the synthetic bookings and marks their seats as booked
+	 *
+	 * @param bookingCount the number of bookings
+	 */
+	private void createBookings(int bookingCount) {
+		for (int i = 0; i < bookingCount; i++) {
+			// Spreads the bookings over all screenings, filling each screening from its first seat onwards
+			Screening screening = screenings.get(i % screenings.size());
+			int firstSeat = (i / screenings.size()) * SEATS_PER_BOOKING;
+			ArrayList<Seat> seatList = new ArrayList<>(SEATS_PER_BOOKING);
+			for (int seatIndex = firstSeat; seatIndex < firstSeat + SEATS_PER_BOOKING; seatIndex++) {
+				Seat seat = screening.getSeatList().get(seatIndex);
+				seat.setBooked(true);
+				seatList.add(seat);
+			}
+			Booking booking = new Booking();
+			booking.setUsername("customer" + i % NUMBER_OF_CUSTOMERS);
+			// Sets the screening without loading it from the database again
+			booking.setScreening(screening);
+			booking.setSeats(seatList);
+			bookings.add(booking);
+		}
+	}
+
+	/**
+	 * @return the temporary database file
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the synthetic movies, which hold the movieIDs generated by the database
+	 */
+	public List<Movie> getMovies() {
+		return movies;
+	}
+
+	/**
+	 * @return the synthetic screenings, which hold the screenIDs generated by the database
+	 */
+	public List<Screening> getScreenings() {
+		return screenings;
+	}
+
+	/**
+	 * @return the synthetic bookings, which hold the bookingIDs generated by the database
+	 */
+	public List<Booking> getBookings() {
+		return bookings;
+	}
+}
@@ -0,0 +1,335 @@
+package loadtest;
+
+import application.MainApp;
+import benchmarks.SyntheticDatabase;
+import helpers.DBHelper;
+import models.Booking;
+import models.BookingDAO;
+import models.Screening;
+import models.ScreeningDAO;
+import models.Seat;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Headless load generator that simulates many customers booking seats at the same time
+ *
+ * Every simulated customer repeatedly browses the programme, picks a screening and some of the seats that
+ * were free when the programme was loaded, and books them the same way CustomerProgrammeMovieController
+ * does: the booking is saved with BookingDAO.addBooking, which the database rejects if one of its seats
+ * has been booked in the meantime and which marks the seats as booked in the screening. No GUI is started.
+ *
+ * The load runs against a temporary copy of db/cinema.db that is filled with a small synthetic programme
+ * (see SyntheticDatabase), so that many customers compete for the same screenings. Afterwards the tool
+ * reports throughput, p50/p99 latencies, failed operations and database lock errors, and checks the
+ * database for double-booked seats and lost seat updates.
+ *
+ * Must be run from the directory that contains the db folder. Arguments are given as key=value pairs:
+ * customers (default 16), iterations per customer (default 20), screenings (default 20),
+ * movies (default 5), maxSeats per booking (default 4) and think time in milliseconds between two
+ * actions of a customer (default 0).
+ */
+public class BookingLoadGenerator {
+
+	// Number of seats in each row of the cinema room
+	private static final int SEATS_PER_ROW = 10;
+
+	private final int customers, iterations, maxSeats, thinkMillis;
+	private final AtomicInteger bookings = new AtomicInteger();
+	private final AtomicInteger soldOut = new AtomicInteger();
+	private final AtomicInteger failures = new AtomicInteger();
+	private final AtomicInteger seatConflicts = new AtomicInteger();
+	private final AtomicInteger lockErrors = new AtomicInteger();
+
+	/**
+	 * Constructor that sets the shape of the simulated load
+	 *
+	 * @param customers the number of customers booking at the same time
+	 * @param iterations the number of booking attempts of every customer
+	 * @param maxSeats the maximum number of seats per booking
+	 * @param thinkMillis the pause in milliseconds between two actions of a customer
+	 */
+	public BookingLoadGenerator(int customers, int iterations, int maxSeats, int thinkMillis) {
+		this.customers = customers;
+		this.iterations = iterations;
+		this.maxSeats = maxSeats;
+		this.thinkMillis = thinkMillis;
+	}
+
+	/**
+	 * Creates the temporary database, runs the load and prints the report
+	 *
+	 * @param args key=value pairs overriding the default settings
+	 * @throws Exception thrown if the database cannot be created or a customer thread is interrupted
+	 */
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		settings.put("customers", "16");
+		settings.put("iterations", "20");
+		settings.put("screenings", "20");
+		settings.put("movies", "5");
+		settings.put("maxSeats", "4");
+		settings.put("think", "0");
+		for (String arg : args) {
+			String[] pair = arg.split("=", 2);
+			if (pair.length != 2 || !settings.containsKey(pair[0])) {
+				throw new IllegalArgumentException("Unknown argument " + arg);
+			}
+			settings.put(pair[0], pair[1]);
+		}
+		// Only warnings are logged, and they are counted instead of printed
+		MainApp.LOGGER.setLevel(Level.WARNING);
+		MainApp.LOGGER.setUseParentHandlers(false);
+
+		System.out.println("Creating temporary database...");
+		SyntheticDatabase database = new SyntheticDatabase(Integer.parseInt(settings.get("movies")),
+			Integer.parseInt(settings.get("screenings")), 0);
+		System.out.println("Using " + database.getFile());
+
+		BookingLoadGenerator generator = new BookingLoadGenerator(Integer.parseInt(settings.get("customers")),
+			Integer.parseInt(settings.get("iterations")), Integer.parseInt(settings.get("maxSeats")),
+			Integer.parseInt(settings.get("think")));
+		generator.run();
+	}
+
+	/**
+	 * Runs all simulated customers in parallel, waits for them to finish and prints the report
+	 *
+	 * @throws Exception thrown if a customer thread is interrupted
+	 */
+	public void run() throws Exception {
+		// Counts the database errors that occur because another connection holds the write lock
+		Handler lockErrorCounter = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				String message = record.getMessage();
+				if (message != null && (message.contains("SQLITE_BUSY") || message.contains("locked"))) {
+					lockErrors.incrementAndGet();
+				}
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		MainApp.LOGGER.addHandler(lockErrorCounter);
+
+		ExecutorService executor = Executors.newFixedThreadPool(customers);
+		List<Future<long[][]>> results = new ArrayList<>();
+		long startTime = System.nanoTime();
+		for (int customer = 0; customer < customers; customer++) {
+			final int customerNumber = customer;
+			results.add(executor.submit(() -> simulateCustomer(customerNumber)));
+		}
+		// Collects the browse and booking latencies of all customers
+		List<Long> browseLatencies = new ArrayList<>();
+		List<Long> bookingLatencies = new ArrayList<>();
+		for (Future<long[][]> result : results) {
+			for (long latency : result.get()[0]) {
+				browseLatencies.add(latency);
+			}
+			for (long latency : result.get()[1]) {
+				bookingLatencies.add(latency);
+			}
+		}
+		double durationSeconds = (System.nanoTime() - startTime) / 1e9;
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		MainApp.LOGGER.removeHandler(lockErrorCounter);
+
+		System.out.printf(Locale.ROOT, "%nCustomers: %d, attempts per customer: %d, duration: %.2f s%n",
+			customers, iterations, durationSeconds);
+		System.out.printf(Locale.ROOT, "Bookings: %d (%.1f bookings/s), sold out: %d, failed operations: %d%n",
+			bookings.get(), bookings.get() / durationSeconds, soldOut.get(), failures.get());
+		printLatencies("Browse programme", browseLatencies);
+		printLatencies("Book seats", bookingLatencies);
+		System.out.println("Database lock errors (SQLITE_BUSY): " + lockErrors.get());
+		System.out.println("Bookings rejected because a seat was already booked: " + seatConflicts.get());
+		checkConsistency();
+	}
+
+	/**
+	 * Simulates one customer who browses the programme and books seats a number of times
+	 *
+	 * @param customerNumber the number of the customer, used for its username and random seed
+	 * @return two arrays holding the browse and the booking latencies in nanoseconds
+	 */
+	private long[][] simulateCustomer(int customerNumber) {
+		Random random = new Random(customerNumber);
+		String username = "loadcustomer" + customerNumber;
+		List<Long> browseLatencies = new ArrayList<>();
+		List<Long> bookingLatencies = new ArrayList<>();
+		for (int i = 0; i < iterations; i++) {
+			try {
+				// Browses the programme like the CustomerProgramme view does
+				long startTime = System.nanoTime();
+				List<Screening> programme = ScreeningDAO.searchUpcomingScreenings();
+				browseLatencies.add(System.nanoTime() - startTime);
+				think();
+
+				// Picks a screening and some seats that were free when the programme was loaded
+				Screening screening = programme.get(random.nextInt(programme.size()));
+				List<Seat> freeSeats = new ArrayList<>();
+				for (Seat seat : screening.getSeatList()) {
+					if (!seat.isBooked()) {
+						freeSeats.add(seat);
+					}
+				}
+				int seatCount = 1 + random.nextInt(maxSeats);
+				if (freeSeats.size() < seatCount) {
+					soldOut.incrementAndGet();
+					continue;
+				}
+				Collections.shuffle(freeSeats, random);
+				ArrayList<Seat> selectedSeats = new ArrayList<>(freeSeats.subList(0, seatCount));
+				think();
+
+				// Books the seats like CustomerProgrammeMovieController.confirmBooking does
+				startTime = System.nanoTime();
+				Booking booking = new Booking();
+				booking.setUsername(username);
+				booking.setScreenID(screening.getScreenID());
+				booking.setScreening(screening);
+				booking.setSeats(selectedSeats);
+				BookingDAO.addBooking(booking);
+				for (Seat seat : selectedSeats) {
+					seat.setBooked(true);
+				}
+				bookingLatencies.add(System.nanoTime() - startTime);
+				bookings.incrementAndGet();
+			} catch (SQLException e) {
+				if (BookingDAO.isSeatConflict(e)) {
+					seatConflicts.incrementAndGet();
+				} else {
+					failures.incrementAndGet();
+				}
+			} catch (Exception e) {
+				failures.incrementAndGet();
+			}
+		}
+		return new long[][] {toArray(browseLatencies), toArray(bookingLatencies)};
+	}
+
+	/**
+	 * Checks the database for seats that were booked by more than one booking and for bookings whose seats were lost
+	 *
+	 * A seat is lost if the seat String of its screening shows it as free although a booking holds it, e.g.
+	 * because two customers saved the whole seat String of the same screening at the same time.
+	 *
+	 * @throws Exception thrown if the database cannot be read
+	 */
+	private void checkConsistency() throws Exception {
+		// Reads the seat String of every screening
+		Map<Integer, String> screeningSeats = new HashMap<>();
+		ResultSet rsScreenings = DBHelper.dbExecuteQuery("SELECT screenID, seats FROM screenings");
+		while (rsScreenings.next()) {
+			screeningSeats.put(rsScreenings.getInt("screenID"), rsScreenings.getString("seats"));
+		}
+		// Counts how often every seat of every screening was booked
+		Map<Integer, int[]> seatClaims = new HashMap<>();
+		ResultSet rsBookings = DBHelper.dbExecuteQuery("SELECT screenID, seats FROM bookings");
+		while (rsBookings.next()) {
+			int[] claims = seatClaims.computeIfAbsent(rsBookings.getInt("screenID"),
+				screenID -> new int[screeningSeats.get(screenID).length()]);
+			for (String seat : rsBookings.getString("seats").split(",")) {
+				if (!seat.isEmpty()) {
+					claims[(seat.charAt(0) - 'A') * SEATS_PER_ROW + Integer.parseInt(seat.substring(1)) - 1]++;
+				}
+			}
+		}
+		int doubleBookedSeats = 0, lostSeats = 0, seatsWithoutBooking = 0;
+		for (Map.Entry<Integer, String> screening : screeningSeats.entrySet()) {
+			int[] claims = seatClaims.getOrDefault(screening.getKey(), new int[screening.getValue().length()]);
+			for (int i = 0; i < claims.length; i++) {
+				boolean booked = screening.getValue().charAt(i) == '1';
+				if (claims[i] > 1) {
+					doubleBookedSeats += claims[i] - 1;
+				}
+				if (claims[i] > 0 && !booked) {
+					lostSeats++;
+				}
+				if (claims[i] == 0 && booked) {
+					seatsWithoutBooking++;
+				}
+			}
+		}
+		System.out.println("Conflicts (seats booked more than once): " + doubleBookedSeats);
+		System.out.println("Lost updates (booked seats shown as free): " + lostSeats);
+		System.out.println("Seats marked as booked without a booking: " + seatsWithoutBooking);
+	}
+
+	/**
+	 * Internal helper method that pauses the current customer for the configured think time
+	 *
+	 * @throws InterruptedException thrown if the customer thread is interrupted
+	 */
+	private void think() throws InterruptedException {
+		if (thinkMillis > 0) {
+			Thread.sleep(thinkMillis);
+		}
+	}
+
+	/**
+	 * Internal helper method that prints the number of measurements and the p50/p99 latency
+	 *
+	 * @param name the name of the measured operation
+	 * @param latencies the latencies in nanoseconds
+	 */
+	private static void printLatencies(String name, List<Long> latencies) {
+		if (latencies.isEmpty()) {
+			System.out.println(name + ": no measurements");
+			return;
+		}
+		long[] sorted = toArray(latencies);
+		Arrays.sort(sorted);
+		System.out.printf(Locale.ROOT, "%s: %d operations, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", name,
+			sorted.length, percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6, sorted[sorted.length - 1] / 1e6);
+	}
+
+	/**
+	 * Internal helper method that returns a percentile of sorted values using the nearest rank
+	 *
+	 * @param sorted the values in ascending order
+	 * @param percentile the percentile between 1 and 100
+	 * @return the value at the percentile
+	 */
+	private static long percentile(long[] sorted, int percentile) {
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	/**
+	 * Internal helper method that copies a list of Longs into an array
+	 *
+	 * @param values the list of values
+	 * @return an array with the same values
+	 */
+	private static long[] toArray(List<Long> values) {
+		long[] array = new long[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = values.get(i);
+		}
+		return array;
+	}
+}
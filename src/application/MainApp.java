@@ -3,6 +3,9 @@ package application;
 import controllers.customer.CustomerProfileController;
 import controllers.customer.CustomerProgrammeController;
 import controllers.employee.EmployeeDashboardController;
+import controllers.employee.EmployeeMovieListController;
+import helpers.AsyncFileHandler;
+import helpers.Metrics;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -11,10 +14,10 @@ import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
-import java.util.logging.FileHandler;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 /**
  * This application is a cinema booking system, fully created in Java and implemented as a JavaFX GUI application.
@@ -50,9 +53,16 @@ public class MainApp extends Application {
 	public static EmployeeDashboardController employeeDashboardController;
 	public static CustomerProgrammeController customerProgrammeController;
 	public static CustomerProfileController customerProfileController;
+	// Views that are preloaded in the background after logging in
+	public static final String CUSTOMER_PROFILE_VIEW = "/views/customer/CustomerProfile.fxml";
+	public static final String EMPLOYEE_MOVIE_LIST_VIEW = "/views/employee/EmployeeMovieList.fxml";
 
 	//Logging
 	public static final Logger LOGGER = Logger.getLogger(MainApp.class.getName());
+	// Size after which the log file is rolled over, the number of rolled files kept and the number of queued records
+	private static final long LOG_MAX_BYTES = 5 * 1024 * 1024;
+	private static final int LOG_MAX_FILES = 5;
+	private static final int LOG_QUEUE_CAPACITY = 8192;
 
 	//Username
 	public static String username;
@@ -60,6 +70,9 @@ public class MainApp extends Application {
 	//Type of user
 	public static boolean isEmployee;
 
+	// Whether the time until the first login screen was shown has been recorded
+	private static boolean startupRecorded = false;
+
 
 	/**
 	 *
@@ -78,6 +91,8 @@ public class MainApp extends Application {
 	public void start(Stage primaryStage) {
 		// Sets up the logger
 		setupLogger();
+		// Writes the database metrics to logs/metrics.txt every minute
+		Metrics.startPeriodicDump(Paths.get(System.getProperty("user.dir"), "logs", "metrics.txt"), 60);
 		MainApp.primaryStage = primaryStage;
 		// Prevents resizing of the main window
 		primaryStage.setResizable(false);
@@ -89,28 +104,34 @@ public class MainApp extends Application {
 	 * Starts the application as an employee
 	 */
 	public static void startAsEmployee() {
+		long startTime = System.nanoTime();
 		// Sets the window title
 		primaryStage.setTitle("JavaCinema Admin");
 		// Shows the employee starting views
 		showEmployeeRoot();
 		showEmployeeDashboard();
+		// Loads the movie list in the background for faster access
+		ViewRegistry.preload(EMPLOYEE_MOVIE_LIST_VIEW);
 		isEmployee = true;
-		LOGGER.info("Starting the App as Employee");
+		Metrics.timer("startup.employee.time").recordSince(startTime);
+		LOGGER.info(() -> "Starting the App as Employee took " + (System.nanoTime() - startTime) / 1000000 + " ms");
 	}
 
 	/**
 	 * Starts the application as a customer
 	 */
 	public static void startAsCustomer() {
+		long startTime = System.nanoTime();
 		// Sets the window title
 		primaryStage.setTitle("JavaCinema");
 		// Shows the customer starting views
 		showCustomerRoot();
 		showCustomerProgramme();
-		// Loads the customer profile in the background for faster access
-		loadCustomerProfile();
+		// Loads the customer profile and booking history in the background for faster access
+		ViewRegistry.preload(CUSTOMER_PROFILE_VIEW);
 		isEmployee = false;
-		LOGGER.info("Starting the App as Customer");
+		Metrics.timer("startup.customer.time").recordSince(startTime);
+		LOGGER.info(() -> "Starting the App as Customer took " + (System.nanoTime() - startTime) / 1000000 + " ms");
 	}
 
 	/**
@@ -154,19 +175,28 @@ public class MainApp extends Application {
 			e.printStackTrace();
 		}
 		LOGGER.info("Showing Login");
+		if (!startupRecorded) {
+			// Records the time from starting the JVM until the login screen is shown for the first time
+			long startupMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+			Metrics.histogram("startup.login.time", "ms").record(startupMillis);
+			LOGGER.info("Application started in " + startupMillis + " ms");
+			startupRecorded = true;
+		}
 		// Displays the login window
 		loginStage.showAndWait();
 	}
 
 	/**
 	 * Sets up the logger for this application
+	 *
+	 * Log records are written to logs/log.txt on a background thread, so logging never blocks the
+	 * JavaFX application thread. The file is rolled over at 5 MB or when a new day starts.
 	 */
 	private void setupLogger() {
-		//Create new FileHandler
+		//Create new AsyncFileHandler
 		try {
-			FileHandler fileHandler = new FileHandler(System.getProperty("user.dir") + "/logs/log.txt");
-			//Set Formatter of fileHandler to SimpleFormatter
-			fileHandler.setFormatter(new SimpleFormatter());
+			AsyncFileHandler fileHandler = new AsyncFileHandler(
+				Paths.get(System.getProperty("user.dir"), "logs", "log.txt"), LOG_MAX_BYTES, LOG_MAX_FILES, LOG_QUEUE_CAPACITY);
 			//Add fileHandler to LOGGER
 			LOGGER.addHandler(fileHandler);
 		} catch (IOException e) {
@@ -182,13 +212,9 @@ public class MainApp extends Application {
 	 * Shows EmployeeRoot and sets it as the scene of primaryStage
 	 */
 	private static void showEmployeeRoot() {
-		// Creates a new FXMLLoader
-		FXMLLoader loader = new FXMLLoader();
-		// Sets the location of the .FXML file
-		loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeRoot.fxml"));
 		try {
-			// Loads the FXML file
-			employeeRoot = loader.load();
+			// Loads the view through the ViewRegistry, which caches it until the user logs out
+			employeeRoot = ViewRegistry.get("/views/employee/EmployeeRoot.fxml").getRoot();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -207,34 +233,48 @@ public class MainApp extends Application {
 	 * Shows EmployeeDashboard in the center of EmployeeRoot
 	 */
 	private static void showEmployeeDashboard() {
-		// Creates a new FXMLLoader
-		FXMLLoader loader = new FXMLLoader();
-		// Sets the location of the .FXML file
-		loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeDashboard.fxml"));
 		try {
-			// Loads the FXML file
-			employeeDashboard = loader.load();
+			// Loads the view through the ViewRegistry, which caches it until the user logs out
+			ViewRegistry.View view = ViewRegistry.get("/views/employee/EmployeeDashboard.fxml");
+			employeeDashboard = view.getRoot();
+			// Saves the controller in a class variable
+			employeeDashboardController = view.getController();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		// Saves the controller in a class variable
-		employeeDashboardController = loader.getController();
 		// Displays the view in the center of employeeRoot
 		employeeRoot.setCenter(employeeDashboard);
 		LOGGER.info("Showing Employee Dashboard");
 	}
 
+	/**
+	 * Shows the EmployeeMovieList view in the center of EmployeeRoot
+	 *
+	 * The view is parsed only once per login. When it is shown again, its list of movies is reloaded
+	 * from the database, as movies may have been added or removed in the meantime.
+	 */
+	public static void showEmployeeMovieList() {
+		try {
+			ViewRegistry.View view = ViewRegistry.get(EMPLOYEE_MOVIE_LIST_VIEW);
+			// Reloads the movies if the view has been shown before and therefore already existed
+			if (employeeMovieList == view.getRoot()) {
+				view.<EmployeeMovieListController>getController().reloadMovies();
+			}
+			employeeMovieList = view.getRoot();
+			employeeRoot.setCenter(employeeMovieList);
+			LOGGER.info("Showing Employee Movie List");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Shows CustomerRoot and sets it as the scene of primaryStage
 	 */
 	private static void showCustomerRoot() {
-		// Creates a new FXMLLoader
-		FXMLLoader loader = new FXMLLoader();
-		// Sets the location of the .FXML file
-		loader.setLocation(MainApp.class.getResource("/views/customer/CustomerRoot.fxml"));
 		try {
-			// Loads the FXML file
-			customerRoot = loader.load();
+			// Loads the view through the ViewRegistry, which caches it until the user logs out
+			customerRoot = ViewRegistry.get("/views/customer/CustomerRoot.fxml").getRoot();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -250,18 +290,20 @@ public class MainApp extends Application {
 	}
 
 	/**
-	 * Loads the CustomerProfile view to facilitate quicker access at a later time
+	 * Shows the CustomerProfile view in the center of CustomerRoot
+	 *
+	 * The view is usually preloaded in the background after the customer has logged in,
+	 * otherwise it is loaded now.
 	 */
-	private static void loadCustomerProfile() {
+	public static void showCustomerProfile() {
 		try {
-			// Creates a new FXMLLoader
-			FXMLLoader loader = new FXMLLoader();
-			// Sets the location of the .FXML file
-			loader.setLocation(MainApp.class.getResource("/views/customer/CustomerProfile.fxml"));
-			// Loads the FXML file
-			customerProfile = loader.load();
+			ViewRegistry.View view = ViewRegistry.get(CUSTOMER_PROFILE_VIEW);
+			customerProfile = view.getRoot();
 			// Saves the controller in a class variable
-			customerProfileController = loader.getController();
+			customerProfileController = view.getController();
+			// Displays customerProfile in the center of customerRoot
+			customerRoot.setCenter(customerProfile);
+			LOGGER.info("Showing Customer Profile");
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -272,14 +314,11 @@ public class MainApp extends Application {
 	 */
 	private static void showCustomerProgramme() {
 		try {
-			// Creates a new FXMLLoader
-			FXMLLoader loader = new FXMLLoader();
-			// Sets the location of the .FXML file
-			loader.setLocation(MainApp.class.getResource("/views/customer/CustomerProgramme.fxml"));
-			// Loads the FXML file
-			customerProgramme = loader.load();
+			// Loads the view through the ViewRegistry, which caches it until the user logs out
+			ViewRegistry.View view = ViewRegistry.get("/views/customer/CustomerProgramme.fxml");
+			customerProgramme = view.getRoot();
 			// Saves the controller in a class variable
-			customerProgrammeController = loader.getController();
+			customerProgrammeController = view.getController();
 			// Displays customerProgramme in the center of customerRoot
 			customerRoot.setCenter(customerProgramme);
 			LOGGER.info("Showing Customer Programme");
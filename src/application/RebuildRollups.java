@@ -0,0 +1,37 @@
+package application;
+
+import helpers.DBHelper;
+import models.ReportDAO;
+
+import java.sql.SQLException;
+
+/**
+ * Command that recalculates the rollup tables of the database from its screenings and bookings
+ *
+ * The rollup tables are kept up to date automatically. This command is meant for backfilling them,
+ * e.g. after bookings have been written to the database by other means than this application.
+ * An optional argument names the database file, otherwise db/cinema.db is used.
+ *
+ * Usage: java application.RebuildRollups [database file]
+ */
+public class RebuildRollups {
+
+	/**
+	 * Rebuilds the rollup tables
+	 *
+	 * @param args the optional path of the database file
+	 */
+	public static void main(String[] args) {
+		if (args.length > 0) {
+			System.setProperty(DBHelper.DB_PATH_PROPERTY, args[0]);
+		}
+		long startTime = System.nanoTime();
+		try {
+			ReportDAO.rebuildRollups();
+			System.out.println("Rebuilt the rollup tables in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+		} catch (SQLException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+}
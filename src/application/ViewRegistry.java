@@ -0,0 +1,231 @@
+package application;
+
+import helpers.Metrics;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * This class loads the application's FXML views and keeps the views that can be reused
+ *
+ * Views are identified by the path of their FXML file, e.g. "/views/customer/CustomerProfile.fxml".
+ * A cached view is parsed the first time it is requested and the same view and controller are returned
+ * afterwards, until the cache is cleared when the user logs out. Views that are likely to be needed next
+ * can be preloaded on a background thread, so that they are ready when the user navigates to them.
+ * If the user navigates to a view whose preloading has not started yet, the view is loaded right away
+ * instead, and if it is currently being preloaded, the preloaded view is waited for.
+ *
+ * Views that show a form or a single screening are not cached, as they have to start from a blank state
+ * every time, but they are loaded through this class as well so that all load times are recorded.
+ * The time it takes to parse each view is recorded in the timer view.NAME.load, and the time it takes
+ * to obtain a view when navigating, including waiting for a preload, in the timer view.NAME.get.
+ */
+public class ViewRegistry {
+
+	private static final Map<String, FutureTask<View>> views = new ConcurrentHashMap<>();
+
+	// Single background thread that preloads views in the order they were requested
+	private static final ExecutorService preloader = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "view-preloader");
+		// Does not keep the application running once the window has been closed
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * A loaded view consisting of its root node and its controller
+	 */
+	public static class View {
+
+		private final Parent root;
+		private final Object controller;
+
+		/**
+		 * Constructor that sets the root node and controller of the view
+		 *
+		 * @param root the root node of the view
+		 * @param controller the controller of the view
+		 */
+		private View(Parent root, Object controller) {
+			this.root = root;
+			this.controller = controller;
+		}
+
+		/**
+		 * @param <T> the type of the root node, e.g. AnchorPane
+		 * @return the root node of the view
+		 */
+		@SuppressWarnings("unchecked")
+		public <T extends Parent> T getRoot() {
+			return (T) root;
+		}
+
+		/**
+		 * @param <T> the type of the controller
+		 * @return the controller of the view
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T getController() {
+			return (T) controller;
+		}
+	}
+
+	/**
+	 * Returns the cached view of an FXML file, loading it if it has not been loaded yet
+	 *
+	 * @param fxmlPath the path of the FXML file, e.g. "/views/customer/CustomerProfile.fxml"
+	 * @return the view
+	 * @throws IOException thrown if the FXML file cannot be loaded
+	 */
+	public static View get(String fxmlPath) throws IOException {
+		long startTime = System.nanoTime();
+		FutureTask<View> task = views.computeIfAbsent(fxmlPath, ViewRegistry::newLoadTask);
+		// Loads the view on this thread unless it has already been loaded or is being preloaded
+		task.run();
+		try {
+			return await(fxmlPath, task);
+		} finally {
+			Metrics.timer("view." + viewName(fxmlPath) + ".get").recordSince(startTime);
+		}
+	}
+
+	/**
+	 * Returns the cached view of an FXML file if it has been requested before
+	 *
+	 * If the view is currently being preloaded, this method waits for it.
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @return the view, or null if the view has neither been loaded nor requested to be preloaded
+	 * @throws IOException thrown if the FXML file cannot be loaded
+	 */
+	public static View getIfRequested(String fxmlPath) throws IOException {
+		FutureTask<View> task = views.get(fxmlPath);
+		if (task == null) {
+			return null;
+		}
+		task.run();
+		return await(fxmlPath, task);
+	}
+
+	/**
+	 * Loads a new, uncached view of an FXML file
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @return the new view
+	 * @throws IOException thrown if the FXML file cannot be loaded
+	 */
+	public static View load(String fxmlPath) throws IOException {
+		long startTime = System.nanoTime();
+		try {
+			return loadView(fxmlPath);
+		} finally {
+			Metrics.timer("view." + viewName(fxmlPath) + ".get").recordSince(startTime);
+		}
+	}
+
+	/**
+	 * Loads the views of the provided FXML files on a background thread and caches them
+	 *
+	 * The controllers of preloaded views must not show windows or create WebViews when they are initialized,
+	 * as this is only possible on the JavaFX application thread.
+	 *
+	 * @param fxmlPaths the paths of the FXML files
+	 */
+	public static void preload(String... fxmlPaths) {
+		for (String fxmlPath : fxmlPaths) {
+			FutureTask<View> task = views.computeIfAbsent(fxmlPath, ViewRegistry::newLoadTask);
+			if (!task.isDone()) {
+				preloader.execute(task);
+			}
+		}
+	}
+
+	/**
+	 * Removes all cached views, e.g. because they show information about a user who has logged out
+	 *
+	 * Views that are waiting to be preloaded are not loaded anymore.
+	 */
+	public static void clear() {
+		for (FutureTask<View> task : views.values()) {
+			task.cancel(false);
+		}
+		views.clear();
+	}
+
+	/**
+	 * Internal helper method that creates the task which loads a cached view
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @return the task
+	 */
+	private static FutureTask<View> newLoadTask(String fxmlPath) {
+		return new FutureTask<>(() -> loadView(fxmlPath));
+	}
+
+	/**
+	 * Internal helper method that waits for the task which loads a cached view
+	 *
+	 * If the view could not be loaded, the task is removed so that the next request tries again.
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @param task the task that loads the view
+	 * @return the view
+	 * @throws IOException thrown if the FXML file cannot be loaded
+	 */
+	private static View await(String fxmlPath, FutureTask<View> task) throws IOException {
+		try {
+			return task.get();
+		} catch (ExecutionException | CancellationException e) {
+			views.remove(fxmlPath, task);
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not load the view " + fxmlPath, e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the view " + fxmlPath, e);
+		}
+	}
+
+	/**
+	 * Internal helper method that parses an FXML file and records how long it took
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @return the new view
+	 * @throws IOException thrown if the FXML file cannot be loaded
+	 */
+	private static View loadView(String fxmlPath) throws IOException {
+		long startTime = System.nanoTime();
+		// Creates a new FXMLLoader
+		FXMLLoader loader = new FXMLLoader();
+		// Sets the location of the .FXML file
+		loader.setLocation(MainApp.class.getResource(fxmlPath));
+		// Loads the FXML file
+		Parent root = loader.load();
+		long durationNanos = System.nanoTime() - startTime;
+		Metrics.timer("view." + viewName(fxmlPath) + ".load").record(durationNanos);
+		MainApp.LOGGER.fine(() -> "Loaded " + viewName(fxmlPath) + " in " + durationNanos / 1000000 + " ms on "
+			+ Thread.currentThread().getName());
+		return new View(root, loader.getController());
+	}
+
+	/**
+	 * Internal helper method that derives the name of a view from its FXML file
+	 *
+	 * @param fxmlPath the path of the FXML file
+	 * @return the file name without directory and extension, e.g. "CustomerProfile"
+	 */
+	private static String viewName(String fxmlPath) {
+		int start = fxmlPath.lastIndexOf('/') + 1;
+		int end = fxmlPath.endsWith(".fxml") ? fxmlPath.length() - ".fxml".length() : fxmlPath.length();
+		return fxmlPath.substring(start, end);
+	}
+}
@@ -4,6 +4,7 @@ import application.MainApp;
 import com.google.zxing.WriterException;
 import helpers.DateStringConverter;
 import helpers.Helpers;
+import helpers.MovieSearchFilter;
 import helpers.SelectionListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -17,7 +18,6 @@ import models.*;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 
 import static helpers.QRCodeGenerator.createQRDetails;
@@ -51,6 +51,9 @@ public class CustomerProfileController {
 
 	private ObservableList<Booking> bookingList = FXCollections.observableArrayList();
 	private FilteredList<Booking> filteredList = new FilteredList<>(bookingList, predicate -> true);
+	//Filters the filteredList by the movies matching the content of tfSearch
+	private final MovieSearchFilter<Booking> searchFilter =
+		new MovieSearchFilter<>(filteredList, booking -> booking.getScreening().getMovieID());
 
 
 	/**
@@ -66,6 +69,8 @@ public class CustomerProfileController {
 	private void initialize() {
 		// Sets the format of the DatePicker to DD/MM/YYYY
 		dpBirthdate.setConverter(new DateStringConverter());
+		// Searches as the user types, the search only runs once the user pauses
+		tfSearch.textProperty().addListener((observable, oldValue, newValue) -> search());
 		try {
 			// Retrieve a customer from the database based on the currently logged in user's username
 			customer = searchCustomer(MainApp.username);
@@ -225,33 +230,16 @@ public class CustomerProfileController {
 	}
 
 	/**
-	 * This method filters the contents of tvBookingHistory by the contents of tfSearch via movie names
+	 * This method filters the contents of tvBookingHistory by the contents of tfSearch via their movies
 	 */
 	@FXML
 	private void search() {
 		// Disables the print and delete buttons after every search
 		btnPrint.setDisable(true);
 		btnDelete.setDisable(true);
-		//Retrieves the content of tfSearch
-		String searchString = tfSearch.getText();
-		//Sets the predicate of the filteredList which provides the content for tvBookingHistory
-		//This predicate acts as the filter which determines which items are displayed in
-		//the TableView and which are not
-		filteredList.setPredicate(booking -> {
-			//If the search field is empty, all list items are displayed
-			if (searchString == null || searchString.isEmpty()) {
-				return true;
-			}
-			//The string is put into all lower case to make it case-insensitive
-			String lowerCaseValue = searchString.toLowerCase();
-			//Similarly, the movie titles against which it is compared are put into lower case as well
-			if (booking.getScreening().getMovie().getName().toLowerCase().contains(lowerCaseValue)) {
-				return true;
-			}
-			//If the search field is not null/empty and the screening in the list does not match the predicate
-			//the screening is not displayed
-			return false;
-		});
+		//Filters the items by the movies whose title, director, actors, genre or description match tfSearch
+		//The movies are searched on a background thread once the user has stopped typing
+		searchFilter.search(tfSearch.getText());
 	}
 
 	/**
@@ -261,13 +249,8 @@ public class CustomerProfileController {
 	private void deleteBookings() {
 		// Retrieves the selected booking
 		Booking selectedBooking = tvBookingHistory.getSelectionModel().getSelectedItem();
-		// Parses the booking's date
-		LocalDate bookingDate = LocalDate.parse(selectedBooking.getScreening().getDate());
-		// Retrieves the booking's time
-		int bookingTime = selectedBooking.getScreening().getTime();
 		// Displays a warning message if the booking is in the past
-		if (bookingDate.isBefore(LocalDate.now()) ||
-			(bookingDate.isEqual(LocalDate.now()) && LocalTime.now().getHour() >= bookingTime)) {
+		if (selectedBooking.getScreening().hasStarted()) {
 			Alert alert = new Alert(Alert.AlertType.INFORMATION, "Your selected " +
 				"booking is in the past and can not be deleted.");
 			alert.setTitle("Information");
@@ -282,21 +265,19 @@ public class CustomerProfileController {
 			// Only deletes if the confirmation dialogue is confirmed
 			if (alert.showAndWait().get() == ButtonType.YES) {
 				try {
-					// Removes the bookings from the database
+					// Removes the bookings from the database, which also makes its seats available again
 					BookingDAO.deleteBooking(selectedBooking);
 					// Retrieve the seat list of the screening that the booking was for
 					ArrayList<Seat> screeningSeatList = selectedBooking.getScreening().getSeatList();
-					// Makes the booking's seats available again in the screening
+					// Makes the booking's seats available again in the screening shown by the programme
 					for (Seat seat : selectedBooking.getSeatList()) {
 						// Searches for the corresponding seat in the screening
 						int seatIndex = screeningSeatList.indexOf(seat);
 						// Makes the seat available for new bookings
 						screeningSeatList.get(seatIndex).setBooked(false);
-						// Updates the screening in the database
-						ScreeningDAO.updateScreening(selectedBooking.getScreening());
-						// Refreshes the programme list
-						MainApp.customerProgrammeController.setListView();
 					}
+					// Shows the released seats in the programme list
+					MainApp.customerProgrammeController.updateScreening(selectedBooking.getScreening());
 				} catch (SQLException e) {
 				e.printStackTrace();
 				}
@@ -324,6 +305,23 @@ public class CustomerProfileController {
 		}
 	}
 
+	/**
+	 * Adds a newly made booking to the TableView tvBookingHistory without querying the database again
+	 *
+	 * The booking is only added if it is not in the list yet, which can happen if the
+	 * booking history was loaded in the background while the booking was being saved.
+	 *
+	 * @param booking the booking that was just saved in the database
+	 */
+	void addToBookingHistory(Booking booking) {
+		for (Booking existingBooking : bookingList) {
+			if (existingBooking.getBookingID() == booking.getBookingID()) {
+				return;
+			}
+		}
+		bookingList.add(booking);
+	}
+
 	/**
 	 * Fills the TableView tvBookingHistory with bookings from the database
 	 */
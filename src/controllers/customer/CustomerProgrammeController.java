@@ -1,24 +1,28 @@
 package controllers.customer;
 
 import application.MainApp;
+import application.ViewRegistry;
 import helpers.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
 import models.Screening;
 import models.ScreeningDAO;
+import models.Seat;
+import models.SeatOption;
+import models.SeatSearch;
 
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller class for CustomerProgramme.fxml
@@ -26,6 +30,7 @@ import java.util.List;
  * Provides the business logic for displaying a customized ListView of upcoming screenings,
  * to filter the displayed list of movies through text-search,
  * to filter the displayed list of movies through a date-picker,
+ * to find the listed screenings that still have enough seats together for a party,
  * and to give the view's navigational button their required functionality.
  */
 public class CustomerProgrammeController {
@@ -39,12 +44,21 @@ public class CustomerProgrammeController {
     @FXML
     ChoiceBox<String> choiceSort;
     @FXML
-    Button btnBookSelected;
+    Button btnBookSelected, btnFindSeats;
+    @FXML
+    ChoiceBox<Integer> choicePartySize;
+    @FXML
+    ChoiceBox<String> choiceSeatPreference;
+
+	// Maximum number of screenings offered when searching for seats together
+	private static final int SEAT_OPTIONS = 20;
 
     private List<Screening> screeningList = new ArrayList<>();
     private ObservableList<Screening> observableList = FXCollections.observableArrayList();
     //Wrap the observableList in a filteredList to allow for the application of search filters
     private FilteredList<Screening> filteredList = new FilteredList<>(observableList, predicate -> true);
+    //Filters the filteredList by the movies matching the content of tfSearch
+    private final MovieSearchFilter<Screening> searchFilter = new MovieSearchFilter<>(filteredList, Screening::getMovieID);
 
 	/**
 	 * Standard JavaFX method
@@ -55,13 +69,50 @@ public class CustomerProgrammeController {
     @FXML
     private void initialize() {
         setListView();
+        // Searches as the user types, the search only runs once the user pauses
+        tfSearch.textProperty().addListener((observable, oldValue, newValue) -> search());
 	    // Adds the options "Date" and "Name" to the ChoiceBox choiceSort
 	    choiceSort.getItems().addAll("Date", "Name");
 	    choiceSort.getSelectionModel().selectFirst();
 	    // Sets the format of the DatePicker to DD/MM/YYYY
 	    dpDate.setConverter(new DateStringConverter());
+	    // Adds the party sizes and seat preferences of the search for seats together
+	    for (int size = 1; size <= Seat.SEATS_PER_ROW; size++) {
+		    choicePartySize.getItems().add(size);
+	    }
+	    choicePartySize.setValue(2);
+	    choiceSeatPreference.getItems().addAll("Centre", "Aisle");
+	    choiceSeatPreference.getSelectionModel().selectFirst();
     }
 
+	/**
+	 * Finds the listed screenings that still have enough adjacent seats for the chosen party size
+	 * and shows the customer the best seats of a selected one
+	 *
+	 * Only the screenings matching the current search and date are searched, so a customer can e.g. search for
+	 * a movie first and then find the showing with the best seats together.
+	 */
+	@FXML
+	private void findSeatsTogether() {
+		int partySize = choicePartySize.getValue();
+		SeatFinder.Preference preference = choiceSeatPreference.getSelectionModel().isSelected(0)
+			? SeatFinder.Preference.CENTRE : SeatFinder.Preference.AISLE;
+		// Searches the seats of all listed screenings at once, the best seats first
+		List<SeatOption> options = SeatSearch.findAdjacentSeats(new ArrayList<>(filteredList), partySize, preference,
+			SEAT_OPTIONS);
+		if (options.isEmpty()) {
+			new Alert(Alert.AlertType.INFORMATION, "None of the listed screenings has " + partySize
+				+ " seats together. Please choose fewer seats or search for other screenings!").showAndWait();
+			return;
+		}
+		ChoiceDialog<SeatOption> dialog = new ChoiceDialog<>(options.get(0), options);
+		dialog.setTitle("Seats together");
+		dialog.setHeaderText("The best " + partySize + " seats together in the listed screenings");
+		dialog.setContentText("Screening:");
+		// Shows the chosen screening with its seats already selected
+		dialog.showAndWait().ifPresent(option -> showProgrammeMovie(option.getScreening(), option.getBlock()));
+	}
+
 	/**
 	 * This method filters the contents of lvScreenings by the contents of tfSearch
 	 */
@@ -69,26 +120,9 @@ public class CustomerProgrammeController {
     private void search() {
 	    // Disables the book selected button after every search
 	    btnBookSelected.setDisable(true);
-	    //Retrieves the content of tfSearch
-        String searchString = tfSearch.getText();
-	    //Sets the predicate of the filteredList which provides the content for lvScreenings
-	    //This predicate acts as the filter which determines which items are displayed in
-	    //the ListView and which are not
-        filteredList.setPredicate(screening -> {
-	        //If the search field is empty, all list items are displayed
-            if (searchString == null || searchString.isEmpty()) {
-                return true;
-            }
-	        //The string is put into all lower case to make it case-insensitive
-            String lowerCaseValue = searchString.toLowerCase();
-	        //Similarly, the movie titles against which it is compared are put into lower case as well
-            if (screening.getMovie().getName().toLowerCase().contains(lowerCaseValue)) {
-                return true;
-            }
-	        //If the search field is not null/empty and the screening in the list does not match the predicate
-	        //the screening is not displayed
-            return false;
-        });
+        //Filters the items by the movies whose title, director, actors, genre or description match tfSearch
+        //The movies are searched on a background thread once the user has stopped typing
+        searchFilter.search(tfSearch.getText());
     }
 
 	/**
@@ -113,11 +147,8 @@ public class CustomerProgrammeController {
         if (!(dpDate.getValue() == null)) {
         	// Iterates through every element in the observableList
             for (int i = observableList.size() - 1; i >= 0; i--) {
-                Screening screening = observableList.get(i);
-                // Parses the screening's date String into a LocalDate
-                LocalDate date = LocalDate.parse(screening.getDate());
                 // Filters out all screenings whose date does not equal the filterDate
-                if (!date.equals(filterDate)) {
+                if (!matchesDate(observableList.get(i), filterDate)) {
                     observableList.remove(i);
                 }
             }
@@ -129,28 +160,11 @@ public class CustomerProgrammeController {
      *
      * Based on: https://stackoverflow.com/questions/19588029/customize-listview-in-javafx-with-fxml
      */
-    void setListView(){
+    private void setListView(){
 	    // Only allows one item to be selected at any time
         lvScreenings.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-        // Pulls all screenings from the database
-        try {
-            screeningList = ScreeningDAO.searchScreenings();
-        } catch (SQLException | ClassNotFoundException e) {
-            e.printStackTrace();
-        }
-        // Removes Screenings from screeningList whose date is before today
-        // This way, only upcoming screenings are displayed in the list
-        for (int i = screeningList.size() - 1; i >= 0; i--) {
-            Screening screening = screeningList.get(i);
-            LocalDate date = LocalDate.parse(screening.getDate());
-            int time = screening.getTime();
-            if (date.isBefore(LocalDate.now()) ||
-	            (date.isEqual(LocalDate.now()) && LocalTime.now().getHour() >= time)) {
-                screeningList.remove(i);
-            }
-        }
-        // Fills the observableList with the items just pulled from the database
-        observableList.setAll(screeningList);
+        // Pulls all upcoming screenings from the database
+        reloadScreenings();
         // Wrap the filtered list in a sorted List that sorts by date and time from oldest to newest
         SortedList<Screening> sortedList = new SortedList<>(filteredList, new ScreeningDateComparator());
         // Fills the ListView with new content
@@ -174,21 +188,122 @@ public class CustomerProgrammeController {
 	    });
     }
 
+	/**
+	 * Applies the new seat situation of a single screening to the programme
+	 *
+	 * The matching list entry is updated in place and only the visible cells are redrawn,
+	 * so neither the database nor the rest of the list have to be touched.
+	 *
+	 * @param screening the screening whose seats have changed
+	 */
+	void updateScreening(Screening screening) {
+		for (Screening listedScreening : screeningList) {
+			if (listedScreening.getScreenID() == screening.getScreenID()) {
+				// Copies the seats unless the list already holds this very object
+				if (listedScreening != screening) {
+					listedScreening.setSeats(screening.getSeats());
+				}
+				// Redraws the visible cells so that they display the new seat counts
+				lvScreenings.refresh();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Reconciles the programme with the upcoming screenings currently stored in the database
+	 *
+	 * Instead of replacing the whole list, the screenings from the database are compared with the
+	 * listed ones by their screenID. Listed screenings keep their objects and only receive new seats,
+	 * screenings that are no longer upcoming are removed and new screenings are added. This is used
+	 * after changes that may affect many screenings at once, e.g. scheduling or importing screenings.
+	 */
+	public void reloadScreenings() {
+		List<Screening> upcomingScreenings = new ArrayList<>();
+		// Pulls all screenings that have not started yet from the database
+		// This way, only upcoming screenings are displayed in the list
+		try {
+			upcomingScreenings = ScreeningDAO.searchUpcomingScreenings();
+		} catch (SQLException | ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+		// Indexes the currently listed screenings by their screenID
+		Map<Integer, Screening> listedScreenings = new HashMap<>();
+		for (Screening screening : screeningList) {
+			listedScreenings.put(screening.getScreenID(), screening);
+		}
+		List<Screening> reconciledList = new ArrayList<>(upcomingScreenings.size());
+		List<Screening> addedScreenings = new ArrayList<>();
+		for (Screening screening : upcomingScreenings) {
+			Screening listedScreening = listedScreenings.remove(screening.getScreenID());
+			if (listedScreening == null) {
+				// The screening is new to the programme
+				reconciledList.add(screening);
+				addedScreenings.add(screening);
+			} else {
+				// The screening is already listed, only its seats may have changed
+				if (!listedScreening.getSeats().equals(screening.getSeats())) {
+					listedScreening.setSeats(screening.getSeats());
+				}
+				reconciledList.add(listedScreening);
+			}
+		}
+		screeningList = reconciledList;
+		// The screenings left over in the index are no longer upcoming or have been deleted
+		if (!listedScreenings.isEmpty()) {
+			observableList.removeAll(listedScreenings.values());
+		}
+		// Adds the new screenings that match the currently selected date
+		for (int i = addedScreenings.size() - 1; i >= 0; i--) {
+			if (!matchesDate(addedScreenings.get(i), dpDate.getValue())) {
+				addedScreenings.remove(i);
+			}
+		}
+		observableList.addAll(addedScreenings);
+		// Redraws the visible cells so that they display the new seat counts
+		lvScreenings.refresh();
+	}
+
+	/**
+	 * Checks whether a screening takes place on the provided date
+	 *
+	 * The stored date is compared, so a screening at 24:00 is listed under the day it was scheduled for,
+	 * like in the cells of the list.
+	 *
+	 * @param screening the screening that is checked
+	 * @param filterDate the date selected in the DatePicker dpDate, or null if no date is selected
+	 * @return true if no date is selected or the screening takes place on the selected date
+	 */
+	private static boolean matchesDate(Screening screening, LocalDate filterDate) {
+		return filterDate == null || LocalDate.parse(screening.getDate()).equals(filterDate);
+	}
+
 	/**
 	 * Displays the CustomerProgrammeMovie view from CustomerProgrammeMovie.fxml in the center of customerRoot
 	 */
 	@FXML
     private void showProgrammeMovie() {
+		showProgrammeMovie(lvScreenings.getSelectionModel().getSelectedItem(), null);
+	}
+
+	/**
+	 * Displays the CustomerProgrammeMovie view for a screening in the center of customerRoot
+	 *
+	 * @param screening the screening to be booked
+	 * @param block the seats to select in the view, or null to let the customer select them
+	 */
+	private void showProgrammeMovie(Screening screening, SeatFinder.Block block) {
         try {
-            FXMLLoader loader = new FXMLLoader();
-            // Points the FXMLLoader to the view's filepath
-            loader.setLocation(MainApp.class.getResource("/views/customer/CustomerProgrammeMovie.fxml"));
-            // Loads the view
-            AnchorPane customerProgrammeMovie = loader.load();
+            // Loads a new view, as it shows a single screening
+            ViewRegistry.View view = ViewRegistry.load("/views/customer/CustomerProgrammeMovie.fxml");
+            AnchorPane customerProgrammeMovie = view.getRoot();
             // Retrieves the view's controller
-            CustomerProgrammeMovieController controller = loader.getController();
-            // Sets up the controller with the Screening currently selected in lvScreenings
-            controller.setupView(lvScreenings.getSelectionModel().getSelectedItem());
+            CustomerProgrammeMovieController controller = view.getController();
+            // Sets up the controller with the Screening
+            controller.setupView(screening);
+            if (block != null) {
+	            controller.selectSeats(block);
+            }
             // Shows the customerProgrammeMovie view in the center of customerRoot
             MainApp.customerRoot.setCenter(customerProgrammeMovie);
         } catch (IOException e) {
@@ -1,12 +1,16 @@
 package controllers.customer;
 
 import application.MainApp;
+import application.ViewRegistry;
 import controllers.shared.partials.CinemaRoomController;
 import helpers.Helpers;
+import helpers.Metrics;
+import helpers.SeatFinder;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
@@ -16,11 +20,13 @@ import models.*;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 /**
  * Controller class for CustomerProgrammeMovie.fxml
  *
  * Provides the methods for setting up the cinema room with information from a screening object,
+ * for selecting the best available seats for a party with a single click,
  * and for triggering the creation of a new booking entry in the database based on customer selections.
  *
  */
@@ -31,10 +37,17 @@ public class CustomerProgrammeMovieController {
 	@FXML
 	Pane paneCinemaRoom;
 	@FXML
-	Button btnConfirm;
+	Button btnConfirm, btnFindSeats;
+	@FXML
+	ChoiceBox<Integer> choicePartySize;
+	@FXML
+	ChoiceBox<String> choiceSeatPreference;
+	@FXML
+	ChoiceBox<Character> choiceFirstRow, choiceLastRow;
 
 	private CinemaRoomController cinemaRoomController;
 	private Screening screening;
+	private SeatFinder seatFinder;
 
 
 	/**
@@ -52,8 +65,65 @@ public class CustomerProgrammeMovieController {
 		lblTime.setText(screening.getTime() + ":00");
 		// Shows a panel which represents the cinema room and the current status of its seats
 		setupCinemaRoom();
+		// Sets up the options of the best available seats for a party
+		int rows = screening.getSeatList().size() / Seat.SEATS_PER_ROW;
+		seatFinder = new SeatFinder(rows, Seat.SEATS_PER_ROW);
+		for (int size = 1; size <= Seat.SEATS_PER_ROW; size++) {
+			choicePartySize.getItems().add(size);
+		}
+		choicePartySize.setValue(2);
+		choiceSeatPreference.getItems().addAll("Centre", "Aisle");
+		choiceSeatPreference.getSelectionModel().selectFirst();
+		for (char row = 'A'; row < 'A' + rows; row++) {
+			choiceFirstRow.getItems().add(row);
+			choiceLastRow.getItems().add(row);
+		}
+		choiceFirstRow.getSelectionModel().selectFirst();
+		choiceLastRow.getSelectionModel().selectLast();
     }
 
+	/**
+	 * Selects the best block of adjacent available seats for the chosen party size, seat preference and rows
+	 */
+	@FXML
+	private void findBestSeats() {
+		long startTime = System.nanoTime();
+		// Marks the seats that are booked in this screening
+		BitSet bookedSeats = new BitSet();
+		ArrayList<Seat> seats = screening.getSeatList();
+		for (int i = 0; i < seats.size(); i++) {
+			if (seats.get(i).isBooked()) {
+				bookedSeats.set(i);
+			}
+		}
+		SeatFinder.Preference preference = choiceSeatPreference.getSelectionModel().isSelected(0)
+			? SeatFinder.Preference.CENTRE : SeatFinder.Preference.AISLE;
+		SeatFinder.Block block = seatFinder.findBest(bookedSeats, choicePartySize.getValue(), preference,
+			choiceFirstRow.getValue(), choiceLastRow.getValue());
+		Metrics.timer("seats.findBest").recordSince(startTime);
+		if (block == null) {
+			new Alert(Alert.AlertType.INFORMATION, "There are no " + choicePartySize.getValue()
+				+ " seats together in rows " + choiceFirstRow.getValue() + " to " + choiceLastRow.getValue()
+				+ ". Please choose fewer seats or other rows!").showAndWait();
+			return;
+		}
+		selectSeats(block);
+	}
+
+	/**
+	 * Selects the seats of a block in the cinema room, replacing the current selection
+	 *
+	 * @param block the block of adjacent available seats
+	 */
+	void selectSeats(SeatFinder.Block block) {
+		choicePartySize.setValue(block.getSize());
+		ArrayList<Seat> blockSeats = new ArrayList<>(block.getSize());
+		for (int i = 0; i < block.getSize(); i++) {
+			blockSeats.add(new Seat(block.getRow(), block.getFirstNumber() + i, false));
+		}
+		cinemaRoomController.selectSeats(blockSeats);
+	}
+
 	/**
 	 * Shows a panel which represents the cinema room and the current status of its seats
 	 */
@@ -109,32 +179,37 @@ public class CustomerProgrammeMovieController {
 	    booking.setScreening(screening);
 		// Writes the seats that the user selected into the booking so that they can be saved for future reference
 	    booking.setSeats(selectedSeatList);
-	    // Mark the selected seats as booked in the screening
-	    for (Seat seat : selectedSeatList) {
-	    	int seatIndex = screening.getSeatList().indexOf(seat);
-	    	screening.getSeatList().get(seatIndex).setBooked(true);
-	    }
 	    try {
-		    // Updates the Screening entry in the database with the new seat situation
-		    ScreeningDAO.updateScreening(screening);
-		    // Hands the newly created Booking to the Database
+		    // Hands the newly created Booking to the Database, which also sets its new bookingID
+		    // The database rejects the booking if one of its seats has been booked in the meantime
 		    BookingDAO.addBooking(booking);
 	    } catch (SQLException e) {
+		    if (BookingDAO.isSeatConflict(e)) {
+			    showSeatConflict();
+			    return;
+		    }
 		    e.printStackTrace();
+		    // Stops the method, as the seats were not booked
+		    new Alert(Alert.AlertType.ERROR, "Your booking could not be saved. Please try again.").showAndWait();
+		    return;
 	    }
-		// Updates the ListView in the CustomerProgramme view
-	    MainApp.customerProgrammeController.setListView();
-	    // Updates the user's booking history table
-	    MainApp.customerProfileController.refreshBookingHistory();
-	    // Shows a summary of the booking in a new scene
+	    // Mark the selected seats as booked in the screening, addBooking has already saved them in the database
+	    for (Seat seat : selectedSeatList) {
+	    	screening.getSeatList().get(seat.getIndex()).setBooked(true);
+	    }
+		// Shows the new seat situation of this screening in the CustomerProgramme view
+	    MainApp.customerProgrammeController.updateScreening(screening);
 	    try {
-		    FXMLLoader loader = new FXMLLoader();
-		    // Points the FXMLLoader to the view's filepath
-		    loader.setLocation(MainApp.class.getResource("/views/customer/CustomerBookingSummary.fxml"));
-		    // Loads the view
-		    AnchorPane customerBookingSummary = loader.load();
+		    // Adds the new booking to the user's booking history table, unless the table has not been loaded yet
+		    ViewRegistry.View customerProfile = ViewRegistry.getIfRequested(MainApp.CUSTOMER_PROFILE_VIEW);
+		    if (customerProfile != null) {
+			    customerProfile.<CustomerProfileController>getController().addToBookingHistory(booking);
+		    }
+		    // Shows a summary of the booking in a new scene
+		    ViewRegistry.View view = ViewRegistry.load("/views/customer/CustomerBookingSummary.fxml");
+		    AnchorPane customerBookingSummary = view.getRoot();
 		    // Retrieves the view's controller
-		    CustomerBookingSummaryController controller = loader.getController();
+		    CustomerBookingSummaryController controller = view.getController();
 		    // Sets up the controller with the new booking
 			controller.setup(booking);
 		    // Shows the customerBookingSummary view in the center of customerRoot
@@ -144,6 +219,29 @@ public class CustomerProgrammeMovieController {
 	    }
     }
 
+	/**
+	 * Internal helper method that tells the customer that some of the selected seats have just been booked by
+	 * someone else and shows the current seat situation, so that other seats can be selected
+	 */
+	private void showSeatConflict() {
+		try {
+			// Marks every seat that belongs to a booking as booked
+			BitSet bookedSeats = BookingDAO.searchBookedSeats(screening.getScreenID());
+			for (int i = bookedSeats.nextSetBit(0); i >= 0; i = bookedSeats.nextSetBit(i + 1)) {
+				screening.getSeatList().get(i).setBooked(true);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		// Shows the new seat situation and empties the selection
+		cinemaRoomController.clearSelection();
+		cinemaRoomController.populateSeats();
+		updateLabels(cinemaRoomController.getSelectedSeats());
+		MainApp.customerProgrammeController.updateScreening(screening);
+		new Alert(Alert.AlertType.INFORMATION, "Some of the selected seats have just been booked by " +
+			"someone else. Please select other seats!").showAndWait();
+	}
+
 	/**
 	 * Shows the CustomerProgramme view in the center of customerRoot
 	 */
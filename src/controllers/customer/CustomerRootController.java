@@ -41,7 +41,7 @@ public class CustomerRootController {
 	 */
 	@FXML
 	private void showProfile() {
-		MainApp.customerRoot.setCenter(MainApp.customerProfile);
+		MainApp.showCustomerProfile();
 	}
 
 	/**
@@ -41,8 +41,6 @@ public class EmployeeAddMovieController {
 	private String imgPath = "";
 	private File imageFile;
 
-	private String trailerURLRegEx = "^((https?|ftp|smtp):\\/\\/)?(www.)?[a-z0-9]+\\.[a-z]+(\\/[a-zA-Z0-9#]+\\/?)*$";
-
 	/**
 	 * Standard JavaFX method
 	 *
@@ -86,14 +84,14 @@ public class EmployeeAddMovieController {
 			alert.setTitle("Warning");
 			alert.setHeaderText("Incomplete Information");
 			alert.showAndWait();
-		} else if (!tfTrailerURL.getText().matches(trailerURLRegEx)) {
+		} else if (!tfTrailerURL.getText().matches(Movie.TRAILER_URL_PATTERN)) {
 			//Displays a warning popup message if the provided URL is not valid
 			Alert alert = new Alert(Alert.AlertType.WARNING,
 				"Please enter a valid URL.");
 			alert.setTitle("Warning");
 			alert.setHeaderText("Invalid URL");
 			alert.showAndWait();
-		} else if (taDescription.getText().length() > 300) {
+		} else if (taDescription.getText().length() > Movie.MAX_DESCRIPTION_LENGTH) {
 			//Displays a warning popup message if the entered description is too long
 			Alert alert = new Alert(Alert.AlertType.WARNING,
 				"Please enter a description of maximum 300 characters.");
@@ -19,7 +19,7 @@ import models.ScreeningDAO;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.LocalDateTime;
 
 /**
  * Controller class for EmployeeAddScreening.fxml
@@ -72,9 +72,10 @@ public class EmployeeAddScreeningController {
 		String date = selectedDate.toString();
 		// Reads the time from the choiceBox choiceTime and parse it as a two digit integer number
 		int time = Integer.parseInt(choiceTime.getSelectionModel().getSelectedItem().substring(0, 2));
+		// Adds the hours instead of using them as time of day, so that 24:00 means midnight of the next day
+		LocalDateTime start = selectedDate.atStartOfDay().plusHours(time);
 		// Checks if the selected date and time are in the past
-		if (selectedDate.isBefore(LocalDate.now()) ||
-			(selectedDate.isEqual(LocalDate.now()) && LocalTime.now().getHour() >= time)) {
+		if (!start.isAfter(LocalDateTime.now())) {
 			// Displays a warning if the date and time are in the past
 			Alert alert = new Alert(Alert.AlertType.WARNING, "You cannot schedule a screening in" +
 				" the past.");
@@ -84,24 +85,19 @@ public class EmployeeAddScreeningController {
 			return;
 		}
 		// Checks if a screening at this time already exists in the database
-		ObservableList<Screening> allScreenings;
+		ObservableList<Screening> clashingScreenings;
 		try {
-			// Retrieves all screenings from the database
-			allScreenings = ScreeningDAO.searchScreenings();
-			for (Screening tempScreen : allScreenings) {
-				// Checks if a screening has the same date and time as the screening about to be created
-				if (tempScreen.getDate().equals(date)) {
-					if (tempScreen.getTime() == time) {
-						// Displays a warning if a match is found and returns the function
-						Alert alert = new Alert(Alert.AlertType.WARNING, "There already exists a screening for "
-							+ tempScreen.getMovie().getName() + " at this selected time. Please choose a" +
-							" different time or remove the scheduled screening.");
-						alert.setHeaderText("This time slot is already taken");
-						alert.setTitle("Scheduling conflict");
-						alert.showAndWait();
-						return;
-					}
-				}
+			// Retrieves the screenings that start within the selected hour from the database
+			clashingScreenings = ScreeningDAO.searchScreenings(start, start.plusHours(1));
+			if (!clashingScreenings.isEmpty()) {
+				// Displays a warning if a match is found and returns the function
+				Alert alert = new Alert(Alert.AlertType.WARNING, "There already exists a screening for "
+					+ clashingScreenings.get(0).getMovie().getName() + " at this selected time. Please choose a" +
+					" different time or remove the scheduled screening.");
+				alert.setHeaderText("This time slot is already taken");
+				alert.setTitle("Scheduling conflict");
+				alert.showAndWait();
+				return;
 			}
 		} catch (SQLException | ClassNotFoundException e) {
 			e.printStackTrace();
@@ -119,7 +115,7 @@ public class EmployeeAddScreeningController {
 		newScreening.setDate(date);
 		newScreening.setTime(time);
 		newScreening.setMovieID(lvMovieList.getSelectionModel().getSelectedItem().getMovieID());
-		// Adds the newly created screening to the database
+		// Adds the newly created screening to the database, which also sets its new screenID
 		try {
 			ScreeningDAO.addScreening(newScreening);
 		} catch (SQLException e) {
@@ -0,0 +1,185 @@
+package controllers.employee;
+
+import application.MainApp;
+import helpers.DateStringConverter;
+import helpers.ScreeningScheduler;
+import javafx.event.ActionEvent;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import models.Movie;
+import models.MovieDAO;
+import models.Screening;
+import models.ScreeningDAO;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controller class for EmployeeBulkSchedule.fxml
+ *
+ * Provides the business logic for scheduling many screenings at once. The employee selects
+ * several movies, a date range, the days of the week and the time slots, and a screening is
+ * created for every free time slot that matches this pattern. All new screenings are saved
+ * to the database in a single transaction.
+ */
+public class EmployeeBulkScheduleController {
+
+	@FXML
+	ListView<Movie> lvMovieList;
+	@FXML
+	ListView<String> lvTimes;
+	@FXML
+	DatePicker dpStartDate, dpEndDate;
+	@FXML
+	CheckBox checkMonday, checkTuesday, checkWednesday, checkThursday, checkFriday, checkSaturday, checkSunday;
+	@FXML
+	Button btnSchedule;
+
+	/**
+	 * Standard JavaFX method
+	 *
+	 * This method is called after the constructor has been called and all @FXML fields
+	 * have been initialized and fills in the lists of movies and time slots.
+	 */
+	@FXML
+	private void initialize() {
+		// Allows several movies and time slots to be selected at once
+		lvMovieList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		lvTimes.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		// Pulls all movies from the database and displays them in lvMovieList
+		try {
+			lvMovieList.setItems(MovieDAO.searchMovies());
+		} catch (SQLException | ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+		// Fills in the same time slots that are offered when adding a single screening
+		for (int i = 12; i <= 24; i++) {
+			lvTimes.getItems().add(i + ":00");
+		}
+		// Sets the format of the DatePickers to DD/MM/YYYY
+		dpStartDate.setConverter(new DateStringConverter());
+		dpEndDate.setConverter(new DateStringConverter());
+		// Enables the schedule button only once all required input has been supplied
+		lvMovieList.setOnMouseClicked(new CompletenessTester());
+		lvMovieList.setOnKeyReleased(new CompletenessTester());
+		lvTimes.setOnMouseClicked(new CompletenessTester());
+		lvTimes.setOnKeyReleased(new CompletenessTester());
+		// The onAction property of a DatePicker only accepts handlers of ActionEvents, so the handler is added instead
+		dpStartDate.addEventHandler(ActionEvent.ACTION, new CompletenessTester());
+		dpEndDate.addEventHandler(ActionEvent.ACTION, new CompletenessTester());
+	}
+
+	/**
+	 * Creates and saves a screening for every free time slot matching the selected pattern
+	 */
+	@FXML
+	private void schedule() {
+		LocalDate startDate = dpStartDate.getValue();
+		LocalDate endDate = dpEndDate.getValue();
+		Set<DayOfWeek> days = getSelectedDays();
+		// Checks that the date range is valid and at least one day of the week is selected
+		if (endDate.isBefore(startDate) || days.isEmpty()) {
+			Alert alert = new Alert(Alert.AlertType.WARNING, "Please choose an end date that is not before" +
+				" the start date and select at least one day of the week.");
+			alert.setHeaderText("Invalid schedule");
+			alert.setTitle("Warning");
+			alert.showAndWait();
+			return;
+		}
+		// Reads the selected time slots as two digit integer numbers
+		List<Integer> times = new ArrayList<>();
+		for (String time : lvTimes.getSelectionModel().getSelectedItems()) {
+			times.add(Integer.parseInt(time.substring(0, 2)));
+		}
+		List<Movie> movies = new ArrayList<>(lvMovieList.getSelectionModel().getSelectedItems());
+
+		ScreeningScheduler scheduler = new ScreeningScheduler(movies, startDate, endDate, days, times);
+		List<Screening> newScreenings;
+		int savedScreenings;
+		long startTime = System.nanoTime();
+		try {
+			// Retrieves the existing screenings of the period once so that conflicts can be detected in memory
+			newScreenings = scheduler.createScreenings(
+				ScreeningDAO.searchScreenings(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()));
+			// Adds all new screenings to the database in a single transaction
+			savedScreenings = ScreeningDAO.addScreenings(newScreenings);
+		} catch (SQLException | ClassNotFoundException e) {
+			e.printStackTrace();
+			new Alert(Alert.AlertType.ERROR, "The screenings could not be saved. No screenings were added.")
+				.showAndWait();
+			return;
+		}
+		long durationMillis = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+		long rowsPerSecond = savedScreenings * 1000L / durationMillis;
+		MainApp.LOGGER.info(() -> "Scheduled " + savedScreenings + " screenings in " + durationMillis + " ms ("
+			+ rowsPerSecond + " rows/s), skipped " + scheduler.getConflicts() + " time slots");
+
+		// Updates the list of upcoming screenings in the EmployeeDashboard so it displays the new screenings
+		MainApp.employeeDashboardController.getObservableList().addAll(newScreenings);
+		// Adds the new screenings to the programme if it has been shown
+		if (MainApp.customerProgrammeController != null) {
+			MainApp.customerProgrammeController.reloadScreenings();
+		}
+		// Displays a summary of the scheduled screenings
+		Alert alert = new Alert(Alert.AlertType.INFORMATION, savedScreenings + " screenings were scheduled in "
+			+ durationMillis + " ms (" + rowsPerSecond + " screenings per second).\n"
+			+ scheduler.getConflicts() + " time slots were skipped because they were already taken or in the past.");
+		alert.setHeaderText("Screenings scheduled");
+		alert.setTitle("Information");
+		alert.showAndWait();
+		// Displays the EmployeeDashboard in place of this view
+		MainApp.employeeRoot.setCenter(MainApp.employeeDashboard);
+	}
+
+	/**
+	 * Provides business logic for the cancel button
+	 */
+	@FXML
+	private void cancel() {
+		//Displays the EmployeeDashboard in place of this view
+		MainApp.employeeRoot.setCenter(MainApp.employeeDashboard);
+	}
+
+	/**
+	 * Internal helper method that collects the days of the week whose CheckBoxes are selected
+	 *
+	 * @return a Set of the selected days of the week
+	 */
+	private Set<DayOfWeek> getSelectedDays() {
+		Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+		CheckBox[] checkBoxes = {checkMonday, checkTuesday, checkWednesday, checkThursday,
+			checkFriday, checkSaturday, checkSunday};
+		for (int i = 0; i < checkBoxes.length; i++) {
+			if (checkBoxes[i].isSelected()) {
+				// DayOfWeek values are numbered from 1 (Monday) to 7 (Sunday)
+				days.add(DayOfWeek.of(i + 1));
+			}
+		}
+		return days;
+	}
+
+	/**
+	 * EventHandler that checks whether all required input has been supplied and disables/enables the Schedule button accordingly
+	 */
+	private class CompletenessTester implements EventHandler<Event> {
+		@Override
+		public void handle(Event event) {
+			//Checks if a date range, at least one movie and at least one time slot have been selected
+			if (dpStartDate.getValue() == null ||
+				dpEndDate.getValue() == null ||
+				lvMovieList.getSelectionModel().getSelectedItems().isEmpty() ||
+				lvTimes.getSelectionModel().getSelectedItems().isEmpty()) {
+				btnSchedule.setDisable(true);
+			} else {
+				btnSchedule.setDisable(false);
+			}
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package controllers.employee;
 
 import application.MainApp;
+import application.ViewRegistry;
+import helpers.MovieSearchFilter;
+import helpers.DBHelper;
+import helpers.ExportTask;
+import helpers.ImportTask;
 import helpers.ListViewCell;
 import helpers.ScreeningDateComparator;
 import helpers.ScreeningNameComparator;
@@ -9,23 +14,19 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.FileChooser;
 import models.*;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
-
-import static application.MainApp.employeeMovieList;
+import java.util.Optional;
 
 /**
  * Controller class for EmployeeDashboard.fxml
@@ -33,6 +34,8 @@ import static application.MainApp.employeeMovieList;
  * Provides the business logic for displaying a customized ListView of upcoming screenings,
  * for removing a screening from the database and the list,
  * to export a list of either all or just the selected screenings to a .CSV file,
+ * to export sales reports per film, day or time slot,
+ * to import movie catalogues and screening schedules from CSV, TSV or JSON files,
  * to filter the displayed list of movies through text-search
  * and to give the view's navigational button their required functionality.
  *
@@ -43,7 +46,12 @@ public class EmployeeDashboardController {
 	@FXML
 	ListView<Screening> lvScreenings;
 	@FXML
-	Button btnAddScreening, btnDeleteScreenings, btnExportSelected, btnExportAll;
+	Button btnAddScreening, btnDeleteScreenings, btnExportSelected, btnExportAll, btnExportAllUpcoming, btnSalesReport,
+		btnImportSchedule, btnImportMovies, btnCancelTask;
+	@FXML
+	ProgressBar pbTask;
+	@FXML
+	Label lblTaskStatus;
 	@FXML
 	TextField tfSearch;
 	@FXML
@@ -53,6 +61,10 @@ public class EmployeeDashboardController {
 	private ObservableList<Screening> observableList = FXCollections.observableArrayList();
 	//Wraps the observableList in a filteredList to allow for the application of search filters
 	private FilteredList<Screening> filteredList = new FilteredList<>(observableList, predicate -> true);
+	//Filters the filteredList by the movies matching the content of tfSearch
+	private final MovieSearchFilter<Screening> searchFilter = new MovieSearchFilter<>(filteredList, Screening::getMovieID);
+	//The export or import that is currently running, or null
+	private Task<Integer> backgroundTask;
 
 	/**
 	 * Sets up the central ListView which displays all upcoming screenings with custom ListCells
@@ -62,23 +74,13 @@ public class EmployeeDashboardController {
 	private void setListView(){
 		//Only allows one item to be selected at any time
 		lvScreenings.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
-		//Pulls all screenings from the database
+		//Pulls all screenings that have not started yet from the database
+		//This way, only upcoming screenings are displayed in the list
 		try {
-			screeningList = ScreeningDAO.searchScreenings();
+			screeningList = ScreeningDAO.searchUpcomingScreenings();
 		} catch (SQLException | ClassNotFoundException e) {
 			e.printStackTrace();
 		}
-		//Removes Screenings from screeningList whose screening time is before now
-		//This way, only upcoming screenings are displayed in the list
-		for (int i = screeningList.size() - 1; i >= 0; i--) {
-			Screening screening = screeningList.get(i);
-			LocalDate date = LocalDate.parse(screening.getDate());
-			int time = screening.getTime();
-			if (date.isBefore(LocalDate.now()) ||
-				((date.isEqual(LocalDate.now()) && LocalTime.now().getHour() >= time))) {
-				screeningList.remove(i);
-			}
-		}
 		//Fills the observableList with the items just pulled from the database
 		observableList.setAll(screeningList);
 		//Wrap the filtered list in a sorted List that sorts by date and time from oldest to newest
@@ -117,6 +119,8 @@ public class EmployeeDashboardController {
 	@FXML
 	private void initialize() {
 		setListView();
+		// Searches as the user types, the search only runs once the user pauses
+		tfSearch.textProperty().addListener((observable, oldValue, newValue) -> search());
 		// Adds the options "Date" and "Name" to the ChoiceBox choiceSort
 		choiceSort.getItems().addAll("Date", "Movie");
 		choiceSort.getSelectionModel().selectFirst();
@@ -130,26 +134,9 @@ public class EmployeeDashboardController {
 		// Disables the export and delete buttons after every search
 		btnDeleteScreenings.setDisable(true);
 		btnExportSelected.setDisable(true);
-		//Retrieves the content of tfSearch
-		String searchString = tfSearch.getText();
-		//Sets the predicate of the filteredList which provides the content for lvScreenings
-		//This predicate acts as the filter which determines which items are displayed in
-		//the ListView and which are not
-		filteredList.setPredicate(screening -> {
-			//If the search field is empty, all list items are displayed
-			if (searchString == null || searchString.isEmpty()) {
-				return true;
-			}
-			//The string is put into all lower case to make it case-insensitive
-			String lowerCaseValue = searchString.toLowerCase();
-			//Similarly, the movie titles against which it is compared are put into lower case as well
-			if (screening.getMovie().getName().toLowerCase().contains(lowerCaseValue)) {
-				return true;
-			}
-			//If the search field is not null/empty and the screening in the list does not match the predicate
-			//the screening is not displayed
-			return false;
-		});
+		//Filters the items by the movies whose title, director, actors, genre or description match tfSearch
+		//The movies are searched on a background thread once the user has stopped typing
+		searchFilter.search(tfSearch.getText());
 	}
 
 	/**
@@ -158,17 +145,28 @@ public class EmployeeDashboardController {
 	@FXML
 	private void showEmployeeAddScreening() {
 		try {
-			FXMLLoader loader = new FXMLLoader();
-			// Points the FXMLLoader to the view's filepath
-			loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeAddScreening.fxml"));
-			// Loads the view
-			AnchorPane employeeAddScreening = loader.load();
+			// Loads a new view, as the form has to be empty
+			AnchorPane employeeAddScreening = ViewRegistry.load("/views/employee/EmployeeAddScreening.fxml").getRoot();
 			MainApp.employeeRoot.setCenter(employeeAddScreening);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Shows the EmployeeBulkSchedule view and sets it as the center element of the root view
+	 */
+	@FXML
+	private void showEmployeeBulkSchedule() {
+		try {
+			// Loads a new view, as the form has to be empty
+			AnchorPane employeeBulkSchedule = ViewRegistry.load("/views/employee/EmployeeBulkSchedule.fxml").getRoot();
+			MainApp.employeeRoot.setCenter(employeeBulkSchedule);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Deletes the currently selected screening(s) from the database and refreshes the displayed list
 	 */
@@ -216,18 +214,11 @@ public class EmployeeDashboardController {
 
 
 	/**
-	 * Displays the EmployeeAddMovie view
+	 * Displays the EmployeeMovieList view
 	 */
 	@FXML
 	private void showEmployeeMovieList() {
-		try {
-			FXMLLoader loader = new FXMLLoader();
-			loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeMovieList.fxml"));
-			employeeMovieList = loader.load();
-			MainApp.employeeRoot.setCenter(employeeMovieList);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		MainApp.showEmployeeMovieList();
 	}
 
 	/**
@@ -237,9 +228,12 @@ public class EmployeeDashboardController {
 	 */
 	@FXML
 	private void exportSelectedScreenings() {
-		//Saves all selected screenings from the ListView into a local variable
-		List<Screening> selectedScreenings = lvScreenings.getSelectionModel().getSelectedItems();
-		export(selectedScreenings);
+		//Collects the screenIDs of all selected screenings from the ListView
+		List<Integer> screenIDs = new ArrayList<>();
+		for (Screening screening : lvScreenings.getSelectionModel().getSelectedItems()) {
+			screenIDs.add(screening.getScreenID());
+		}
+		export(screenIDs, false);
 	}
 
 	/**
@@ -249,11 +243,7 @@ public class EmployeeDashboardController {
 	 */
 	@FXML
 	private void exportAllScreenings() {
-		try {
-			export(ScreeningDAO.searchScreenings());
-		} catch (SQLException | ClassNotFoundException e) {
-			e.printStackTrace();
-		}
+		export(null, false);
 	}
 
 	/**
@@ -263,39 +253,29 @@ public class EmployeeDashboardController {
 	 */
 	@FXML
 	private void exportAllUpcomingScreenings() {
-		try {
-			// Retrieves all screenings from the database
-			ObservableList<Screening> screeningList = ScreeningDAO.searchScreenings();
-			for (int i = screeningList.size() -1 ; i >= 0; i--) {
-				// Gets the current screening's date
-				LocalDate screeningDate = LocalDate.parse(screeningList.get(i).getDate());
-				// Tests if the screening's date is in the past
-				if (screeningDate.isBefore(LocalDate.now()) ||
-					(screeningDate.isEqual(LocalDate.now()) &&
-						// If the date is in the past, deletes the screening from the list
-						screeningList.get(i).getTime() <= LocalTime.now().getHour())) {
-					screeningList.remove(i);
-				}
-			}
-			// Exports all remaining screenings
-			export(screeningList);
-		} catch (SQLException | ClassNotFoundException e) {
-			e.printStackTrace();
-		}
+		export(null, true);
 	}
 
 	/**
-	 * Takes a List of Screening objects and exports them to a CSV file at a user specified location
+	 * Exports screenings to a CSV file at a user specified location
+	 *
+	 * The screenings are read from the database and written to the file on a background thread,
+	 * so the dashboard stays responsive. While the export is running, its progress is shown and it
+	 * can be cancelled. If the file name ends in .gz, the file is compressed.
 	 *
-	 * This method is a helper method for {@link #exportAllScreenings} and {@link #exportSelectedScreenings}
+	 * This method is a helper method for {@link #exportAllScreenings}, {@link #exportAllUpcomingScreenings}
+	 * and {@link #exportSelectedScreenings}
 	 *
-	 * @param screenings A list of Screening objects which will be exported
+	 * @param screenIDs the screenIDs of the screenings to export, or null to export all screenings
+	 * @param upcomingOnly true to only export screenings that have not started yet
 	 */
-	private void export(List<Screening> screenings) {
+	private void export(List<Integer> screenIDs, boolean upcomingOnly) {
 		// Creates a new FileChooser
 		FileChooser fileChooser = new FileChooser();
-		// Adds an ExtensionFilter to the FileChooser to restrict output to .csv files
-		fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+		// Adds ExtensionFilters to the FileChooser to restrict output to .csv and compressed .csv.gz files
+		fileChooser.getExtensionFilters().addAll(
+			new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+			new FileChooser.ExtensionFilter("Compressed CSV Files", "*.csv.gz"));
 		// Sets the title of the FileChooser
 		fileChooser.setTitle("Export Screenings to CSV");
 		// Sets the initial filename for the FileChooser
@@ -303,33 +283,243 @@ public class EmployeeDashboardController {
 		// Shows a save dialog
 		File file = fileChooser.showSaveDialog(null);
 		MainApp.LOGGER.info("Open file chooser");
-		if (file != null) {
-			//Opens a fileWriter
-			try (FileWriter fileWriter = new FileWriter(file)) {
-				//Creates a new StringBuilder which will hold the data for the CSV file
-				StringBuilder tempStr = new StringBuilder();
-				//Writes the first line containing column names
-				tempStr.append("Movie Title,Date,Time,Total Seats,Booked Seats,Available Seats");
-				//For each item in the selection, retrieves the relevant information and writes it into the StringBuilder
-				for (Screening screening : screenings) {
-					tempStr.append(System.lineSeparator());
-					tempStr.append("" + MovieDAO.searchMovie(screening.getMovieID()).getName() + ",");
-					tempStr.append("" + screening.getDate() + ",");
-					tempStr.append("" + screening.getTime() + ":00,");
-					tempStr.append("" + screening.getTotalSeats() + ",");
-					tempStr.append("" + screening.getBookedSeats() + ",");
-					tempStr.append("" + screening.getAvailableSeats());
+		if (file == null) {
+			MainApp.LOGGER.fine("Cancelled file selection");
+			return;
+		}
+		// Creates a task that streams the screenings from the database into the file
+		ExportTask exportTask = new ExportTask("screenings", file.toPath(), new String[] {
+			"Movie Title", "Date", "Time", "Total Seats", "Booked Seats", "Available Seats"},
+			new ExportTask.Source() {
+				@Override
+				public int countRows() throws SQLException {
+					return ScreeningDAO.countScreenings(screenIDs, upcomingOnly);
 				}
-				//Writes the contents of the StringBuilder into the file and flushes the FileWriter
-				fileWriter.write(tempStr.toString());
-				fileWriter.flush();
-			} catch (IOException | SQLException | ClassNotFoundException e) {
+
+				@Override
+				public int streamRows(DBHelper.RowHandler handler) throws SQLException, IOException {
+					return ScreeningDAO.exportScreenings(screenIDs, upcomingOnly, handler);
+				}
+			});
+		runTask(exportTask, "screenings-export", "The export failed.", null);
+	}
+
+	/**
+	 * Exports a sales report per film, per day or per time slot to a CSV or JSON file at a user specified location
+	 *
+	 * The report is calculated by the database and written to the file on a background thread.
+	 */
+	@FXML
+	private void exportSalesReport() {
+		// Asks which report shall be exported
+		ChoiceDialog<String> dialog = new ChoiceDialog<>("Per Film", "Per Film", "Per Day", "Per Time Slot");
+		dialog.setTitle("Sales Report");
+		dialog.setHeaderText("Export a sales report");
+		dialog.setContentText("Report:");
+		Optional<String> report = dialog.showAndWait();
+		if (!report.isPresent()) {
+			return;
+		}
+		// Creates a new FileChooser
+		FileChooser fileChooser = new FileChooser();
+		// Adds ExtensionFilters to the FileChooser to restrict output to .csv, .csv.gz and .json files
+		fileChooser.getExtensionFilters().addAll(
+			new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+			new FileChooser.ExtensionFilter("Compressed CSV Files", "*.csv.gz"),
+			new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+		fileChooser.setTitle("Export Sales Report");
+		fileChooser.setInitialFileName("Sales_" + report.get().replace(' ', '_') + ".csv");
+		// Shows a save dialog
+		File file = fileChooser.showSaveDialog(null);
+		if (file == null) {
+			MainApp.LOGGER.fine("Cancelled file selection");
+			return;
+		}
+		// The first column of the report depends on how the sales are grouped
+		String firstColumn;
+		switch (report.get()) {
+			case "Per Day":
+				firstColumn = "Date";
+				break;
+			case "Per Time Slot":
+				firstColumn = "Time";
+				break;
+			default:
+				firstColumn = "Film";
+		}
+		String[] header = new String[ReportDAO.REPORT_HEADER.length + 1];
+		header[0] = firstColumn;
+		System.arraycopy(ReportDAO.REPORT_HEADER, 0, header, 1, ReportDAO.REPORT_HEADER.length);
+		// Creates a task that runs the report and writes its rows into the file
+		// The report is small enough to be read completely before it is written
+		ExportTask exportTask = new ExportTask("salesReport", file.toPath(), header, () -> {
+			switch (report.get()) {
+				case "Per Day":
+					return ReportDAO.salesByDay(null, null);
+				case "Per Time Slot":
+					return ReportDAO.salesByTimeSlot(null, null);
+				default:
+					return ReportDAO.salesByFilm(null, null);
+			}
+		});
+		runTask(exportTask, "salesReport-export", "The export failed.", null);
+	}
+
+	/**
+	 * Imports a catalogue of movies from a CSV, TSV or JSON file at a user specified location
+	 *
+	 * The movies are validated and saved on background threads while their posters are copied into the img
+	 * folder, so the dashboard stays responsive. Movies that already exist are skipped.
+	 */
+	@FXML
+	private void importMovies() {
+		File file = chooseImportFile("Import Movies");
+		if (file == null) {
+			return;
+		}
+		MovieImport movieImport = new MovieImport(file.getAbsoluteFile().getParentFile().toPath());
+		ImportTask<Movie> importTask = new ImportTask<>("movies", file.toPath(), movieImport);
+		runTask(importTask, "movies-import", "The import failed. The movies imported before the error have been saved.",
+			() -> showImportSummary(importTask, "movies", movieImport.getPosterErrors()
+				+ " posters could not be copied, see the log for details."));
+	}
+
+	/**
+	 * Imports a schedule of screenings from a CSV, TSV or JSON file at a user specified location
+	 *
+	 * Screenings whose time slot is already taken or in the past are skipped. Afterwards the list of
+	 * upcoming screenings and the programme are reloaded.
+	 */
+	@FXML
+	private void importSchedule() {
+		File file = chooseImportFile("Import Schedule");
+		if (file == null) {
+			return;
+		}
+		ImportTask<Screening> importTask = new ImportTask<>("screenings", file.toPath(), new ScreeningImport());
+		runTask(importTask, "screenings-import", "The import failed. "
+			+ "The screenings imported before the error have been saved.", () -> {
+			try {
+				observableList.setAll(ScreeningDAO.searchUpcomingScreenings());
+			} catch (SQLException | ClassNotFoundException e) {
 				e.printStackTrace();
 			}
-			MainApp.LOGGER.fine("Exported Screenings to CSV at " + file.getAbsolutePath());
-		} else {
+			// Adds the imported screenings to the programme if it has been shown
+			if (MainApp.customerProgrammeController != null) {
+				MainApp.customerProgrammeController.reloadScreenings();
+			}
+			showImportSummary(importTask, "screenings", "Time slots that are taken or in the past were skipped.");
+		});
+	}
+
+	/**
+	 * Internal helper method that asks for the file to import
+	 *
+	 * @param title the title of the FileChooser
+	 * @return the selected file, or null if the selection was cancelled
+	 */
+	private File chooseImportFile(String title) {
+		// Creates a new FileChooser that offers CSV, TSV and JSON files, also compressed with gzip
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.getExtensionFilters().addAll(
+			new FileChooser.ExtensionFilter("CSV, TSV and JSON Files",
+				"*.csv", "*.tsv", "*.json", "*.csv.gz", "*.tsv.gz", "*.json.gz"),
+			new FileChooser.ExtensionFilter("All Files", "*.*"));
+		fileChooser.setTitle(title);
+		// Shows an open dialog
+		File file = fileChooser.showOpenDialog(null);
+		if (file == null) {
 			MainApp.LOGGER.fine("Cancelled file selection");
 		}
+		return file;
+	}
+
+	/**
+	 * Internal helper method that displays how many rows an import has saved, skipped and rejected
+	 *
+	 * @param importTask the finished import
+	 * @param items the name of the imported items, e.g. "movies"
+	 * @param details further information about the import
+	 */
+	private void showImportSummary(ImportTask<?> importTask, String items, String details) {
+		Alert alert = new Alert(Alert.AlertType.INFORMATION, importTask.getMessage() + ".\n"
+			+ importTask.getDuplicateRows() + " rows were skipped because their " + items + " already exist and "
+			+ importTask.getRejectedRows() + " rows were rejected because they are invalid, see the log for details.\n"
+			+ details);
+		alert.setTitle("Information");
+		alert.setHeaderText("Import finished");
+		alert.showAndWait();
+	}
+
+	/**
+	 * Internal helper method that runs an export or import on a background thread
+	 *
+	 * While the task is running, its progress and status are shown, it can be cancelled and the export
+	 * and import buttons are disabled.
+	 *
+	 * @param task the export or import
+	 * @param threadName the name of the thread
+	 * @param failureMessage the message that is displayed if the task fails
+	 * @param onSucceeded the action that runs on the JavaFX thread once the task has succeeded, or null
+	 */
+	private void runTask(Task<Integer> task, String threadName, String failureMessage, Runnable onSucceeded) {
+		backgroundTask = task;
+		// Shows the progress of the task and disables the export and import buttons until it has finished
+		pbTask.progressProperty().bind(task.progressProperty());
+		lblTaskStatus.textProperty().bind(task.messageProperty());
+		setRunning(true);
+		task.setOnSucceeded(event -> {
+			setRunning(false);
+			if (onSucceeded != null) {
+				onSucceeded.run();
+			}
+		});
+		task.setOnCancelled(event -> setRunning(false));
+		task.setOnFailed(event -> {
+			setRunning(false);
+			task.getException().printStackTrace();
+			new Alert(Alert.AlertType.ERROR, failureMessage).showAndWait();
+		});
+		// Runs the task on a background thread
+		Thread taskThread = new Thread(task, threadName);
+		taskThread.setDaemon(true);
+		taskThread.start();
+	}
+
+	/**
+	 * Cancels the currently running export or import
+	 *
+	 * A cancelled export deletes the incomplete file, a cancelled import keeps the rows saved so far.
+	 */
+	@FXML
+	private void cancelTask() {
+		if (backgroundTask != null) {
+			backgroundTask.cancel();
+		}
+	}
+
+	/**
+	 * Internal helper method that shows or hides the progress of a task and enables or disables the export
+	 * and import buttons
+	 *
+	 * @param running true while an export or import is running
+	 */
+	private void setRunning(boolean running) {
+		pbTask.setVisible(running);
+		lblTaskStatus.setVisible(running);
+		btnCancelTask.setVisible(running);
+		btnExportAll.setDisable(running);
+		btnExportAllUpcoming.setDisable(running);
+		btnSalesReport.setDisable(running);
+		btnImportMovies.setDisable(running);
+		btnImportSchedule.setDisable(running);
+		// The export selected button is only enabled if screenings are selected
+		btnExportSelected.setDisable(running || lvScreenings.getSelectionModel().getSelectedItems().isEmpty());
+		if (!running) {
+			pbTask.progressProperty().unbind();
+			lblTaskStatus.textProperty().unbind();
+			backgroundTask = null;
+		}
 	}
 
 }
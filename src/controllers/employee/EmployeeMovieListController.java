@@ -1,13 +1,14 @@
 package controllers.employee;
 
 import application.MainApp;
+import application.ViewRegistry;
+import helpers.MovieSearchFilter;
 import helpers.SelectionListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.AnchorPane;
@@ -39,6 +40,8 @@ public class EmployeeMovieListController {
 
 	private ObservableList<Movie> movieList = FXCollections.observableArrayList();
 	private FilteredList<Movie> filteredList = new FilteredList<>(movieList, predicate -> true);
+	//Filters the filteredList by the movies matching the content of tfSearch
+	private final MovieSearchFilter<Movie> searchFilter = new MovieSearchFilter<>(filteredList, Movie::getMovieID);
 	private SortedList<Movie> sortedList = new SortedList<>(filteredList);
 
 	/**
@@ -50,18 +53,16 @@ public class EmployeeMovieListController {
 	@FXML
 	private void initialize() {
 		setupTableView();
+		// Searches as the user types, the search only runs once the user pauses
+		tfSearch.textProperty().addListener((observable, oldValue, newValue) -> search());
 	}
 
 	/**
 	 * Sets up the TableView with a list of all movies in the database
 	 */
 	private void setupTableView() {
-		try {
-			// Retrieves all movies from the database and places them in the tableview
-			movieList.addAll( MovieDAO.searchMovies());
-		} catch (SQLException | ClassNotFoundException e) {
-			e.printStackTrace();
-		}
+		// Retrieves all movies from the database and places them in the tableview
+		reloadMovies();
 		// Binds the sortedList to tvMovies' comparator Property
 		sortedList.comparatorProperty().bind(tvMovies.comparatorProperty());
 		// Populates the tableview's columns with information about the movies
@@ -79,15 +80,25 @@ public class EmployeeMovieListController {
 		tvMovies.setOnKeyPressed(new SelectionListener(tvMovies, btnRemove));
 	}
 
+	/**
+	 * Replaces the movies in the tableview with all movies currently in the database
+	 */
+	public void reloadMovies() {
+		try {
+			movieList.setAll(MovieDAO.searchMovies());
+		} catch (SQLException | ClassNotFoundException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Displays the EmployeeAddMovie view
 	 */
 	@FXML
 	private void showEmployeeAddMovie() {
 		try {
-			FXMLLoader loader = new FXMLLoader();
-			loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeAddMovie.fxml"));
-			AnchorPane employeeAddMovie = loader.load();
+			// Loads a new view, as the form has to be empty
+			AnchorPane employeeAddMovie = ViewRegistry.load("/views/employee/EmployeeAddMovie.fxml").getRoot();
 			MainApp.employeeRoot.setCenter(employeeAddMovie);
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -153,26 +164,9 @@ public class EmployeeMovieListController {
 	 */
 	@FXML
 	private void search() {
-		//Retrieves the content of tfSearch
-		String searchString = tfSearch.getText();
-		//Sets the predicate of the filteredList which provides the content for tvMovies
-		//This predicate acts as the filter which determines which items are displayed in
-		//the TableView and which are not
-		filteredList.setPredicate(movie -> {
-			//If the search field is empty, all list items are displayed
-			if (searchString == null || searchString.isEmpty()) {
-				return true;
-			}
-			//The string is put into all lower case to make it case-insensitive
-			String lowerCaseValue = searchString.toLowerCase();
-			//Similarly, the movie titles against which it is compared are put into lower case as well
-			if (movie.getName().toLowerCase().contains(lowerCaseValue)) {
-				return true;
-			}
-			//If the search field is not null/empty and the movie in the table does not match the predicate
-			//the movie is not displayed
-			return false;
-		});
+		//Filters the items by the movies whose title, director, actors, genre or description match tfSearch
+		//The movies are searched on a background thread once the user has stopped typing
+		searchFilter.search(tfSearch.getText());
 	}
 
 	/**
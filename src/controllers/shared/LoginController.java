@@ -1,6 +1,9 @@
 package controllers.shared;
 
 import application.MainApp;
+import helpers.Metrics;
+import helpers.PasswordHasher;
+import helpers.RateLimiter;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -24,6 +27,12 @@ import java.sql.SQLException;
  */
 public class LoginController {
 
+	// Allows 5 login attempts per username and 30 failed login attempts on this terminal within one minute
+	private static final RateLimiter usernameLimiter = new RateLimiter(5, 60000, 10000);
+	private static final RateLimiter terminalLimiter = new RateLimiter(30, 60000, 1);
+	// Identifies this terminal, e.g. a box office kiosk, for the terminal limit
+	private static final String TERMINAL = System.getProperty("cinema.terminal", "local");
+
 	@FXML
 	TextField tfUsername;
 	@FXML
@@ -49,9 +58,13 @@ public class LoginController {
 	 * Compares the entered username and password with the database and processes login
 	 *
 	 * The entered username is searched for in the database. If a match is found, the
-	 * password of the database match is compared to the entered password.
+	 * entered password is checked against the password hash of the database match.
 	 * If the password matches the username, a check is performed whether the user
 	 * is an employee or a customer. The respective view is subsequently displayed.
+	 * Passwords that are stored in plain text or with an outdated work factor are hashed anew.
+	 *
+	 * Before the database is queried, the attempt is checked against the login rate limits,
+	 * so that guessing passwords in quick succession is refused without a database lookup or log entry.
 	 */
 	@FXML
 	private void login() {
@@ -62,6 +75,13 @@ public class LoginController {
 		String password = pfPassword.getText();
 		Account account = null;
 
+		//Refuses the attempt if there have been too many recent failed attempts on this terminal or attempts for this username
+		if (!terminalLimiter.isAllowed(TERMINAL) || !usernameLimiter.tryAcquire(username)) {
+			lblWarning.setText("Too many login attempts. Please wait a minute and try again.");
+			Metrics.counter("login.throttled").increment();
+			return;
+		}
+
 		//Searches for the username in the database
 		try {
 			account = AccountDAO.searchAccount(username);
@@ -72,17 +92,28 @@ public class LoginController {
 		//If no matching account is found, displays a warning message
 		if (account == null) {
 			lblWarning.setText("Username could not be found");
+			terminalLimiter.recordAttempt(TERMINAL);
 			MainApp.LOGGER.warning("Unable to find user " + username);
-		//If a matching account is found, compares the entered password with that of the matched account
-		} else if (account.getPassword().equals(password)) {
+		//If a matching account is found, checks the entered password against the hash of the matched account
+		} else if (PasswordHasher.verify(password, account.getPassword())) {
+			//Replaces plain passwords and hashes with an outdated work factor with a new hash
+			if (PasswordHasher.needsRehash(account.getPassword())) {
+				try {
+					AccountDAO.updatePassword(username, PasswordHasher.hash(password));
+				} catch (SQLException e) {
+					e.printStackTrace();
+				}
+			}
 			switch (account.getEmployee()) {
 				//Displays the correct scene depending on the account type
 				case 0:
+					usernameLimiter.reset(username);
 					MainApp.loginStage.close();
 					MainApp.setUsername(username);
 					MainApp.startAsCustomer();
 					break;
 				case 1:
+					usernameLimiter.reset(username);
 					MainApp.loginStage.close();
 					MainApp.setUsername(username);
 					MainApp.startAsEmployee();
@@ -91,7 +122,8 @@ public class LoginController {
 		//If the password does not match that of the matched account, displays a warning.
 		} else {
 			lblWarning.setText("Incorrect Password");
-			MainApp.LOGGER.warning("User " + username + " tried to log in with password " + password + "and failed.");
+			terminalLimiter.recordAttempt(TERMINAL);
+			MainApp.LOGGER.warning("User " + username + " tried to log in with an incorrect password.");
 		}
 	}
 
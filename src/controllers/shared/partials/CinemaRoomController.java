@@ -14,6 +14,7 @@ import models.Screening;
 import models.Seat;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Controller class for CinemaRoom.fxml
@@ -54,6 +55,37 @@ public class CinemaRoomController {
 		return selectedSeats;
 	}
 
+	/**
+	 * Empties the list of selected seats, e.g. after some of them have been booked by another customer
+	 */
+	public void clearSelection() {
+		selectedSeats.clear();
+	}
+
+	/**
+	 * Replaces the current selection with the provided seats, e.g. the best seats found for a party
+	 *
+	 * @param seatsToSelect the seats to be selected, which must be available
+	 */
+	public void selectSeats(List<Seat> seatsToSelect) {
+		selectedSeats.clear();
+		Image imgSeat = new Image("file:" + System.getProperty("user.dir") + "/img/seat/seat.png");
+		Image imgSeatSelected = new Image("file:" + System.getProperty("user.dir") + "/img/seat/seat_selected.png");
+		//Repaints the seats of the previous selection
+		for (int i = 0; i < cinemaSeats.size()/2; i++) {
+			((ImageView)cinemaSeats.get(i)).setImage(imgSeat);
+		}
+		for (Seat seat : seatsToSelect) {
+			//Adds a clone of the seat to the selection, like a click on the seat
+			Seat selectedSeat = seats.get(seat.getIndex()).clone();
+			selectedSeat.setBooked(true);
+			selectedSeats.add(selectedSeat);
+			((ImageView)cinemaSeats.get(seat.getIndex())).setImage(imgSeatSelected);
+		}
+		//Updates a label that displays the number of currently selected seats
+		customerProgrammeMovieController.updateLabels(selectedSeats);
+	}
+
 	/**
 	 * Setter method for this view's screening object
 	 * @param screening The screening object of this view
@@ -1,6 +1,7 @@
 package controllers.shared.partials;
 
 import application.MainApp;
+import application.ViewRegistry;
 import controllers.employee.EmployeeScreeningDetailsController;
 import helpers.Helpers;
 import javafx.fxml.FXML;
@@ -79,6 +80,7 @@ public class MovieCellController {
 		//Fills the labels with corresponding information
 		lblTitle.setText(movie.getName());
 		// Displays the time, day of the week and formatted date for the booked screening
+		// The day of the week belongs to the stored date, also for screenings at 24:00
 		lblDate.setText(screening.getTime() + ":00 on " +
 			LocalDate.parse(screening.getDate()).getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.UK) + ", "+
 			Helpers.formatDateString(screening.getDate()));
@@ -98,13 +100,11 @@ public class MovieCellController {
 		try {
 			//Loads the view and connected controller
 			EmployeeScreeningDetailsController controller;
-			FXMLLoader loader = new FXMLLoader();
-			// Points the FXMLLoader to the view's filepath
-			loader.setLocation(MainApp.class.getResource("/views/employee/EmployeeScreeningDetails.fxml"));
-			// Loads the view
-			AnchorPane employeeScreeningDetails = loader.load();
+			// Loads a new view, as it shows a single screening
+			ViewRegistry.View view = ViewRegistry.load("/views/employee/EmployeeScreeningDetails.fxml");
+			AnchorPane employeeScreeningDetails = view.getRoot();
 			// Retrieves the view's controller
-			controller = loader.getController();
+			controller = view.getController();
 			//Sets the controller's screening object and calls the setup method which fills in the
 			//view's fields with information from the screening object
 			controller.setScreening(screening);
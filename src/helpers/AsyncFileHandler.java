@@ -0,0 +1,249 @@
+package helpers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A logging Handler that writes log records to a file on a background thread
+ *
+ * Publishing a record only places it into a bounded queue, so the thread that logs, usually the
+ * JavaFX application thread, never waits for the disk. A daemon thread formats the queued records,
+ * writes them in batches and rolls the file over once it exceeds a maximum size or a new day starts.
+ * Rolled files are renamed to log.txt.1, log.txt.2 and so on, and the oldest file is deleted.
+ *
+ * The logging class and method are only determined for warnings and errors, as this requires walking
+ * the call stack on the logging thread. Other records show the name of the logger instead.
+ *
+ * If records are logged faster than they can be written and the queue is full, records below
+ * WARNING are dropped and counted, while warnings and errors wait until there is space again.
+ */
+public class AsyncFileHandler extends Handler {
+
+	// Maximum time in milliseconds a warning waits for space in a full queue before it is dropped as well
+	private static final long BLOCK_TIMEOUT_MILLIS = 1000;
+	// Time in milliseconds after which the writer checks whether the handler has been closed
+	private static final long POLL_MILLIS = 100;
+
+	private final Path file;
+	private final long maxBytes;
+	private final int maxFiles;
+	private final BlockingQueue<LogRecord> queue;
+	private final AtomicLong droppedRecords = new AtomicLong();
+	private final Thread writerThread;
+	private volatile boolean closed = false;
+
+	private Writer writer;
+	private long writtenBytes;
+	private LocalDate fileDate;
+	// Number of dropped records that have already been mentioned in the log file
+	private long reportedDrops = 0;
+
+	/**
+	 * Constructor that opens the log file and starts the background writer
+	 *
+	 * @param file the file that is written to, an existing file is rolled over first
+	 * @param maxBytes the size after which the file is rolled over, counted in characters
+	 * @param maxFiles the number of rolled files that are kept
+	 * @param queueCapacity the number of records that can wait to be written
+	 * @throws IOException thrown if the file cannot be opened
+	 */
+	public AsyncFileHandler(Path file, long maxBytes, int maxFiles, int queueCapacity) throws IOException {
+		this.file = file;
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		setFormatter(new SimpleFormatter());
+		// Keeps the log of the previous run like FileHandler did
+		if (Files.exists(file)) {
+			rollOver();
+		}
+		openFile();
+		writerThread = new Thread(this::writeRecords, "async-log-writer");
+		// Does not keep the application running once the window has been closed
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Places a log record into the queue of records that are written by the background thread
+	 *
+	 * @param record the log record
+	 */
+	@Override
+	public void publish(LogRecord record) {
+		if (closed || !isLoggable(record)) {
+			return;
+		}
+		if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+			// Determines the logging class and method of warnings now, as they cannot be found from the writer thread
+			record.getSourceClassName();
+		} else {
+			// Skips walking the call stack for routine messages, the logger's name is shown instead
+			record.setSourceClassName(null);
+		}
+		if (queue.offer(record)) {
+			return;
+		}
+		// The queue is full: waits for space for warnings and errors, drops everything else
+		boolean queued = false;
+		if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+			try {
+				queued = queue.offer(record, BLOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (!queued) {
+			droppedRecords.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return the number of records that were dropped because the queue was full
+	 */
+	public long getDroppedRecords() {
+		return droppedRecords.get();
+	}
+
+	/**
+	 * Waits until all queued records have been written to the file
+	 */
+	@Override
+	public void flush() {
+		while (!queue.isEmpty() && writerThread.isAlive()) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Writes all queued records, stops the background writer and closes the file
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			writerThread.join(BLOCK_TIMEOUT_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Main loop of the background writer, which writes queued records until the handler is closed
+	 */
+	private void writeRecords() {
+		List<LogRecord> batch = new ArrayList<>();
+		// Keeps writing after the handler has been closed until the queue is empty
+		while (!closed || !queue.isEmpty()) {
+			try {
+				// Waits for the next record, then takes all other records that are already queued
+				LogRecord record = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (record == null) {
+					continue;
+				}
+				batch.add(record);
+				queue.drainTo(batch);
+			} catch (InterruptedException e) {
+				break;
+			}
+			write(batch);
+			batch.clear();
+		}
+		try {
+			writer.close();
+		} catch (IOException e) {
+			reportError("Could not close the log file", e, ErrorManager.CLOSE_FAILURE);
+		}
+	}
+
+	/**
+	 * Internal helper method that formats and writes a batch of records, rolling the file over when necessary
+	 *
+	 * @param batch the records that are written
+	 */
+	private void write(List<LogRecord> batch) {
+		try {
+			for (LogRecord record : batch) {
+				String message = getFormatter().format(record);
+				writer.write(message);
+				writtenBytes += message.length();
+				if (writtenBytes >= maxBytes || !LocalDate.now().equals(fileDate)) {
+					writer.close();
+					rollOver();
+					openFile();
+				}
+			}
+			// Notes in the file how many records have been dropped since the last batch
+			long dropped = droppedRecords.get() - reportedDrops;
+			if (dropped > 0) {
+				writer.write("Dropped " + dropped + " log records because the log queue was full"
+					+ System.lineSeparator());
+				reportedDrops += dropped;
+			}
+			writer.flush();
+		} catch (IOException e) {
+			reportError("Could not write to the log file", e, ErrorManager.WRITE_FAILURE);
+		}
+	}
+
+	/**
+	 * Internal helper method that opens a new, empty log file
+	 *
+	 * @throws IOException thrown if the file cannot be opened
+	 */
+	private void openFile() throws IOException {
+		writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+			StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		writtenBytes = 0;
+		fileDate = LocalDate.now();
+	}
+
+	/**
+	 * Internal helper method that renames the current log file to log.txt.1, log.txt.1 to log.txt.2 and so on
+	 *
+	 * @throws IOException thrown if a file cannot be renamed
+	 */
+	private void rollOver() throws IOException {
+		Files.deleteIfExists(rolledFile(maxFiles));
+		for (int i = maxFiles - 1; i >= 1; i--) {
+			if (Files.exists(rolledFile(i))) {
+				Files.move(rolledFile(i), rolledFile(i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		if (maxFiles > 0) {
+			Files.move(file, rolledFile(1), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Internal helper method that returns the path of a rolled log file
+	 *
+	 * @param index the number of the rolled file, 1 being the most recent one
+	 * @return the path of the rolled file
+	 */
+	private Path rolledFile(int index) {
+		return file.resolveSibling(file.getFileName() + "." + index);
+	}
+}
@@ -0,0 +1,52 @@
+package helpers;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that counts how often something happened, e.g. how many statements a view executed
+ *
+ * Counters can be incremented from several threads at the same time without locking.
+ * They are created and registered through Metrics.counter(String).
+ */
+public class Counter implements Metrics.CounterMXBean {
+
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * Constructor that is only used by the Metrics registry
+	 */
+	Counter() {
+	}
+
+	/**
+	 * Increases the count by one
+	 */
+	public void increment() {
+		count.increment();
+	}
+
+	/**
+	 * Increases the count by the provided amount
+	 *
+	 * @param amount the amount that is added
+	 */
+	public void add(long amount) {
+		count.add(amount);
+	}
+
+	/**
+	 * @return the current count
+	 */
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the count as a line of the metrics dump
+	 */
+	@Override
+	public String toString() {
+		return "count=" + getCount();
+	}
+}
@@ -0,0 +1,189 @@
+package helpers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads rows of values from a CSV or TSV file following RFC 4180
+ *
+ * The first row holds the names of the columns. Values may be enclosed in double quotes, in which case
+ * they can contain the delimiter, line breaks and doubled double quotes, like the files written by
+ * CsvWriter. Rows may be separated by CRLF or LF and empty lines are skipped. The file is read through
+ * a buffer one row at a time, so files of any size can be read.
+ */
+public class CsvReader implements RowReader {
+
+	// Size of the buffer in characters, large enough to read many rows at once
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Reader reader;
+	private final char delimiter;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	// Position of the next character in the buffer and number of characters in the buffer
+	private int position, length;
+	// The names of the columns in lower case, or null until the header has been read
+	private String[] header;
+
+	/**
+	 * Constructor that reads from the provided Reader
+	 *
+	 * @param reader the Reader the rows are read from
+	 * @param delimiter the character that separates the values, ',' for CSV and '\t' for TSV files
+	 */
+	public CsvReader(Reader reader, char delimiter) {
+		this.reader = reader;
+		this.delimiter = delimiter;
+	}
+
+	/**
+	 * Opens a buffered UTF-8 Reader for a stream
+	 *
+	 * @param in the stream, e.g. of a file
+	 * @param gzip true to decompress the stream with gzip, e.g. for files ending in .csv.gz
+	 * @return the Reader
+	 * @throws IOException thrown if the stream is not compressed with gzip
+	 */
+	public static Reader openReader(InputStream in, boolean gzip) throws IOException {
+		if (gzip) {
+			in = new GZIPInputStream(in, BUFFER_SIZE);
+		}
+		return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * Reads the next row, reading the header first if this is the first call
+	 *
+	 * @return the values of the row by the names of their columns in lower case, or null at the end of the file.
+	 * Columns without a value in this row are missing from the map, values without a column are ignored.
+	 * @throws IOException thrown if the file cannot be read or a quoted value is not closed
+	 */
+	@Override
+	public Map<String, String> readRow() throws IOException {
+		if (header == null) {
+			List<String> names = readValues();
+			if (names == null) {
+				return null;
+			}
+			header = new String[names.size()];
+			for (int i = 0; i < header.length; i++) {
+				// Removes the byte order mark that some spreadsheet programs write at the start of the file
+				header[i] = names.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+			}
+		}
+		List<String> values = readValues();
+		if (values == null) {
+			return null;
+		}
+		Map<String, String> row = new HashMap<>(header.length * 2);
+		for (int i = 0; i < header.length && i < values.size(); i++) {
+			row.put(header[i], values.get(i));
+		}
+		return row;
+	}
+
+	/**
+	 * Closes the file
+	 *
+	 * @throws IOException thrown if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Internal helper method that reads the values of the next row that is not empty
+	 *
+	 * @return the values, or null at the end of the file
+	 * @throws IOException thrown if the file cannot be read or a quoted value is not closed
+	 */
+	private List<String> readValues() throws IOException {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		// True once the row contains anything, so that empty lines can be skipped
+		boolean started = false;
+		int c;
+		while ((c = read()) != -1) {
+			if (quoted) {
+				if (c != '"') {
+					value.append((char) c);
+				} else if (peek() == '"') {
+					// A doubled double quote stands for a single one
+					value.append((char) read());
+				} else {
+					quoted = false;
+				}
+			} else if (c == '"') {
+				quoted = true;
+				started = true;
+			} else if (c == delimiter) {
+				values.add(value.toString());
+				value.setLength(0);
+				started = true;
+			} else if (c == '\r' || c == '\n') {
+				if (c == '\r' && peek() == '\n') {
+					read();
+				}
+				if (started || value.length() > 0) {
+					values.add(value.toString());
+					return values;
+				}
+			} else {
+				value.append((char) c);
+				started = true;
+			}
+		}
+		if (quoted) {
+			throw new IOException("A quoted value is not closed at the end of the file");
+		}
+		if (!started && value.length() == 0) {
+			return null;
+		}
+		// The last row does not have to end with a line break
+		values.add(value.toString());
+		return values;
+	}
+
+	/**
+	 * Internal helper method that reads the next character
+	 *
+	 * @return the character, or -1 at the end of the file
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private int read() throws IOException {
+		int c = peek();
+		if (c != -1) {
+			position++;
+		}
+		return c;
+	}
+
+	/**
+	 * Internal helper method that returns the next character without reading it
+	 *
+	 * @return the character, or -1 at the end of the file
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private int peek() throws IOException {
+		if (position == length) {
+			length = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (length <= 0) {
+				length = 0;
+				return -1;
+			}
+		}
+		return buffer[position];
+	}
+}
@@ -0,0 +1,114 @@
+package helpers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows of values to a CSV file following RFC 4180
+ *
+ * Values that contain a comma, a double quote or a line break are enclosed in double quotes,
+ * and double quotes within them are doubled, so that spreadsheet programs read every value
+ * into a single cell. Rows are separated by CRLF. The file is written through a buffer and can
+ * optionally be compressed with gzip.
+ */
+public class CsvWriter implements RowWriter {
+
+	// Size of the buffer in characters, large enough to write many rows at once
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Writer writer;
+
+	/**
+	 * Constructor that writes to the provided Writer
+	 *
+	 * @param writer the Writer the rows are written to
+	 */
+	public CsvWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/**
+	 * Opens a CSV file for writing, replacing an existing file
+	 *
+	 * @param file the file
+	 * @param gzip true to compress the file with gzip, e.g. for files ending in .csv.gz
+	 * @return the CsvWriter
+	 * @throws IOException thrown if the file cannot be opened
+	 */
+	public static CsvWriter open(Path file, boolean gzip) throws IOException {
+		return new CsvWriter(openWriter(file, gzip));
+	}
+
+	/**
+	 * Opens a buffered UTF-8 Writer for a file, replacing an existing file
+	 *
+	 * @param file the file
+	 * @param gzip true to compress the file with gzip
+	 * @return the Writer
+	 * @throws IOException thrown if the file cannot be opened
+	 */
+	public static Writer openWriter(Path file, boolean gzip) throws IOException {
+		OutputStream out = Files.newOutputStream(file);
+		if (gzip) {
+			out = new GZIPOutputStream(out, BUFFER_SIZE);
+		}
+		return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * Writes a row of values, followed by a line break
+	 *
+	 * @param values the values, null values are written as empty cells
+	 * @throws IOException thrown if the row cannot be written
+	 */
+	@Override
+	public void writeRow(Object... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			if (values[i] != null) {
+				writeValue(values[i].toString());
+			}
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * Writes all buffered rows to the file and closes it
+	 *
+	 * @throws IOException thrown if the file cannot be written or closed
+	 */
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Internal helper method that writes a single value, quoting it if necessary
+	 *
+	 * @param value the value
+	 * @throws IOException thrown if the value cannot be written
+	 */
+	private void writeValue(String value) throws IOException {
+		boolean needsQuotes = false;
+		for (int i = 0; i < value.length() && !needsQuotes; i++) {
+			char c = value.charAt(i);
+			needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!needsQuotes) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
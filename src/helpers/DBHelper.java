@@ -3,7 +3,14 @@ package helpers;
 import application.MainApp;
 import com.sun.rowset.CachedRowSetImpl;
 
+import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * This helper class provides static methods that facilitate the interactions with the SQLite database
@@ -12,22 +19,55 @@ import java.sql.*;
  * the connection and disconnection with the database as well as for the
  * execution of all statements.
  *
+ * The duration of every connection acquisition and statement is recorded in Metrics, together with
+ * the number of rows it returned or changed, per DAO method and per view controller that issued it.
+ * The first connection to a database file brings its schema up to date through SchemaMigrations.
+ *
  * Sources: http://www.sqlitetutorial.net/sqlite-java/
  *          http://www.swtestacademy.com/database-operations-javafx/
  */
 public class DBHelper {
 	// Declares constant for the jdbc driver
 	private static final String JDBC_DRIVER = "org.sqlite.JDBC";
-	// Declares constant for SQLite connection string
-	private static final String CONN_URL = "jdbc:sqlite:db/cinema.db";
-
-	// Initializes Connection
-	private static Connection conn = null;
+	// Declares constant for the SQLite connection string prefix
+	private static final String CONN_PREFIX = "jdbc:sqlite:";
+	// Declares constant for the name of the system property that can point to a different database file
+	public static final String DB_PATH_PROPERTY = "cinema.db";
+	// Declares constant for the database file that is used if the system property is not set
+	private static final String DEFAULT_DB_PATH = "db/cinema.db";
+	// Database files whose schema has been brought up to date since the application started
+	private static final Set<String> migratedPaths = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * This method sets the Oracle JDBC driver and creates a new database connection
+	 *
+	 * Every operation opens its own connection instead of sharing one, so that DAOs
+	 * can be used from several threads at the same time.
+	 *
+	 * @return the new connection, or null if it could not be established
+	 */
+	private static Connection dbConnect() {
+		Connection conn = null;
+		long startTime = System.nanoTime();
+		try {
+			conn = openConnection();
+			Metrics.timer("db.connection.acquire.time").recordSince(startTime);
+			MainApp.LOGGER.fine("Connection to SQLite has been established.");
+		} catch (SQLException e) {
+			Metrics.counter("db.connection.errors").increment();
+			MainApp.LOGGER.warning("Connection Failed!");
+			e.printStackTrace();
+		}
+		return conn;
+	}
+
+	/**
+	 * Internal helper method that creates a new database connection without recording it in Metrics
+	 *
+	 * @return the new connection
+	 * @throws SQLException thrown if the connection cannot be established
 	 */
-	private static void dbConnect() {
+	private static Connection openConnection() throws SQLException {
 		try {
 			// Sets the Oracle JDBC Driver
 			Class.forName(JDBC_DRIVER);
@@ -38,22 +78,47 @@ public class DBHelper {
 		}
 		MainApp.LOGGER.fine("Oracle JDBC Driver Registered!");
 
-		// Creates a connection to the database using the SQLite connection string CONN_URL
+		// Creates a connection to the database file named by the system property "cinema.db", or db/cinema.db
+		// This allows benchmarks and load tests to run against a separate copy of the database
+		String dbPath = System.getProperty(DB_PATH_PROPERTY, DEFAULT_DB_PATH);
+		Connection conn = DriverManager.getConnection(CONN_PREFIX + dbPath);
+		// Brings the schema up to date the first time a database file is used
+		if (!migratedPaths.contains(dbPath)) {
+			migrate(conn, dbPath);
+		}
+		return conn;
+	}
+
+	/**
+	 * Internal helper method that applies the SchemaMigrations to a database file
+	 *
+	 * If a migration fails, the connection can still be used with the previous schema
+	 * and the migration is attempted again with the next connection.
+	 *
+	 * @param conn a connection to the database file
+	 * @param dbPath the path of the database file
+	 */
+	private static synchronized void migrate(Connection conn, String dbPath) {
+		// Another thread may have migrated the database while this thread was waiting
+		if (migratedPaths.contains(dbPath)) {
+			return;
+		}
 		try {
-			conn = DriverManager.getConnection(CONN_URL);
-			MainApp.LOGGER.fine("Connection to SQLite has been established.");
+			SchemaMigrations.migrate(conn);
+			migratedPaths.add(dbPath);
 		} catch (SQLException e) {
-			MainApp.LOGGER.warning("Connection Failed!");
-			e.printStackTrace();
+			Metrics.counter("db.migration.errors").increment();
+			MainApp.LOGGER.warning("Could not migrate the database " + dbPath + ": " + e);
 		}
 	}
 
 	/**
-	 * This method closes the current database connection through Connection.close()
+	 * This method closes the provided database connection through Connection.close()
 	 *
+	 * @param conn the connection to be closed
 	 * @throws SQLException thrown if the connection cannot be closed
 	 */
-	private static void dbDisconnect() throws SQLException {
+	private static void dbDisconnect(Connection conn) throws SQLException {
 		if (conn != null && !conn.isClosed()) {
 			conn.close();
 		}
@@ -74,10 +139,13 @@ public class DBHelper {
 		Statement statement = null;
 		ResultSet resultSet = null;
 		CachedRowSetImpl crs = null;
+		Connection conn = null;
+		int rows = -1;
+		long startTime = System.nanoTime();
 		try {
 			// Connects to the database
-			dbConnect();
-			MainApp.LOGGER.info("Select statement: " + queryStatement);
+			conn = dbConnect();
+			MainApp.LOGGER.info(() -> "Select statement: " + queryStatement);
 			// Creates the statement
 			statement = conn.createStatement();
 			// Executes the query that was provided to the method
@@ -86,7 +154,9 @@ public class DBHelper {
 			// In order to prevent "java.sql.SQLRecoverableException: Closed Connection: next" error
 			crs = new CachedRowSetImpl();
 			crs.populate(resultSet);
+			rows = crs.size();
 		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
 			MainApp.LOGGER.warning("Problem occurred at executeQuery operation : " + e);
 		} finally {
 			if (resultSet != null) {
@@ -98,12 +168,87 @@ public class DBHelper {
 				statement.close();
 			}
 			// Closes the connection
-			dbDisconnect();
+			dbDisconnect(conn);
+			recordStatement("query", queryStatement, null, startTime, rows);
 		}
 		// Returns the CachedRowSet containing the query results
 		return crs;
 	}
 
+	/**
+	 * Handles one row of a streamed query result
+	 */
+	public interface RowHandler {
+		/**
+		 * @param row the result set, positioned on the current row
+		 * @return true to continue with the next row, false to stop reading the result
+		 * @throws SQLException thrown if a column cannot be read
+		 * @throws IOException thrown if the row cannot be written, e.g. to an export file
+		 */
+		boolean handleRow(ResultSet row) throws SQLException, IOException;
+	}
+
+	/**
+	 * Executes a parameterised SQL SELECT query and hands every resulting row to a RowHandler
+	 *
+	 * Unlike dbExecuteQuery, the rows are not copied into a CachedRowSet but read one at a time while
+	 * the connection is open, so the memory used does not grow with the size of the result. This method
+	 * is meant for long results that are processed row by row, e.g. exports.
+	 *
+	 * @param queryStatement The SQL SELECT query that shall be executed, with a ? placeholder for every parameter
+	 * @param params The parameters of the query in the order of the placeholders, or null if it has none
+	 * @param handler The RowHandler that is called for every row until it returns false
+	 * @return the number of rows that were handed to the handler
+	 * @throws SQLException thrown if the query fails
+	 * @throws IOException thrown if the handler fails to write a row
+	 */
+	public static int dbStreamQuery(String queryStatement, Object[] params, RowHandler handler)
+		throws SQLException, IOException {
+		// Declares statement, resultSet and connection as null
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		Connection conn = null;
+		int rows = 0;
+		long startTime = System.nanoTime();
+		try {
+			// Connects to the database
+			conn = dbConnect();
+			MainApp.LOGGER.info(() -> "Streamed select statement: " + queryStatement);
+			// Creates the statement and fills in the placeholders
+			statement = conn.prepareStatement(queryStatement);
+			if (params != null) {
+				for (int i = 0; i < params.length; i++) {
+					statement.setObject(i + 1, params[i]);
+				}
+			}
+			// Executes the query and hands over the rows as they are read
+			resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				rows++;
+				if (!handler.handleRow(resultSet)) {
+					break;
+				}
+			}
+			return rows;
+		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
+			MainApp.LOGGER.warning("Problem occurred at streamQuery operation : " + e);
+			throw e;
+		} finally {
+			if (resultSet != null) {
+				// Closes the resultSet
+				resultSet.close();
+			}
+			if (statement != null) {
+				// Closes the Statement
+				statement.close();
+			}
+			// Closes the connection
+			dbDisconnect(conn);
+			recordStatement("stream", queryStatement, params, startTime, rows);
+		}
+	}
+
 	//DB Execute Update (for Update, Insert or Delete) Operation
 
 	/**
@@ -120,14 +265,18 @@ public class DBHelper {
 	public static void dbExecuteUpdate(String sqlStatement) throws SQLException {
 		// Declares the Statement as null
 		Statement statement = null;
+		Connection conn = null;
+		int rows = -1;
+		long startTime = System.nanoTime();
 		try {
 			// Connects to the database
-			dbConnect();
+			conn = dbConnect();
 			// Creates the Statement
 			statement = conn.createStatement();
 			// Runs the executeUpdate operation with the given SQL statement
-			statement.executeUpdate(sqlStatement);
+			rows = statement.executeUpdate(sqlStatement);
 		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
 			MainApp.LOGGER.warning("Problem occurred at executeUpdate operation : " + e);
 		} finally {
 			if (statement != null) {
@@ -135,7 +284,369 @@ public class DBHelper {
 				statement.close();
 			}
 			// Disconnects from the database
-			dbDisconnect();
+			dbDisconnect(conn);
+			recordStatement("update", sqlStatement, null, startTime, rows);
+		}
+	}
+
+	/**
+	 * Executes an SQL INSERT statement and returns the primary key that the database generated for the new row
+	 *
+	 * The key is read through Statement.getGeneratedKeys() on the same statement, so no
+	 * additional SELECT query is needed to find out the identifier of the inserted row.
+	 *
+	 * @param sqlStatement The SQL INSERT statement that shall be executed
+	 * @return the generated primary key of the inserted row
+	 * @throws SQLException thrown if the statement fails or no key was generated
+	 */
+	public static int dbExecuteInsert(String sqlStatement) throws SQLException {
+		// Declares the Statement and the ResultSet holding the generated key as null
+		PreparedStatement statement = null;
+		ResultSet generatedKeys = null;
+		Connection conn = null;
+		int rows = -1;
+		long startTime = System.nanoTime();
+		try {
+			// Connects to the database
+			conn = dbConnect();
+			// Creates the Statement and asks the driver to report the generated key
+			statement = conn.prepareStatement(sqlStatement, Statement.RETURN_GENERATED_KEYS);
+			// Runs the executeUpdate operation
+			rows = statement.executeUpdate();
+			generatedKeys = statement.getGeneratedKeys();
+			if (!generatedKeys.next()) {
+				throw new SQLException("The database did not report a generated key");
+			}
+			return generatedKeys.getInt(1);
+		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
+			MainApp.LOGGER.warning("Problem occurred at executeInsert operation : " + e);
+			throw e;
+		} finally {
+			if (generatedKeys != null) {
+				// Closes the generated keys
+				generatedKeys.close();
+			}
+			if (statement != null) {
+				// Closes the statement
+				statement.close();
+			}
+			// Disconnects from the database
+			dbDisconnect(conn);
+			recordStatement("insert", sqlStatement, null, startTime, rows);
+		}
+	}
+
+	/**
+	 * Executes several SQL statements in a single transaction
+	 *
+	 * If any of the statements fails, the transaction is rolled back so that either all
+	 * statements take effect or none of them.
+	 *
+	 * @param sqlStatements The SQL statements that shall be executed, in order
+	 * @return the number of rows changed by each statement
+	 * @throws SQLException thrown if one of the statements fails, in which case no changes are saved
+	 */
+	public static int[] dbExecuteTransaction(String... sqlStatements) throws SQLException {
+		// Declares the Statement as null
+		Statement statement = null;
+		Connection conn = null;
+		int[] rows = new int[sqlStatements.length];
+		long startTime = System.nanoTime();
+		try {
+			// Connects to the database
+			conn = dbConnect();
+			// Groups all statements into a single transaction
+			conn.setAutoCommit(false);
+			statement = conn.createStatement();
+			for (int i = 0; i < sqlStatements.length; i++) {
+				rows[i] = statement.executeUpdate(sqlStatements[i]);
+			}
+			// Saves all changes at once
+			conn.commit();
+			return rows;
+		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
+			MainApp.LOGGER.warning("Problem occurred at executeTransaction operation : " + e);
+			// Discards all changes made by this transaction
+			if (conn != null && !conn.isClosed()) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			if (statement != null) {
+				// Closes the statement
+				statement.close();
+			}
+			// Disconnects from the database
+			dbDisconnect(conn);
+			recordStatement("transaction", String.join("; ", sqlStatements), null, startTime, sqlStatements.length);
+		}
+	}
+
+	/**
+	 * Executes the statements of a transaction on the connection it is given
+	 */
+	public interface TransactionHandler {
+		/**
+		 * @param conn the connection of the transaction, which must not be committed or closed by the handler
+		 * @return the number of rows the statements changed
+		 * @throws SQLException thrown if a statement fails, which rolls back the transaction
+		 */
+		int handleTransaction(Connection conn) throws SQLException;
+	}
+
+	/**
+	 * Hands a connection to a TransactionHandler and commits its statements in a single transaction
+	 *
+	 * Unlike dbExecuteTransaction, the statements may depend on each other's results, e.g. on the key
+	 * generated for a row inserted before. If the handler throws an SQLException, the transaction is
+	 * rolled back so that either all statements take effect or none of them.
+	 *
+	 * @param sqlStatement The main SQL statement of the transaction, which is logged and recorded in Metrics
+	 * @param handler The TransactionHandler that executes the statements
+	 * @return the number of rows changed, as reported by the handler
+	 * @throws SQLException thrown if one of the statements fails, in which case no changes are saved
+	 */
+	public static int dbExecuteTransaction(String sqlStatement, TransactionHandler handler) throws SQLException {
+		Connection conn = null;
+		int rows = -1;
+		long startTime = System.nanoTime();
+		try {
+			// Connects to the database
+			conn = dbConnect();
+			// Groups all statements of the handler into a single transaction
+			conn.setAutoCommit(false);
+			rows = handler.handleTransaction(conn);
+			// Saves all changes at once
+			conn.commit();
+			return rows;
+		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
+			MainApp.LOGGER.warning("Problem occurred at executeTransaction operation : " + e);
+			// Discards all changes made by this transaction
+			if (conn != null && !conn.isClosed()) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			// Disconnects from the database
+			dbDisconnect(conn);
+			recordStatement("transaction", sqlStatement, null, startTime, rows);
+		}
+	}
+
+	/**
+	 * Executes a parameterised SQL INSERT statement once for every provided row of parameters
+	 *
+	 * All executions share one connection and one transaction. The statements are sent to the
+	 * database in groups of batchSize instead of one at a time. If any of the statements fails,
+	 * the transaction is rolled back so that either all rows or none of them are saved.
+	 *
+	 * This method is used for bulk insertions, for example when scheduling many screenings at once.
+	 * SQLite only reports the key of the last row inserted by a batch. Because the transaction keeps
+	 * other connections from writing in the meantime and every statement inserts exactly one row,
+	 * the rows of a batch receive consecutive keys which end with the reported one.
+	 *
+	 * @param sqlStatement The SQL INSERT statement that shall be executed, with a ? placeholder for every parameter
+	 * @param params The parameters for each execution of the statement, in the order of the placeholders
+	 * @param batchSize The number of statements that are sent to the database together
+	 * @return the generated primary keys of the inserted rows, in the order of the provided parameters
+	 * @throws SQLException thrown if one of the statements fails, in which case no changes are saved
+	 */
+	public static List<Integer> executeBatch(String sqlStatement, Iterable<Object[]> params, int batchSize)
+		throws SQLException {
+		// Declares the PreparedStatement as null
+		PreparedStatement statement = null;
+		List<Integer> generatedKeys = new ArrayList<>();
+		Connection conn = null;
+		// Keeps the parameters of the first row for the slow query log
+		Object[] firstRow = null;
+		long startTime = System.nanoTime();
+		try {
+			// Connects to the database
+			conn = dbConnect();
+			// Groups all of the following executions into a single transaction
+			conn.setAutoCommit(false);
+			// Creates the PreparedStatement and asks the driver to report generated keys
+			statement = conn.prepareStatement(sqlStatement, Statement.RETURN_GENERATED_KEYS);
+			int pendingStatements = 0;
+			for (Object[] row : params) {
+				if (firstRow == null) {
+					firstRow = row;
+				}
+				// Fills in the placeholders with this row's parameters
+				for (int i = 0; i < row.length; i++) {
+					statement.setObject(i + 1, row[i]);
+				}
+				statement.addBatch();
+				pendingStatements++;
+				// Sends the statements to the database once a full batch has been collected
+				if (pendingStatements == batchSize) {
+					addGeneratedKeys(statement, pendingStatements, generatedKeys);
+					pendingStatements = 0;
+				}
+			}
+			// Sends the remaining statements of the last, incomplete batch
+			if (pendingStatements > 0) {
+				addGeneratedKeys(statement, pendingStatements, generatedKeys);
+			}
+			// Saves all changes at once
+			conn.commit();
+		} catch (SQLException e) {
+			Metrics.counter("db.errors").increment();
+			MainApp.LOGGER.warning("Problem occurred at executeBatch operation : " + e);
+			// Discards all changes made by this batch
+			if (conn != null && !conn.isClosed()) {
+				conn.rollback();
+			}
+			throw e;
+		} finally {
+			if (statement != null) {
+				// Closes the statement
+				statement.close();
+			}
+			// Disconnects from the database
+			dbDisconnect(conn);
+			recordStatement("batch", sqlStatement, firstRow, startTime, generatedKeys.size());
+		}
+		return generatedKeys;
+	}
+
+	/**
+	 * Internal helper method that executes the pending batch of a statement and collects the generated keys
+	 *
+	 * @param statement the PreparedStatement whose batch is executed
+	 * @param batchCount the number of statements in the pending batch
+	 * @param generatedKeys the list the generated keys are added to
+	 * @throws SQLException thrown if one of the statements fails or did not insert exactly one row
+	 */
+	private static void addGeneratedKeys(PreparedStatement statement, int batchCount, List<Integer> generatedKeys)
+		throws SQLException {
+		int[] updateCounts = statement.executeBatch();
+		for (int updateCount : updateCounts) {
+			if (updateCount != 1 && updateCount != Statement.SUCCESS_NO_INFO) {
+				throw new SQLException("Expected every statement of the batch to insert one row");
+			}
+		}
+		// Retrieves the key of the last inserted row
+		try (ResultSet keys = statement.getGeneratedKeys()) {
+			if (!keys.next()) {
+				throw new SQLException("The database did not report any generated keys");
+			}
+			int lastKey = keys.getInt(1);
+			// The rows of the batch received consecutive keys ending with the last key
+			for (int key = lastKey - batchCount + 1; key <= lastKey; key++) {
+				generatedKeys.add(key);
+			}
+		}
+	}
+
+	/**
+	 * Returns the query plan SQLite chooses for a statement
+	 *
+	 * The statement is prefixed with EXPLAIN QUERY PLAN, so it is not executed. The lookup is not
+	 * recorded in Metrics or in the slow query log.
+	 *
+	 * @param sqlStatement the SQL statement, with a ? placeholder for every parameter
+	 * @param params the parameters of the statement, or null if it has none
+	 * @return one line per step of the plan
+	 * @throws SQLException thrown if the statement cannot be explained
+	 */
+	static List<String> explainQueryPlan(String sqlStatement, Object[] params) throws SQLException {
+		List<String> plan = new ArrayList<>();
+		// Bypasses dbConnect, which would count the connection in Metrics
+		Connection conn = openConnection();
+		try (PreparedStatement statement = conn.prepareStatement("EXPLAIN QUERY PLAN " + sqlStatement)) {
+			if (params != null) {
+				for (int i = 0; i < params.length; i++) {
+					statement.setObject(i + 1, params[i]);
+				}
+			}
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while (resultSet.next()) {
+					plan.add(resultSet.getString("detail"));
+				}
+			}
+		} finally {
+			dbDisconnect(conn);
+		}
+		return plan;
+	}
+
+	/**
+	 * Internal helper method that records the duration and row count of a statement in Metrics
+	 *
+	 * The statement is attributed to the DAO method and the view controller that issued it, which are
+	 * found with a StackWalker that stops at the controller, so the frames below it are never read.
+	 * Statements that take longer than the threshold of the SlowQueryLog are also handed to it.
+	 *
+	 * @param type the type of the statement, e.g. "query" or "update"
+	 * @param sqlStatement the SQL statement
+	 * @param params the parameters of the statement, or null if it has none
+	 * @param startTime the time the statement was started, as returned by System.nanoTime()
+	 * @param rows the number of rows the statement returned or changed, or -1 if it failed
+	 */
+	private static void recordStatement(String type, String sqlStatement, Object[] params, long startTime, int rows) {
+		long duration = System.nanoTime() - startTime;
+		Metrics.timer("db." + type + ".time").record(duration);
+		String[] callers = StackWalker.getInstance().walk(DBHelper::findCallers);
+		// Records the statement for the DAO method that issued it, e.g. "dao.MovieDAO.searchMovies.time"
+		String daoMethod = callers[0];
+		if (daoMethod != null) {
+			Metrics.timer("dao." + daoMethod + ".time").record(duration);
+			if (rows >= 0) {
+				Metrics.histogram("dao." + daoMethod + ".rows", "rows").record(rows);
+			}
+		}
+		// Records the statement for the view whose controller issued it, e.g. "screen.CustomerProgrammeController"
+		String controllerMethod = callers[1];
+		if (controllerMethod != null) {
+			String controller = controllerMethod.substring(0, controllerMethod.indexOf('.'));
+			Metrics.counter("screen." + controller + ".statements").increment();
+			Metrics.timer("screen." + controller + ".time").record(duration);
+		}
+		if (SlowQueryLog.isSlow(duration)) {
+			SlowQueryLog.record(type, sqlStatement, params, duration, rows, daoMethod);
+		}
+	}
+
+	/**
+	 * Internal helper method that finds the first method of the models and of the controllers package on the call stack
+	 *
+	 * The DAOs are called by the controllers, so no further frames are read once a controller has been found.
+	 *
+	 * @param frames the frames of the call stack, starting with the innermost method
+	 * @return the DAO method and the controller method, e.g. "MovieDAO.searchMovies", each of them null if not found
+	 */
+	private static String[] findCallers(Stream<StackWalker.StackFrame> frames) {
+		String[] callers = new String[2];
+		Iterator<StackWalker.StackFrame> iterator = frames.iterator();
+		while (callers[1] == null && iterator.hasNext()) {
+			StackWalker.StackFrame frame = iterator.next();
+			String className = frame.getClassName();
+			if (callers[0] == null && className.startsWith("models.")) {
+				callers[0] = methodName(frame);
+			} else if (className.startsWith("controllers.")) {
+				callers[1] = methodName(frame);
+			}
+		}
+		return callers;
+	}
+
+	/**
+	 * Internal helper method that names the method of a stack frame
+	 *
+	 * @param frame the stack frame
+	 * @return the simple class name and method name of the frame, e.g. "MovieDAO.searchMovies"
+	 */
+	private static String methodName(StackWalker.StackFrame frame) {
+		String className = frame.getClassName();
+		// Removes the package and the names of inner and anonymous classes
+		String simpleName = className.substring(className.lastIndexOf('.') + 1);
+		if (simpleName.indexOf('$') >= 0) {
+			simpleName = simpleName.substring(0, simpleName.indexOf('$'));
 		}
+		return simpleName + "." + frame.getMethodName();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package helpers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a task on a background thread once no new task has been submitted for a while
+ *
+ * This is used to react to typing: every keystroke submits a task, which replaces the task of the previous
+ * keystroke if that has not started yet, so only the last one runs once the user pauses. The tasks of all
+ * Debouncers run one after the other on a single background thread, so they never block the JavaFX thread
+ * and their results arrive in the order they were submitted.
+ */
+public class Debouncer {
+
+	// Single background thread that runs the tasks of all Debouncers
+	private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "debouncer");
+		// Does not keep the application running once the window has been closed
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final long delayMillis;
+	// The task that has been submitted last, or null
+	private ScheduledFuture<?> pendingTask;
+
+	/**
+	 * Constructor that sets the pause after which a task runs
+	 *
+	 * @param delayMillis the time in milliseconds without new tasks after which the last task runs
+	 */
+	public Debouncer(long delayMillis) {
+		this.delayMillis = delayMillis;
+	}
+
+	/**
+	 * Schedules a task, cancelling the previously submitted task unless it is already running
+	 *
+	 * @param task the task
+	 */
+	public synchronized void submit(Runnable task) {
+		if (pendingTask != null) {
+			pendingTask.cancel(false);
+		}
+		pendingTask = executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+	}
+}
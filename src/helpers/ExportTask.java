@@ -0,0 +1,214 @@
+package helpers;
+
+import application.MainApp;
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A background task that streams the rows of a query into a CSV or JSON file
+ *
+ * The rows are written to the file as they are read from the database, so neither the whole result
+ * nor the whole file is held in memory. The task reports its progress, which can be bound to a
+ * ProgressBar, and can be cancelled. If it is cancelled or fails, the incomplete file is deleted.
+ * Files whose name ends in .json or .json.gz are written as JSON array, all others as CSV, and files
+ * whose name ends in .gz are compressed with gzip. When the export is finished, the number of rows per second
+ * is logged and recorded in the histogram export.NAME.rowsPerSecond.
+ */
+public class ExportTask extends Task<Integer> {
+
+	// Number of rows after which the progress is updated, so the JavaFX thread is not flooded with updates
+	private static final int PROGRESS_INTERVAL = 500;
+
+	/**
+	 * The query whose rows are exported
+	 */
+	public interface Source {
+		/**
+		 * @return the number of rows the export will contain, used to report the progress
+		 * @throws SQLException thrown if the rows cannot be counted
+		 */
+		int countRows() throws SQLException;
+
+		/**
+		 * Hands every row to the provided handler
+		 *
+		 * @param handler the RowHandler that writes the rows
+		 * @return the number of rows that were handed to the handler
+		 * @throws SQLException thrown if the rows cannot be read
+		 * @throws IOException thrown if a row cannot be written
+		 */
+		int streamRows(DBHelper.RowHandler handler) throws SQLException, IOException;
+	}
+
+	/**
+	 * A query whose result is small enough to be read completely before it is written, e.g. a report
+	 */
+	public interface ResultLoader {
+		/**
+		 * @return the rows that are exported, which can be scrolled, e.g. a CachedRowSet
+		 * @throws SQLException thrown if the query fails
+		 */
+		ResultSet load() throws SQLException;
+	}
+
+	private final String name;
+	private final Path file;
+	private final String[] header;
+	private final Source source;
+	private final ResultLoader loader;
+
+	/**
+	 * Constructor that sets up the export
+	 *
+	 * @param name the name of the export used in the log and the metrics, e.g. "screenings"
+	 * @param file the file the rows are written to
+	 * @param header the names of the columns, in the order of the query's columns
+	 * @param source the query whose rows are exported
+	 */
+	public ExportTask(String name, Path file, String[] header, Source source) {
+		this.name = name;
+		this.file = file;
+		this.header = header;
+		this.source = source;
+		this.loader = null;
+	}
+
+	/**
+	 * Constructor that sets up the export of a result that is read completely before it is written
+	 *
+	 * @param name the name of the export used in the log and the metrics, e.g. "salesReport"
+	 * @param file the file the rows are written to
+	 * @param header the names of the columns, in the order of the query's columns
+	 * @param loader the query whose rows are exported, which is run on the background thread of the task
+	 */
+	public ExportTask(String name, Path file, String[] header, ResultLoader loader) {
+		this.name = name;
+		this.file = file;
+		this.header = header;
+		this.source = null;
+		this.loader = loader;
+	}
+
+	/**
+	 * Writes the header and all rows to the file
+	 *
+	 * @return the number of rows that were written
+	 * @throws Exception thrown if the rows cannot be read or written
+	 */
+	@Override
+	protected Integer call() throws Exception {
+		long startTime = System.nanoTime();
+		updateMessage("Counting rows...");
+		Source source = this.source != null ? this.source : loadResult();
+		int totalRows = source.countRows();
+		int[] writtenRows = new int[1];
+		updateProgress(0, totalRows);
+		try (RowWriter writer = openWriter()) {
+			Object[] values = new Object[header.length];
+			source.streamRows(row -> {
+				// Stops reading the result as soon as the task has been cancelled
+				if (isCancelled()) {
+					return false;
+				}
+				readValues(row, values);
+				writer.writeRow(values);
+				writtenRows[0]++;
+				if (writtenRows[0] % PROGRESS_INTERVAL == 0) {
+					updateProgress(writtenRows[0], totalRows);
+					updateMessage("Exported " + writtenRows[0] + " of " + totalRows + " rows");
+				}
+				return true;
+			});
+		} catch (Exception e) {
+			// Removes the incomplete file, the file chosen by the user has already been overwritten
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException deleteException) {
+				e.addSuppressed(deleteException);
+			}
+			MainApp.LOGGER.warning("The " + name + " export failed after " + writtenRows[0] + " rows: " + e);
+			throw e;
+		}
+		if (isCancelled()) {
+			// Removes the incomplete file
+			Files.deleteIfExists(file);
+			MainApp.LOGGER.info(() -> "Cancelled the " + name + " export after " + writtenRows[0] + " rows");
+			return writtenRows[0];
+		}
+		updateProgress(totalRows, totalRows);
+		updateMessage("Exported " + writtenRows[0] + " rows");
+		double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+		long rowsPerSecond = Math.round(writtenRows[0] / seconds);
+		Metrics.histogram("export." + name + ".rowsPerSecond", "rows/s").record(rowsPerSecond);
+		MainApp.LOGGER.info(() -> String.format("Exported %d %s rows to %s in %.2f s (%d rows/s)",
+			writtenRows[0], name, file, seconds, rowsPerSecond));
+		return writtenRows[0];
+	}
+
+	/**
+	 * Internal helper method that runs the query of the ResultLoader and returns a Source for its rows
+	 *
+	 * @return a Source that counts and streams the rows of the loaded result
+	 * @throws SQLException thrown if the query fails
+	 */
+	private Source loadResult() throws SQLException {
+		ResultSet result = loader.load();
+		if (result == null) {
+			throw new SQLException("The " + name + " query failed");
+		}
+		// Counts the rows by moving to the last one
+		result.last();
+		int rows = result.getRow();
+		result.beforeFirst();
+		return new Source() {
+			@Override
+			public int countRows() {
+				return rows;
+			}
+
+			@Override
+			public int streamRows(DBHelper.RowHandler handler) throws SQLException, IOException {
+				int streamedRows = 0;
+				while (result.next() && handler.handleRow(result)) {
+					streamedRows++;
+				}
+				return streamedRows;
+			}
+		};
+	}
+
+	/**
+	 * Internal helper method that opens a CSV or JSON writer depending on the name of the file
+	 *
+	 * @return the RowWriter, which has already written the header if the file is a CSV file
+	 * @throws IOException thrown if the file cannot be opened
+	 */
+	private RowWriter openWriter() throws IOException {
+		String fileName = file.getFileName().toString();
+		boolean gzip = fileName.endsWith(".gz");
+		if (fileName.endsWith(".json") || fileName.endsWith(".json.gz")) {
+			return new JsonWriter(CsvWriter.openWriter(file, gzip), header);
+		}
+		CsvWriter csv = CsvWriter.open(file, gzip);
+		csv.writeRow((Object[]) header);
+		return csv;
+	}
+
+	/**
+	 * Internal helper method that reads all columns of the current row
+	 *
+	 * @param row the result set, positioned on the current row
+	 * @param values the array the values are written to, one per column
+	 * @throws SQLException thrown if a column cannot be read
+	 */
+	private static void readValues(ResultSet row, Object[] values) throws SQLException {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = row.getObject(i + 1);
+		}
+	}
+}
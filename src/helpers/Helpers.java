@@ -1,6 +1,7 @@
 package helpers;
 
 import application.MainApp;
+import application.ViewRegistry;
 import controllers.customer.CustomerTicketController;
 import javafx.fxml.FXMLLoader;
 import javafx.print.PrinterJob;
@@ -30,7 +31,9 @@ public class Helpers {
 		MainApp.setUsername("");
 		// Closes the primary stage displaying the running application
 		MainApp.primaryStage.close();
-		MainApp.LOGGER.info("Logged out " + username);
+		// Discards the cached views, which show information about the user who logged out
+		ViewRegistry.clear();
+		MainApp.LOGGER.info(() -> "Logged out " + username);
 		// Shows the login window
 		MainApp.showLogin();
 	}
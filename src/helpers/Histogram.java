@@ -0,0 +1,183 @@
+package helpers;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metric that records the distribution of values, e.g. query durations or the number of rows a query returned
+ *
+ * Like an HDR histogram, values are counted in buckets whose width grows with the value: every power of two
+ * is split into 16 buckets, so percentiles are reported with an error of at most about 6 percent, while
+ * recording a value only increments a few counters and never allocates or locks.
+ * Histograms are created and registered through Metrics.timer(String) and Metrics.histogram(String).
+ */
+public class Histogram implements Metrics.HistogramMXBean {
+
+	// Number of buckets every power of two is split into
+	private static final int SUB_BUCKETS = 16;
+	// Number of bits needed to address the sub buckets
+	private static final int SUB_BUCKET_BITS = 4;
+	// Number of buckets needed to cover all non-negative long values
+	private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final String unit;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Constructor that is only used by the Metrics registry
+	 *
+	 * @param unit the unit of the recorded values, "ns" for timers
+	 */
+	Histogram(String unit) {
+		this.unit = unit;
+	}
+
+	/**
+	 * Records a value, negative values are recorded as 0
+	 *
+	 * @param value the value that is recorded
+	 */
+	public void record(long value) {
+		value = Math.max(0, value);
+		buckets.incrementAndGet(bucketIndex(value));
+		count.increment();
+		sum.add(value);
+		max.accumulateAndGet(value, Math::max);
+	}
+
+	/**
+	 * Records the time that passed since the provided start time
+	 *
+	 * @param startTime the start time as returned by System.nanoTime()
+	 */
+	public void recordSince(long startTime) {
+		record(System.nanoTime() - startTime);
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return the average of all recorded values, or 0 if no value has been recorded
+	 */
+	@Override
+	public double getMean() {
+		long currentCount = count.sum();
+		return currentCount == 0 ? 0 : (double) sum.sum() / currentCount;
+	}
+
+	/**
+	 * @return the largest recorded value
+	 */
+	@Override
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the median of the recorded values
+	 */
+	@Override
+	public long getP50() {
+		return getPercentile(50);
+	}
+
+	/**
+	 * @return the 99th percentile of the recorded values
+	 */
+	@Override
+	public long getP99() {
+		return getPercentile(99);
+	}
+
+	/**
+	 * @return the unit of the recorded values
+	 */
+	@Override
+	public String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * Returns an approximation of a percentile of the recorded values
+	 *
+	 * @param percentile the percentile between 0 and 100
+	 * @return the middle of the bucket that contains the percentile, never more than the largest recorded value
+	 */
+	public long getPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			total += buckets.get(i);
+		}
+		if (total == 0) {
+			return 0;
+		}
+		// Finds the bucket that contains the value with the given rank
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				long lowerBound = bucketLowerBound(i);
+				long upperBound = i + 1 < BUCKET_COUNT ? bucketLowerBound(i + 1) : Long.MAX_VALUE;
+				return Math.min(lowerBound + (upperBound - lowerBound) / 2, getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Internal helper method that calculates the bucket a value is counted in
+	 *
+	 * @param value a non-negative value
+	 * @return the index of the bucket
+	 */
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			// Small values have a bucket of their own
+			return (int) value;
+		}
+		// The position of the highest set bit selects the power of two, the next four bits the sub bucket
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Internal helper method that calculates the smallest value that is counted in a bucket
+	 *
+	 * @param index the index of the bucket
+	 * @return the smallest value of the bucket
+	 */
+	private static long bucketLowerBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+	}
+
+	/**
+	 * @return a summary of the recorded values as a line of the metrics dump, durations are shown in milliseconds
+	 */
+	@Override
+	public String toString() {
+		if ("ns".equals(unit)) {
+			return String.format(Locale.ROOT, "count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+				getCount(), getMean() / 1e6, getP50() / 1e6, getP99() / 1e6, getMax() / 1e6);
+		}
+		return String.format(Locale.ROOT, "count=%d mean=%.1f p50=%d p99=%d max=%d (%s)",
+			getCount(), getMean(), getP50(), getP99(), getMax(), unit);
+	}
+}
@@ -0,0 +1,295 @@
+package helpers;
+
+import application.MainApp;
+import javafx.concurrent.Task;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A background task that streams the rows of a CSV, TSV or JSON file into the database
+ *
+ * The file is read in chunks of rows, which are validated in parallel on a pool of worker threads while
+ * the next chunks are read. Only a few chunks are held in memory at a time, so files of any size can be
+ * imported. The validated chunks are taken in the order of the file: items that already exist in the
+ * database or earlier in the file are skipped and the others are inserted, every chunk in one transaction.
+ * If the task is cancelled, the chunks that have already been inserted remain in the database.
+ *
+ * Files whose name ends in .json or .json.gz are read with JsonReader, files ending in .tsv or .tsv.gz
+ * as tab separated and all others as comma separated values. Files ending in .gz are decompressed.
+ * The progress is calculated from the bytes read, so the file does not have to be read twice. When the
+ * import is finished, the number of rows per second is logged and recorded in the histogram
+ * import.NAME.rowsPerSecond.
+ *
+ * @param <T> the type of the items the rows are turned into, e.g. Movie
+ */
+public class ImportTask<T> extends Task<Integer> {
+
+	// Number of rows that are validated and inserted together
+	private static final int CHUNK_SIZE = 1000;
+	// Number of threads that validate rows
+	private static final int VALIDATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	// Number of chunks that are read ahead of the chunk being inserted, which bounds the memory used
+	private static final int CHUNKS_AHEAD = VALIDATION_THREADS * 2;
+	// Number of rejected rows whose reason is logged, so a broken file does not flood the log
+	private static final int LOGGED_REJECTIONS = 20;
+
+	/**
+	 * Turns the rows of a file into items and saves them in the database
+	 *
+	 * @param <T> the type of the items
+	 */
+	public interface Target<T> {
+		/**
+		 * Validates a row and turns it into an item
+		 *
+		 * This method is called from several threads at the same time.
+		 *
+		 * @param row the values of the row by the names of their columns in lower case
+		 * @return the item
+		 * @throws IllegalArgumentException thrown if the row is invalid, with a message naming the problem
+		 */
+		T parse(Map<String, String> row);
+
+		/**
+		 * @param item an item
+		 * @return a key that is equal for two items if they are duplicates, e.g. the title and year of a movie
+		 */
+		String key(T item);
+
+		/**
+		 * Reads the keys of the items that are already in the database
+		 *
+		 * This method is called once before the first row is validated, so the target can also read other
+		 * data it needs for the validation, e.g. the titles of the movies of imported screenings.
+		 *
+		 * @return the keys of the items that are already in the database
+		 * @throws SQLException thrown if the items cannot be read
+		 */
+		Set<String> existingKeys() throws SQLException;
+
+		/**
+		 * Saves items in the database in a single transaction
+		 *
+		 * @param items the items
+		 * @throws SQLException thrown if the items cannot be saved, in which case none of them is saved
+		 */
+		void insert(List<T> items) throws SQLException;
+
+		/**
+		 * Waits for the work the target does in the background after inserting items, e.g. copying posters
+		 *
+		 * This method is called once at the end of the import, also if it failed or was cancelled.
+		 *
+		 * @throws InterruptedException thrown if the task is cancelled while waiting
+		 */
+		default void finish() throws InterruptedException {
+		}
+	}
+
+	/**
+	 * The items and rejected rows of a validated chunk
+	 */
+	private static class Chunk<T> {
+		private final List<T> items = new ArrayList<>();
+		private final List<String> rejections = new ArrayList<>();
+	}
+
+	private final String name;
+	private final Path file;
+	private final Target<T> target;
+	private volatile int rejectedRows, duplicateRows;
+
+	/**
+	 * Constructor that sets up the import
+	 *
+	 * @param name the name of the import used in the log and the metrics, e.g. "movies"
+	 * @param file the file the rows are read from
+	 * @param target the target that validates and saves the rows
+	 */
+	public ImportTask(String name, Path file, Target<T> target) {
+		this.name = name;
+		this.file = file;
+		this.target = target;
+	}
+
+	/**
+	 * Reads, validates and saves all rows of the file
+	 *
+	 * @return the number of items that were saved
+	 * @throws Exception thrown if the file cannot be read or the items cannot be saved
+	 */
+	@Override
+	protected Integer call() throws Exception {
+		long startTime = System.nanoTime();
+		updateMessage("Reading existing " + name + "...");
+		Set<String> keys = target.existingKeys();
+		long fileSize = Math.max(Files.size(file), 1);
+		long[] bytesRead = new long[1];
+		int rows = 0, imported = 0;
+		ExecutorService validators = Executors.newFixedThreadPool(VALIDATION_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, name + "-import-validation");
+			// Does not keep the application running once the window has been closed
+			thread.setDaemon(true);
+			return thread;
+		});
+		// The chunks that are being validated, in the order of the file
+		Deque<Future<Chunk<T>>> pending = new ArrayDeque<>();
+		try (RowReader reader = openReader(new FilterInputStream(Files.newInputStream(file)) {
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				int n = super.read(b, off, len);
+				bytesRead[0] += Math.max(n, 0);
+				return n;
+			}
+		})) {
+			boolean endOfFile = false;
+			while (!isCancelled() && (!endOfFile || !pending.isEmpty())) {
+				// Reads chunks until enough are being validated ahead of the next one to insert
+				while (!endOfFile && pending.size() < CHUNKS_AHEAD) {
+					List<Map<String, String>> chunkRows = new ArrayList<>(CHUNK_SIZE);
+					Map<String, String> row;
+					while (chunkRows.size() < CHUNK_SIZE && (row = reader.readRow()) != null) {
+						chunkRows.add(row);
+					}
+					endOfFile = chunkRows.size() < CHUNK_SIZE;
+					int firstRow = rows + 1;
+					rows += chunkRows.size();
+					if (!chunkRows.isEmpty()) {
+						pending.add(validators.submit(() -> validate(chunkRows, firstRow)));
+					}
+				}
+				if (pending.isEmpty()) {
+					break;
+				}
+				// Waits for the oldest chunk, so the items are inserted in the order of the file
+				Chunk<T> chunk = pending.poll().get();
+				imported += insert(chunk, keys);
+				updateProgress(Math.min(bytesRead[0], fileSize), fileSize);
+				updateMessage(String.format("Imported %d of %d rows (%d rows/s)", imported, rows,
+					rowsPerSecond(rows, startTime)));
+			}
+		} finally {
+			validators.shutdownNow();
+			updateMessage("Finishing the import of " + imported + " " + name + "...");
+			// Also runs if the import failed or was cancelled, so the target can shut down its background work
+			target.finish();
+		}
+		int importedRows = imported, readRows = rows;
+		long rowsPerSecond = rowsPerSecond(readRows, startTime);
+		Metrics.histogram("import." + name + ".rowsPerSecond", "rows/s").record(rowsPerSecond);
+		MainApp.LOGGER.info(() -> String.format("%s the %s import of %s after %d rows in %.2f s (%d rows/s): "
+				+ "%d imported, %d duplicates, %d rejected", isCancelled() ? "Cancelled" : "Finished", name, file,
+			readRows, (System.nanoTime() - startTime) / 1e9, rowsPerSecond, importedRows, duplicateRows, rejectedRows));
+		if (!isCancelled()) {
+			updateProgress(1, 1);
+			updateMessage(String.format("Imported %d of %d rows (%d rows/s)", imported, rows, rowsPerSecond));
+		}
+		return imported;
+	}
+
+	/**
+	 * @return the number of rows that were skipped because they were invalid
+	 */
+	public int getRejectedRows() {
+		return rejectedRows;
+	}
+
+	/**
+	 * @return the number of rows that were skipped because their item already existed
+	 */
+	public int getDuplicateRows() {
+		return duplicateRows;
+	}
+
+	/**
+	 * Internal helper method that opens a CSV, TSV or JSON reader depending on the name of the file
+	 *
+	 * @param in the stream of the file
+	 * @return the RowReader
+	 * @throws IOException thrown if the file is not compressed although its name ends in .gz
+	 */
+	private RowReader openReader(InputStream in) throws IOException {
+		String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		boolean gzip = fileName.endsWith(".gz");
+		if (gzip) {
+			fileName = fileName.substring(0, fileName.length() - ".gz".length());
+		}
+		if (fileName.endsWith(".json")) {
+			return new JsonReader(CsvReader.openReader(in, gzip));
+		}
+		return new CsvReader(CsvReader.openReader(in, gzip), fileName.endsWith(".tsv") ? '\t' : ',');
+	}
+
+	/**
+	 * Internal helper method that validates the rows of a chunk, called on a validation thread
+	 *
+	 * @param rows the rows of the chunk
+	 * @param firstRow the number of the first row in the file, counting from 1 without the header
+	 * @return the chunk with the items of the valid rows and the reasons the other rows were rejected
+	 */
+	private Chunk<T> validate(List<Map<String, String>> rows, int firstRow) {
+		Chunk<T> chunk = new Chunk<>();
+		for (int i = 0; i < rows.size(); i++) {
+			try {
+				chunk.items.add(target.parse(rows.get(i)));
+			} catch (IllegalArgumentException e) {
+				chunk.rejections.add("Row " + (firstRow + i) + ": " + e.getMessage());
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * Internal helper method that skips the duplicates of a validated chunk and saves the other items
+	 *
+	 * @param chunk the validated chunk
+	 * @param keys the keys of all items in the database, to which the keys of the saved items are added
+	 * @return the number of items that were saved
+	 * @throws SQLException thrown if the items cannot be saved
+	 */
+	private int insert(Chunk<T> chunk, Set<String> keys) throws SQLException {
+		for (String rejection : chunk.rejections) {
+			if (rejectedRows++ < LOGGED_REJECTIONS) {
+				MainApp.LOGGER.warning("Rejected a row of the " + name + " import: " + rejection);
+			}
+		}
+		List<T> newItems = new ArrayList<>(chunk.items.size());
+		for (T item : chunk.items) {
+			if (keys.add(target.key(item))) {
+				newItems.add(item);
+			} else {
+				duplicateRows++;
+			}
+		}
+		if (!newItems.isEmpty()) {
+			target.insert(newItems);
+		}
+		return newItems.size();
+	}
+
+	/**
+	 * Internal helper method that calculates the rate at which rows have been read
+	 *
+	 * @param rows the number of rows read
+	 * @param startTime the time the import started, from System.nanoTime()
+	 * @return the number of rows per second
+	 */
+	private static long rowsPerSecond(int rows, long startTime) {
+		return Math.round(rows / (Math.max(System.nanoTime() - startTime, 1) / 1e9));
+	}
+}
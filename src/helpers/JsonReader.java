@@ -0,0 +1,253 @@
+package helpers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads rows of values from a JSON file, one object at a time
+ *
+ * The file holds either an array of objects, like the files written by JsonWriter, or one object after the
+ * other, e.g. one per line. Every object is a row whose keys are the names of the columns. Strings, numbers
+ * and booleans are read as Strings, null values are left out and arrays of such values are joined with line
+ * breaks, e.g. a list of actors. Objects within objects are not supported. Only the current object is held
+ * in memory, so files of any size can be read.
+ */
+public class JsonReader implements RowReader {
+
+	private final Reader reader;
+	// The next character, which has been read but not consumed, or -2 if there is none
+	private int next = -2;
+	// True once the opening bracket of an array has been read
+	private boolean inArray;
+
+	/**
+	 * Constructor that reads from the provided Reader
+	 *
+	 * @param reader the Reader the rows are read from, which should be buffered, see CsvReader.openReader
+	 */
+	public JsonReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * Reads the next object
+	 *
+	 * @return the values of the object by their keys in lower case, or null at the end of the file
+	 * @throws IOException thrown if the file cannot be read or is not valid JSON
+	 */
+	@Override
+	public Map<String, String> readRow() throws IOException {
+		int c = skipWhitespace();
+		if (c == '[' && !inArray) {
+			inArray = true;
+			read();
+			c = skipWhitespace();
+		}
+		if (inArray && c == ',') {
+			read();
+			c = skipWhitespace();
+		}
+		if (c == -1 || (inArray && c == ']')) {
+			return null;
+		}
+		expect('{');
+		Map<String, String> row = new HashMap<>();
+		if (skipWhitespace() == '}') {
+			read();
+			return row;
+		}
+		do {
+			skipWhitespace();
+			String key = readString().trim().toLowerCase(Locale.ROOT);
+			skipWhitespace();
+			expect(':');
+			String value = readValue();
+			if (value != null) {
+				row.put(key, value);
+			}
+			c = skipWhitespace();
+			read();
+		} while (c == ',');
+		if (c != '}') {
+			throw new IOException("Expected , or } in JSON object but found " + describe(c));
+		}
+		return row;
+	}
+
+	/**
+	 * Closes the file
+	 *
+	 * @throws IOException thrown if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Internal helper method that reads a value
+	 *
+	 * @return the value as a String, the values of an array separated by line breaks, or null for null
+	 * @throws IOException thrown if the value is not valid JSON or an object
+	 */
+	private String readValue() throws IOException {
+		int c = skipWhitespace();
+		if (c == '"') {
+			return readString();
+		}
+		if (c == '[') {
+			read();
+			List<String> values = new ArrayList<>();
+			if (skipWhitespace() == ']') {
+				read();
+				return "";
+			}
+			do {
+				String value = readValue();
+				if (value != null) {
+					values.add(value);
+				}
+				c = skipWhitespace();
+				read();
+			} while (c == ',');
+			if (c != ']') {
+				throw new IOException("Expected , or ] in JSON array but found " + describe(c));
+			}
+			return String.join("\n", values);
+		}
+		if (c == '{') {
+			throw new IOException("Objects within objects are not supported");
+		}
+		// Reads a number, true, false or null up to the next separator
+		StringBuilder literal = new StringBuilder();
+		while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+			literal.append((char) read());
+		}
+		if (literal.length() == 0) {
+			throw new IOException("Expected a JSON value but found " + describe(c));
+		}
+		return literal.toString().equals("null") ? null : literal.toString();
+	}
+
+	/**
+	 * Internal helper method that reads a string enclosed in double quotes and resolves its escape sequences
+	 *
+	 * @return the string
+	 * @throws IOException thrown if the string is not valid JSON
+	 */
+	private String readString() throws IOException {
+		expect('"');
+		StringBuilder value = new StringBuilder();
+		int c;
+		while ((c = read()) != '"') {
+			if (c == -1) {
+				throw new IOException("A JSON string is not closed at the end of the file");
+			}
+			if (c != '\\') {
+				value.append((char) c);
+				continue;
+			}
+			c = read();
+			switch (c) {
+				case 'n':
+					value.append('\n');
+					break;
+				case 'r':
+					value.append('\r');
+					break;
+				case 't':
+					value.append('\t');
+					break;
+				case 'b':
+					value.append('\b');
+					break;
+				case 'f':
+					value.append('\f');
+					break;
+				case 'u':
+					char[] hex = new char[4];
+					for (int i = 0; i < hex.length; i++) {
+						hex[i] = (char) read();
+					}
+					try {
+						value.append((char) Integer.parseInt(new String(hex), 16));
+					} catch (NumberFormatException e) {
+						throw new IOException("Invalid escape sequence \\u" + new String(hex) + " in JSON string");
+					}
+					break;
+				case -1:
+					throw new IOException("A JSON string is not closed at the end of the file");
+				default:
+					// Covers \" \\ and \/
+					value.append((char) c);
+			}
+		}
+		return value.toString();
+	}
+
+	/**
+	 * Internal helper method that reads a character and fails if it is not the expected one
+	 *
+	 * @param expected the expected character
+	 * @throws IOException thrown if another character is read
+	 */
+	private void expect(char expected) throws IOException {
+		int c = read();
+		if (c != expected) {
+			throw new IOException("Expected " + expected + " in JSON file but found " + describe(c));
+		}
+	}
+
+	/**
+	 * Internal helper method that skips whitespace and returns the next character without reading it
+	 *
+	 * @return the next character that is not whitespace, or -1 at the end of the file
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private int skipWhitespace() throws IOException {
+		while (peek() != -1 && Character.isWhitespace(peek())) {
+			read();
+		}
+		return peek();
+	}
+
+	/**
+	 * Internal helper method that reads the next character
+	 *
+	 * @return the character, or -1 at the end of the file
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private int read() throws IOException {
+		int c = peek();
+		next = -2;
+		return c;
+	}
+
+	/**
+	 * Internal helper method that returns the next character without reading it
+	 *
+	 * @return the character, or -1 at the end of the file
+	 * @throws IOException thrown if the file cannot be read
+	 */
+	private int peek() throws IOException {
+		if (next == -2) {
+			next = reader.read();
+		}
+		return next;
+	}
+
+	/**
+	 * Internal helper method that describes a character for an error message
+	 *
+	 * @param c the character, or -1 for the end of the file
+	 * @return the character or "the end of the file"
+	 */
+	private static String describe(int c) {
+		return c == -1 ? "the end of the file" : String.valueOf((char) c);
+	}
+}
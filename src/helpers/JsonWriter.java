@@ -0,0 +1,106 @@
+package helpers;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes rows of values to a file as a JSON array of objects
+ *
+ * Every row becomes one object whose keys are the provided field names, e.g.
+ * {"Film":"Star Wars","Tickets Sold":120}. Numbers and booleans are written as JSON numbers
+ * and booleans, everything else as JSON strings. Every object is written on its own line,
+ * so the file can also be read line by line.
+ */
+public class JsonWriter implements RowWriter {
+
+	private final Writer writer;
+	private final String[] fieldNames;
+	private boolean firstRow = true;
+
+	/**
+	 * Constructor that writes to the provided Writer and opens the array
+	 *
+	 * @param writer the Writer the rows are written to
+	 * @param fieldNames the keys of the values in every row
+	 * @throws IOException thrown if the array cannot be opened
+	 */
+	public JsonWriter(Writer writer, String[] fieldNames) throws IOException {
+		this.writer = writer;
+		this.fieldNames = fieldNames;
+		writer.write("[");
+	}
+
+	/**
+	 * Writes a row of values as a JSON object
+	 *
+	 * @param values the values in the order of the field names, null values are written as null
+	 * @throws IOException thrown if the row cannot be written
+	 */
+	@Override
+	public void writeRow(Object... values) throws IOException {
+		writer.write(firstRow ? "\n{" : ",\n{");
+		firstRow = false;
+		for (int i = 0; i < fieldNames.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(quote(fieldNames[i]));
+			writer.write(':');
+			Object value = i < values.length ? values[i] : null;
+			if (value == null || value instanceof Number || value instanceof Boolean) {
+				writer.write(String.valueOf(value));
+			} else {
+				writer.write(quote(value.toString()));
+			}
+		}
+		writer.write('}');
+	}
+
+	/**
+	 * Closes the array, writes all buffered rows to the file and closes it
+	 *
+	 * @throws IOException thrown if the file cannot be written or closed
+	 */
+	@Override
+	public void close() throws IOException {
+		writer.write("\n]\n");
+		writer.close();
+	}
+
+	/**
+	 * Quotes a String as JSON string
+	 *
+	 * @param value the String
+	 * @return the String in double quotes, with quotes, backslashes and control characters escaped
+	 */
+	public static String quote(String value) {
+		StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					json.append("\\\"");
+					break;
+				case '\\':
+					json.append("\\\\");
+					break;
+				case '\n':
+					json.append("\\n");
+					break;
+				case '\r':
+					json.append("\\r");
+					break;
+				case '\t':
+					json.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+			}
+		}
+		return json.append('"').toString();
+	}
+}
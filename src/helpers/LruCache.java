@@ -0,0 +1,129 @@
+package helpers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache that evicts the least recently used entry once it is full and expires entries after a time to live
+ *
+ * The cache can also remember that a key does not exist, by storing null as its value. Such negative entries
+ * use their own, usually shorter, time to live, so that lookups of unknown keys do not reach the database
+ * every time, but new rows still become visible soon. Hits, negative hits, misses and evictions are counted
+ * in Metrics under "cache." followed by the name of the cache.
+ *
+ * All methods are synchronized, so the cache can be used from several threads.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class LruCache<K, V> {
+
+	/**
+	 * A value held by the cache, which may be null if the key is known not to exist
+	 *
+	 * @param <V> the type of the value
+	 */
+	public static class Entry<V> {
+		private final V value;
+		private final long expiryTime;
+
+		/**
+		 * @param value the cached value, or null for a key that does not exist
+		 * @param expiryTime the time after which the entry is no longer returned, as System.nanoTime()
+		 */
+		private Entry(V value, long expiryTime) {
+			this.value = value;
+			this.expiryTime = expiryTime;
+		}
+
+		/**
+		 * @return the cached value, or null if the key is known not to exist
+		 */
+		public V getValue() {
+			return value;
+		}
+	}
+
+	private final int maxSize;
+	private final long timeToLiveNanos, negativeTimeToLiveNanos;
+	private final LinkedHashMap<K, Entry<V>> entries;
+	private final Counter hits, negativeHits, misses, evictions;
+
+	/**
+	 * Constructor that sets the limits of the cache
+	 *
+	 * @param name the name of the cache, used for its metrics
+	 * @param maxSize the maximum number of entries
+	 * @param timeToLiveMillis the time in milliseconds after which an entry with a value expires
+	 * @param negativeTimeToLiveMillis the time in milliseconds after which an entry for a missing key expires
+	 */
+	public LruCache(String name, int maxSize, long timeToLiveMillis, long negativeTimeToLiveMillis) {
+		this.maxSize = maxSize;
+		timeToLiveNanos = timeToLiveMillis * 1000000;
+		negativeTimeToLiveNanos = negativeTimeToLiveMillis * 1000000;
+		// Orders the entries from least to most recently accessed
+		entries = new LinkedHashMap<>(16, 0.75f, true);
+		hits = Metrics.counter("cache." + name + ".hits");
+		negativeHits = Metrics.counter("cache." + name + ".negativeHits");
+		misses = Metrics.counter("cache." + name + ".misses");
+		evictions = Metrics.counter("cache." + name + ".evictions");
+	}
+
+	/**
+	 * Returns the entry for a key if it is cached and has not expired
+	 *
+	 * @param key the key
+	 * @return the entry, whose value is null if the key is known not to exist, or null if the key is not cached
+	 */
+	public synchronized Entry<V> get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry != null && System.nanoTime() - entry.expiryTime >= 0) {
+			// Removes the expired entry
+			entries.remove(key);
+			entry = null;
+		}
+		if (entry == null) {
+			misses.increment();
+		} else if (entry.value == null) {
+			negativeHits.increment();
+		} else {
+			hits.increment();
+		}
+		return entry;
+	}
+
+	/**
+	 * Stores a value for a key, evicting the least recently used entry if the cache is full
+	 *
+	 * @param key the key
+	 * @param value the value, or null to remember that the key does not exist
+	 */
+	public synchronized void put(K key, V value) {
+		long timeToLive = value == null ? negativeTimeToLiveNanos : timeToLiveNanos;
+		entries.put(key, new Entry<>(value, System.nanoTime() + timeToLive));
+		if (entries.size() > maxSize) {
+			// The first entry of the map is the least recently used one
+			Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+			iterator.next();
+			iterator.remove();
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * Removes the entry for a key, so the next lookup reaches the database again
+	 *
+	 * @param key the key
+	 */
+	public synchronized void invalidate(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Removes all entries
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+}
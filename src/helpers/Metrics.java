@@ -0,0 +1,200 @@
+package helpers;
+
+import application.MainApp;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This helper class provides a registry of the application's metrics
+ *
+ * Metrics are counters and histograms that are identified by a name, e.g. "dao.MovieDAO.searchMovies.time".
+ * They are created the first time they are requested and registered with the platform MBeanServer,
+ * so they can be inspected with JConsole or VisualVM under the domain "cinema". Additionally, all metrics
+ * can be written to a file periodically.
+ *
+ * DBHelper records the duration of every statement and of every connection acquisition, and attributes
+ * each statement to the DAO method and the view controller that issued it.
+ */
+public class Metrics {
+
+	// Declares constant for the JMX domain the metrics are registered under
+	private static final String JMX_DOMAIN = "cinema";
+
+	private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+	private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+	private static ScheduledExecutorService dumpExecutor = null;
+
+	/**
+	 * Management interface of a Counter
+	 */
+	public interface CounterMXBean {
+		/**
+		 * @return the current count
+		 */
+		long getCount();
+	}
+
+	/**
+	 * Management interface of a Histogram
+	 */
+	public interface HistogramMXBean {
+		/**
+		 * @return the number of recorded values
+		 */
+		long getCount();
+
+		/**
+		 * @return the average of all recorded values
+		 */
+		double getMean();
+
+		/**
+		 * @return the largest recorded value
+		 */
+		long getMax();
+
+		/**
+		 * @return the median of the recorded values
+		 */
+		long getP50();
+
+		/**
+		 * @return the 99th percentile of the recorded values
+		 */
+		long getP99();
+
+		/**
+		 * @return the unit of the recorded values
+		 */
+		String getUnit();
+	}
+
+	/**
+	 * Returns the counter with the provided name, creating and registering it if it does not exist yet
+	 *
+	 * @param name the name of the counter
+	 * @return the counter
+	 */
+	public static Counter counter(String name) {
+		Counter counter = counters.get(name);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(name, key -> register(key, "Counter", new Counter()));
+		}
+		return counter;
+	}
+
+	/**
+	 * Returns the histogram of durations in nanoseconds with the provided name, creating and registering it if necessary
+	 *
+	 * @param name the name of the timer
+	 * @return the histogram that records the durations
+	 */
+	public static Histogram timer(String name) {
+		return histogram(name, "ns");
+	}
+
+	/**
+	 * Returns the histogram with the provided name, creating and registering it if it does not exist yet
+	 *
+	 * @param name the name of the histogram
+	 * @param unit the unit of the recorded values, only used when the histogram is created
+	 * @return the histogram
+	 */
+	public static Histogram histogram(String name, String unit) {
+		Histogram histogram = histograms.get(name);
+		if (histogram == null) {
+			histogram = histograms.computeIfAbsent(name, key -> register(key, "Histogram", new Histogram(unit)));
+		}
+		return histogram;
+	}
+
+	/**
+	 * Internal helper method that registers a new metric with the platform MBeanServer
+	 *
+	 * @param name the name of the metric
+	 * @param type the type of the metric, used in its JMX ObjectName
+	 * @param metric the metric
+	 * @param <T> the class of the metric
+	 * @return the metric
+	 */
+	private static <T> T register(String name, String type, T metric) {
+		try {
+			ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metric, objectName);
+		} catch (InstanceAlreadyExistsException e) {
+			// Metrics with the same name are registered only once
+		} catch (JMException e) {
+			MainApp.LOGGER.warning("Could not register metric " + name + " with JMX: " + e);
+		}
+		return metric;
+	}
+
+	/**
+	 * Writes all metrics to a file at a fixed rate on a background thread
+	 *
+	 * The file is overwritten with the current values every time. Calling this method again replaces the previous schedule.
+	 *
+	 * @param file the file the metrics are written to
+	 * @param periodSeconds the number of seconds between two dumps
+	 */
+	public static synchronized void startPeriodicDump(Path file, long periodSeconds) {
+		stopPeriodicDump();
+		dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-dump");
+			// Does not keep the application running once the window has been closed
+			thread.setDaemon(true);
+			return thread;
+		});
+		dumpExecutor.scheduleAtFixedRate(() -> {
+			try {
+				dump(file);
+			} catch (IOException e) {
+				MainApp.LOGGER.warning("Could not write metrics to " + file + ": " + e);
+			}
+		}, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops writing the metrics to a file periodically
+	 */
+	public static synchronized void stopPeriodicDump() {
+		if (dumpExecutor != null) {
+			dumpExecutor.shutdownNow();
+			dumpExecutor = null;
+		}
+	}
+
+	/**
+	 * Writes the current values of all metrics to a file, one metric per line in alphabetical order
+	 *
+	 * @param file the file that is created or overwritten
+	 * @throws IOException thrown if the file cannot be written
+	 */
+	public static void dump(Path file) throws IOException {
+		// Sorts the metrics by name so that related metrics are listed together
+		Map<String, Object> metrics = new TreeMap<>();
+		metrics.putAll(counters);
+		metrics.putAll(histograms);
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write("# Metrics at " + LocalDateTime.now() + System.lineSeparator());
+			for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+				writer.write(metric.getKey() + " " + metric.getValue() + System.lineSeparator());
+			}
+		}
+	}
+}
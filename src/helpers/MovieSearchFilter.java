@@ -0,0 +1,62 @@
+package helpers;
+
+import javafx.application.Platform;
+import javafx.collections.transformation.FilteredList;
+import models.MovieSearch;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Filters a list of items that belong to movies, e.g. screenings or bookings, by a search query
+ *
+ * The movies are searched in the MovieSearch index on a background thread once the user has stopped
+ * typing for a moment (see Debouncer). Afterwards the predicate of the FilteredList is replaced on the
+ * JavaFX thread by one that only looks up the movieID of every item in the set of matching movies,
+ * so no titles are put into lower case while the list is filtered.
+ *
+ * @param <T> the type of the items in the list
+ */
+public class MovieSearchFilter<T> {
+
+	// Pause in milliseconds after the last keystroke before the search runs
+	private static final long DELAY_MILLIS = 150;
+
+	private final FilteredList<T> filteredList;
+	private final ToIntFunction<T> movieIDOf;
+	private final Debouncer debouncer = new Debouncer(DELAY_MILLIS);
+
+	/**
+	 * Constructor that sets the list to be filtered
+	 *
+	 * @param filteredList the list whose predicate is replaced by every search
+	 * @param movieIDOf the function that returns the movieID of an item
+	 */
+	public MovieSearchFilter(FilteredList<T> filteredList, ToIntFunction<T> movieIDOf) {
+		this.filteredList = filteredList;
+		this.movieIDOf = movieIDOf;
+	}
+
+	/**
+	 * Filters the list by a query once no further query has been submitted for a moment
+	 *
+	 * @param query the content of the search field, an empty or null query displays all items
+	 */
+	public void search(String query) {
+		debouncer.submit(() -> {
+			if (query == null || query.trim().isEmpty()) {
+				Platform.runLater(() -> filteredList.setPredicate(item -> true));
+				return;
+			}
+			Set<Integer> movieIDs;
+			try {
+				movieIDs = MovieSearch.search(query);
+			} catch (SQLException | ClassNotFoundException e) {
+				e.printStackTrace();
+				return;
+			}
+			Platform.runLater(() -> filteredList.setPredicate(item -> movieIDs.contains(movieIDOf.applyAsInt(item))));
+		});
+	}
+}
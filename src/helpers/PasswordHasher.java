@@ -0,0 +1,141 @@
+package helpers;
+
+import application.MainApp;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * This helper class hashes passwords and checks entered passwords against stored hashes
+ *
+ * Passwords are hashed with PBKDF2 (HMAC-SHA256) and a random salt. The stored value has the form
+ * pbkdf2$iterations$salt$hash, with salt and hash encoded in Base64, so every account keeps the number
+ * of iterations it was hashed with. The number of iterations for new hashes is the work factor: every
+ * doubling doubles both the time a login takes and the cost of guessing passwords from a stolen database.
+ * It is read from the system property cinema.password.iterations, see PasswordHashBenchmark for choosing it.
+ *
+ * Accounts created before passwords were hashed still hold the plain password. They can still log in,
+ * and needsRehash() reports them, so that the login replaces the plain password with a hash.
+ */
+public class PasswordHasher {
+
+	// Declares constant for the prefix of stored hashes
+	private static final String PREFIX = "pbkdf2";
+	// Declares constant for the algorithm used to derive the hash
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	// Declares constants for the length of the salt and the hash in bytes
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BYTES = 32;
+	// Declares constant for the default number of iterations
+	private static final int DEFAULT_ITERATIONS = 210000;
+
+	private static final SecureRandom random = new SecureRandom();
+	private static volatile int iterations = Integer.getInteger("cinema.password.iterations", DEFAULT_ITERATIONS);
+
+	/**
+	 * Sets the number of iterations used for new hashes
+	 *
+	 * @param newIterations the number of PBKDF2 iterations
+	 */
+	public static void setIterations(int newIterations) {
+		iterations = newIterations;
+	}
+
+	/**
+	 * @return the number of iterations used for new hashes
+	 */
+	public static int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Hashes a password with a new random salt and the current number of iterations
+	 *
+	 * @param password the password in plain text
+	 * @return the value to be stored in the database
+	 */
+	public static String hash(String password) {
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		int currentIterations = iterations;
+		byte[] hash = pbkdf2(password, salt, currentIterations);
+		Base64.Encoder encoder = Base64.getEncoder();
+		return PREFIX + "$" + currentIterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+	}
+
+	/**
+	 * Checks whether an entered password matches a stored value
+	 *
+	 * The comparison takes the same time no matter how many characters match, so the stored value
+	 * cannot be guessed by measuring how long failed logins take.
+	 *
+	 * @param password the entered password in plain text
+	 * @param stored the value stored in the database, a hash or a plain password of an old account
+	 * @return true if the password matches, false as well if the stored hash is malformed
+	 */
+	public static boolean verify(String password, String stored) {
+		String[] parts = stored.split("\\$");
+		if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+			// Compares with the plain password of an account created before passwords were hashed
+			return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+		}
+		Base64.Decoder decoder = Base64.getDecoder();
+		try {
+			byte[] salt = decoder.decode(parts[2]);
+			byte[] expectedHash = decoder.decode(parts[3]);
+			byte[] hash = pbkdf2(password, salt, Integer.parseInt(parts[1]));
+			return MessageDigest.isEqual(hash, expectedHash);
+		} catch (IllegalArgumentException e) {
+			// Thrown for an iteration count that is not a positive number or a salt or hash that is not Base64
+			MainApp.LOGGER.warning("A stored password hash is malformed: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether a stored value should be replaced by a new hash of the same password
+	 *
+	 * @param stored the value stored in the database
+	 * @return true if the value is a plain password, is malformed or was hashed with a different number of iterations
+	 */
+	public static boolean needsRehash(String stored) {
+		String[] parts = stored.split("\\$");
+		if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+			return true;
+		}
+		try {
+			return Integer.parseInt(parts[1]) != iterations;
+		} catch (NumberFormatException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Internal helper method that derives the hash of a password
+	 *
+	 * @param password the password in plain text
+	 * @param salt the salt
+	 * @param iterationCount the number of iterations
+	 * @return the hash
+	 */
+	private static byte[] pbkdf2(String password, byte[] salt, int iterationCount) {
+		char[] passwordChars = password.toCharArray();
+		PBEKeySpec spec = new PBEKeySpec(passwordChars, salt, iterationCount, HASH_BYTES * 8);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		} catch (GeneralSecurityException e) {
+			// Every Java 8 runtime provides PBKDF2WithHmacSHA256
+			throw new IllegalStateException("Cannot hash passwords with " + ALGORITHM, e);
+		} finally {
+			// Removes the password from memory
+			spec.clearPassword();
+			Arrays.fill(passwordChars, '\0');
+		}
+	}
+}
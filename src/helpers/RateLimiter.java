@@ -0,0 +1,247 @@
+package helpers;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many attempts each key, e.g. a username, may make within a sliding time window
+ *
+ * Every key has a counter for the current and the previous window. The number of recent attempts is
+ * estimated as the attempts of the current window plus the share of the previous window's attempts
+ * that still lies within the sliding window, which avoids the bursts that fixed windows allow at
+ * their boundaries. Both counters and the window number are packed into a single AtomicLong and
+ * updated with compare-and-set, so attempts are counted without locking.
+ *
+ * To bound the memory, keys that have not been used for two windows are removed regularly, and the
+ * limiter never tracks more than a maximum number of keys. Once that many keys are tracked, the key
+ * that has been used least recently is forgotten to make room for a new one.
+ */
+public class RateLimiter {
+
+	// Number of attempts after which idle keys are removed
+	private static final int SWEEP_INTERVAL = 1024;
+	// Largest count a window can hold in its 16 bits
+	private static final long MAX_COUNT = 0xFFFF;
+
+	private final int maxAttempts;
+	private final long windowMillis;
+	private final int maxKeys;
+	private final Map<String, Window> windows = new ConcurrentHashMap<>();
+	private final AtomicInteger attemptsSinceSweep = new AtomicInteger();
+
+	/**
+	 * The packed counters of a key, together with the time of its last attempt
+	 */
+	private static final class Window {
+		// Both counters and the window number, see pack
+		final AtomicLong state = new AtomicLong();
+		// Time of the last attempt in milliseconds, by which the least recently used key is found
+		volatile long lastUsed;
+	}
+
+	/**
+	 * Constructor that sets the limits
+	 *
+	 * @param maxAttempts the number of attempts allowed per key within one window
+	 * @param windowMillis the length of the sliding window in milliseconds
+	 * @param maxKeys the maximum number of keys that are tracked at the same time
+	 */
+	public RateLimiter(int maxAttempts, long windowMillis, int maxKeys) {
+		this.maxAttempts = maxAttempts;
+		this.windowMillis = windowMillis;
+		this.maxKeys = maxKeys;
+	}
+
+	/**
+	 * Records an attempt for a key if the key has not reached its limit
+	 *
+	 * @param key the key, e.g. a username
+	 * @return true if the attempt is allowed, false if the key has made too many attempts recently
+	 */
+	public boolean tryAcquire(String key) {
+		return acquire(key, true);
+	}
+
+	/**
+	 * Checks whether a key has reached its limit, without recording an attempt
+	 *
+	 * Together with recordAttempt, this allows to count only some attempts, e.g. failed logins.
+	 *
+	 * @param key the key
+	 * @return true if the next attempt would be allowed
+	 */
+	public boolean isAllowed(String key) {
+		Window window = windows.get(key);
+		long now = System.currentTimeMillis();
+		return window == null || recentAttempts(window.state.get(), now) < maxAttempts;
+	}
+
+	/**
+	 * Records an attempt for a key even if the key has reached its limit
+	 *
+	 * @param key the key
+	 */
+	public void recordAttempt(String key) {
+		acquire(key, false);
+	}
+
+	/**
+	 * Forgets the attempts of a key, e.g. after a successful login
+	 *
+	 * @param key the key
+	 */
+	public void reset(String key) {
+		windows.remove(key);
+	}
+
+	/**
+	 * @return the number of keys that are currently tracked
+	 */
+	public int size() {
+		return windows.size();
+	}
+
+	/**
+	 * Internal helper method that records an attempt for a key
+	 *
+	 * @param key the key
+	 * @param checkLimit true if the attempt is refused once the key has reached its limit
+	 * @return true if the attempt has been recorded
+	 */
+	private boolean acquire(String key, boolean checkLimit) {
+		long now = System.currentTimeMillis();
+		if (attemptsSinceSweep.incrementAndGet() >= SWEEP_INTERVAL) {
+			attemptsSinceSweep.set(0);
+			removeIdleKeys(now);
+		}
+		Window window = windows.get(key);
+		if (window == null) {
+			// Only makes room when a new key has to be tracked, so that known keys never pay for a sweep
+			if (windows.size() >= maxKeys) {
+				removeIdleKeys(now);
+				if (windows.size() >= maxKeys) {
+					removeLeastRecentlyUsedKey();
+				}
+			}
+			window = windows.computeIfAbsent(key, newKey -> new Window());
+		}
+		window.lastUsed = now;
+		long windowNumber = windowNumber(now);
+		while (true) {
+			long state = window.state.get();
+			if (checkLimit && recentAttempts(state, now) >= maxAttempts) {
+				return false;
+			}
+			long current = currentCount(state, windowNumber);
+			long newState = pack(windowNumber, Math.min(current + 1, MAX_COUNT), previousCount(state, windowNumber));
+			if (window.state.compareAndSet(state, newState)) {
+				return true;
+			}
+			// Another thread changed the counters in the meantime, so the check is repeated
+		}
+	}
+
+	/**
+	 * Internal helper method that estimates the attempts within the sliding window that ends now
+	 *
+	 * @param state the packed state of a key
+	 * @param now the current time in milliseconds
+	 * @return the attempts of the current window plus the share of the previous window's attempts that is still recent
+	 */
+	private double recentAttempts(long state, long now) {
+		long windowNumber = windowNumber(now);
+		// Share of the current window that has already passed
+		double elapsed = (double) (now % windowMillis) / windowMillis;
+		return currentCount(state, windowNumber) + previousCount(state, windowNumber) * (1 - elapsed);
+	}
+
+	/**
+	 * Internal helper method that removes the key whose last attempt lies furthest back
+	 */
+	private void removeLeastRecentlyUsedKey() {
+		String oldestKey = null;
+		long oldestUse = Long.MAX_VALUE;
+		for (Map.Entry<String, Window> entry : windows.entrySet()) {
+			if (entry.getValue().lastUsed < oldestUse) {
+				oldestKey = entry.getKey();
+				oldestUse = entry.getValue().lastUsed;
+			}
+		}
+		if (oldestKey != null) {
+			windows.remove(oldestKey);
+		}
+	}
+
+	/**
+	 * Internal helper method that removes all keys that have not made an attempt for two windows
+	 *
+	 * @param now the current time in milliseconds
+	 */
+	private void removeIdleKeys(long now) {
+		long windowNumber = windowNumber(now);
+		Iterator<Window> iterator = windows.values().iterator();
+		while (iterator.hasNext()) {
+			if (windowNumber - windowNumberOf(iterator.next().state.get()) >= 2) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Internal helper method that calculates the number of the window a point in time belongs to
+	 *
+	 * @param now the point in time in milliseconds
+	 * @return the number of the window, limited to 32 bits so that it fits into the packed state
+	 */
+	private long windowNumber(long now) {
+		return (now / windowMillis) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Internal helper method that packs the window number and both counts into a single long
+	 *
+	 * @param windowNumber the number of the current window, stored in the upper 32 bits
+	 * @param current the count of the current window, stored in the next 16 bits
+	 * @param previous the count of the previous window, stored in the lowest 16 bits
+	 * @return the packed state
+	 */
+	private static long pack(long windowNumber, long current, long previous) {
+		return (windowNumber << 32) | (current << 16) | previous;
+	}
+
+	/**
+	 * @param state a packed state
+	 * @return the number of the window the state was last updated in
+	 */
+	private static long windowNumberOf(long state) {
+		return state >>> 32;
+	}
+
+	/**
+	 * @param state a packed state
+	 * @param windowNumber the number of the current window
+	 * @return the count of the current window, or 0 if the state was last updated in an earlier window
+	 */
+	private static long currentCount(long state, long windowNumber) {
+		return windowNumberOf(state) == windowNumber ? (state >>> 16) & MAX_COUNT : 0;
+	}
+
+	/**
+	 * @param state a packed state
+	 * @param windowNumber the number of the current window
+	 * @return the count of the window before the current one
+	 */
+	private static long previousCount(long state, long windowNumber) {
+		long stateWindow = windowNumberOf(state);
+		if (stateWindow == windowNumber) {
+			return state & MAX_COUNT;
+		} else if (stateWindow == windowNumber - 1) {
+			// The state's current window has become the previous one
+			return (state >>> 16) & MAX_COUNT;
+		}
+		return 0;
+	}
+}
@@ -0,0 +1,19 @@
+package helpers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads rows of values from an import file, e.g. as CSV or JSON
+ */
+public interface RowReader extends Closeable {
+
+	/**
+	 * Reads the next row
+	 *
+	 * @return the values of the row by the names of their columns in lower case, or null at the end of the file
+	 * @throws IOException thrown if the file cannot be read or is malformed
+	 */
+	Map<String, String> readRow() throws IOException;
+}
@@ -0,0 +1,18 @@
+package helpers;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes rows of values to an export file, e.g. as CSV or JSON
+ */
+public interface RowWriter extends Closeable {
+
+	/**
+	 * Writes a row of values
+	 *
+	 * @param values the values of the row in the order of the file's columns
+	 * @throws IOException thrown if the row cannot be written
+	 */
+	void writeRow(Object... values) throws IOException;
+}
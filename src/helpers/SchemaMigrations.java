@@ -0,0 +1,248 @@
+package helpers;
+
+import application.MainApp;
+import models.Seat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This helper class brings the schema of a database file up to date with the version this application expects
+ *
+ * Every migration is a list of SQL statements that changes the schema, e.g. by adding a table.
+ * The number of migrations a database has received is stored in its user_version, so each migration
+ * is applied exactly once. A migration is applied in a single transaction together with the update of
+ * the user_version, so a failed migration leaves the database unchanged and is attempted again with
+ * the next connection.
+ *
+ * DBHelper runs the migrations the first time it connects to a database file, so the database in
+ * the repository as well as copies made by benchmarks are migrated without further steps.
+ */
+public class SchemaMigrations {
+
+	// Declares constant for the expression that counts the seats of a booking, e.g. 2 for "A1,A2,"
+	private static final String TICKETS = "(length(seats) - length(replace(seats, ',', '')))";
+
+	/**
+	 * Statements that recalculate all rollup tables from the screenings and bookings tables
+	 *
+	 * The rollup tables hold the sums per screening (screening_stats), per film and day (film_day_stats)
+	 * and per time slot and day (slot_day_stats). As the cinema has a single room, the time slot takes the
+	 * place of a hall.
+	 */
+	public static final String[] REBUILD_ROLLUPS = {
+		"DELETE FROM screening_stats",
+		"DELETE FROM film_day_stats",
+		"DELETE FROM slot_day_stats",
+		"INSERT INTO screening_stats (screenID, movieID, date, time, seats, bookings, tickets) "
+			+ "SELECT s.screenID, s.movieID, s.date, s.time, length(s.seats), IFNULL(b.bookings, 0), IFNULL(b.tickets, 0) "
+			+ "FROM screenings s LEFT JOIN (SELECT screenID, COUNT(*) AS bookings, SUM" + TICKETS + " AS tickets "
+			+ "FROM bookings GROUP BY screenID) b ON b.screenID = s.screenID",
+		"INSERT INTO film_day_stats (movieID, date, screenings, seats, bookings, tickets) "
+			+ "SELECT movieID, date, COUNT(*), SUM(seats), SUM(bookings), SUM(tickets) "
+			+ "FROM screening_stats GROUP BY movieID, date",
+		"INSERT INTO slot_day_stats (date, time, screenings, seats, bookings, tickets) "
+			+ "SELECT date, time, COUNT(*), SUM(seats), SUM(bookings), SUM(tickets) "
+			+ "FROM screening_stats GROUP BY date, time"
+	};
+
+	// Declares constant for the number of rows that can be labelled with a single letter, A to Z
+	private static final int MAX_ROWS = 26;
+
+	// Declares constant for the columns of the movies table in the full-text index movies_fts, in this order
+	private static final String MOVIES_FTS_COLUMNS = "name, director, actors, genre, description";
+
+	// Declares the migrations in the order they are applied, the first one leading to user_version 1
+	private static final List<List<String>> MIGRATIONS = new ArrayList<>();
+
+	static {
+		// 1: Rollup tables that are kept up to date by triggers whenever a screening or booking is added or deleted
+		List<String> rollups = new ArrayList<>(Arrays.asList(
+			"CREATE TABLE IF NOT EXISTS screening_stats ("
+				+ "screenID INTEGER PRIMARY KEY, movieID INTEGER NOT NULL, date TEXT NOT NULL, time INTEGER NOT NULL, "
+				+ "seats INTEGER NOT NULL, bookings INTEGER NOT NULL, tickets INTEGER NOT NULL)",
+			"CREATE TABLE IF NOT EXISTS film_day_stats ("
+				+ "movieID INTEGER NOT NULL, date TEXT NOT NULL, screenings INTEGER NOT NULL, seats INTEGER NOT NULL, "
+				+ "bookings INTEGER NOT NULL, tickets INTEGER NOT NULL, PRIMARY KEY (movieID, date))",
+			"CREATE TABLE IF NOT EXISTS slot_day_stats ("
+				+ "date TEXT NOT NULL, time INTEGER NOT NULL, screenings INTEGER NOT NULL, seats INTEGER NOT NULL, "
+				+ "bookings INTEGER NOT NULL, tickets INTEGER NOT NULL, PRIMARY KEY (date, time))",
+			// Serves reports that are limited to a period
+			"CREATE INDEX IF NOT EXISTS film_day_stats_date ON film_day_stats (date)",
+			"CREATE TRIGGER IF NOT EXISTS screenings_rollup_insert AFTER INSERT ON screenings BEGIN "
+				+ "INSERT INTO screening_stats (screenID, movieID, date, time, seats, bookings, tickets) "
+				+ "VALUES (NEW.screenID, NEW.movieID, NEW.date, NEW.time, length(NEW.seats), 0, 0); "
+				+ "INSERT OR IGNORE INTO film_day_stats VALUES (NEW.movieID, NEW.date, 0, 0, 0, 0); "
+				+ "UPDATE film_day_stats SET screenings = screenings + 1, seats = seats + length(NEW.seats) "
+				+ "WHERE movieID = NEW.movieID AND date = NEW.date; "
+				+ "INSERT OR IGNORE INTO slot_day_stats VALUES (NEW.date, NEW.time, 0, 0, 0, 0); "
+				+ "UPDATE slot_day_stats SET screenings = screenings + 1, seats = seats + length(NEW.seats) "
+				+ "WHERE date = NEW.date AND time = NEW.time; "
+				+ "END",
+			"CREATE TRIGGER IF NOT EXISTS screenings_rollup_delete AFTER DELETE ON screenings BEGIN "
+				+ "UPDATE film_day_stats SET screenings = screenings - 1, seats = seats - length(OLD.seats), "
+				+ "bookings = bookings - (SELECT bookings FROM screening_stats WHERE screenID = OLD.screenID), "
+				+ "tickets = tickets - (SELECT tickets FROM screening_stats WHERE screenID = OLD.screenID) "
+				+ "WHERE movieID = OLD.movieID AND date = OLD.date; "
+				+ "UPDATE slot_day_stats SET screenings = screenings - 1, seats = seats - length(OLD.seats), "
+				+ "bookings = bookings - (SELECT bookings FROM screening_stats WHERE screenID = OLD.screenID), "
+				+ "tickets = tickets - (SELECT tickets FROM screening_stats WHERE screenID = OLD.screenID) "
+				+ "WHERE date = OLD.date AND time = OLD.time; "
+				+ "DELETE FROM film_day_stats WHERE movieID = OLD.movieID AND date = OLD.date AND screenings <= 0; "
+				+ "DELETE FROM slot_day_stats WHERE date = OLD.date AND time = OLD.time AND screenings <= 0; "
+				+ "DELETE FROM screening_stats WHERE screenID = OLD.screenID; "
+				+ "END",
+			"CREATE TRIGGER IF NOT EXISTS bookings_rollup_insert AFTER INSERT ON bookings BEGIN "
+				+ bookingRollupUpdates("NEW", "+")
+				+ "END",
+			"CREATE TRIGGER IF NOT EXISTS bookings_rollup_delete AFTER DELETE ON bookings BEGIN "
+				+ bookingRollupUpdates("OLD", "-")
+				+ "END"));
+		// Fills the new tables with the screenings and bookings that already exist
+		rollups.addAll(Arrays.asList(REBUILD_ROLLUPS));
+		MIGRATIONS.add(rollups);
+
+		// 2: One row per booked seat, so the database itself rejects a seat that is booked twice for a screening
+		MIGRATIONS.add(Arrays.asList(
+			"CREATE TABLE IF NOT EXISTS booking_seats ("
+				+ "bookingID INTEGER NOT NULL, screenID INTEGER NOT NULL, seatIndex INTEGER NOT NULL, "
+				+ "PRIMARY KEY (bookingID, seatIndex), UNIQUE (screenID, seatIndex)) WITHOUT ROWID",
+			// Serve the searches for the bookings of a customer and of a screening
+			"CREATE INDEX IF NOT EXISTS bookings_username ON bookings (username)",
+			"CREATE INDEX IF NOT EXISTS bookings_screenID ON bookings (screenID)",
+			"CREATE TRIGGER IF NOT EXISTS bookings_seats_delete AFTER DELETE ON bookings BEGIN "
+				+ "DELETE FROM booking_seats WHERE bookingID = OLD.bookingID; "
+				+ "END",
+			// A new screening may receive the screenID of a deleted one, so its seats must not stay booked
+			"CREATE TRIGGER IF NOT EXISTS screenings_seats_delete AFTER DELETE ON screenings BEGIN "
+				+ "DELETE FROM booking_seats WHERE screenID = OLD.screenID; "
+				+ "END",
+			// Moves the seats of the existing bookings, if a seat was booked twice the earlier booking keeps it
+			// New bookings are given their rows by BookingDAO, this splits the seat Strings saved before, e.g. "A1,B3,"
+			"INSERT OR IGNORE INTO booking_seats (bookingID, screenID, seatIndex) "
+				+ "WITH RECURSIVE seat(bookingID, screenID, label, rest) AS ("
+				+ "SELECT bookingID, screenID, '', seats FROM bookings "
+				+ "UNION ALL SELECT bookingID, screenID, substr(rest, 1, instr(rest, ',') - 1), "
+				+ "substr(rest, instr(rest, ',') + 1) FROM seat WHERE instr(rest, ',') > 0) "
+				// Calculates the position of the seat like Seat.index
+				+ "SELECT bookingID, screenID, (unicode(label) - 65) * " + Seat.SEATS_PER_ROW
+				+ " + CAST(substr(label, 2) AS INTEGER) - 1 FROM seat WHERE label <> '' ORDER BY bookingID"));
+
+		// 3: The start of every screening in seconds since 1970-01-01, so time ranges can be served from an index
+		MIGRATIONS.add(Arrays.asList(
+			"ALTER TABLE screenings ADD COLUMN starts_at INTEGER",
+			// Counts the local start time as if it were UTC, like Screening.toEpochSeconds
+			"UPDATE screenings SET starts_at = CAST(strftime('%s', date) AS INTEGER) + time * 3600",
+			"CREATE INDEX IF NOT EXISTS screenings_starts_at ON screenings (starts_at)"));
+
+		// 4: A full-text index of the movies, which stores no copy of the texts and reads them from the movies table
+		MIGRATIONS.add(Arrays.asList(
+			"CREATE VIRTUAL TABLE IF NOT EXISTS movies_fts USING fts5(" + MOVIES_FTS_COLUMNS + ", "
+				+ "content='movies', content_rowid='movieID', tokenize='unicode61 remove_diacritics 1', prefix='2 3')",
+			"CREATE TRIGGER IF NOT EXISTS movies_fts_insert AFTER INSERT ON movies BEGIN "
+				+ "INSERT INTO movies_fts (rowid, " + MOVIES_FTS_COLUMNS + ") "
+				+ "VALUES (NEW.movieID, " + ftsValues("NEW") + "); "
+				+ "END",
+			// An external content index has to be given the old texts to remove a row
+			"CREATE TRIGGER IF NOT EXISTS movies_fts_delete AFTER DELETE ON movies BEGIN "
+				+ "INSERT INTO movies_fts (movies_fts, rowid, " + MOVIES_FTS_COLUMNS + ") "
+				+ "VALUES ('delete', OLD.movieID, " + ftsValues("OLD") + "); "
+				+ "END",
+			"CREATE TRIGGER IF NOT EXISTS movies_fts_update AFTER UPDATE ON movies BEGIN "
+				+ "INSERT INTO movies_fts (movies_fts, rowid, " + MOVIES_FTS_COLUMNS + ") "
+				+ "VALUES ('delete', OLD.movieID, " + ftsValues("OLD") + "); "
+				+ "INSERT INTO movies_fts (rowid, " + MOVIES_FTS_COLUMNS + ") "
+				+ "VALUES (NEW.movieID, " + ftsValues("NEW") + "); "
+				+ "END",
+			// Ranks matches in the title highest and matches in the description lowest
+			"INSERT INTO movies_fts (movies_fts, rank) VALUES ('rank', 'bm25(10.0, 5.0, 5.0, 2.0, 1.0)')",
+			// Indexes the movies that already exist
+			"INSERT INTO movies_fts (movies_fts) VALUES ('rebuild')"));
+
+		// 5: Labelled the seats in earlier builds, the labels are removed again by migration 6
+		MIGRATIONS.add(Collections.emptyList());
+
+		// 6: No seat labels or triggers that split seat Strings, BookingDAO saves the rows of booking_seats itself
+		List<String> bookingSeats = new ArrayList<>(Arrays.asList(
+			"DROP TRIGGER IF EXISTS bookings_seats_check",
+			"DROP TRIGGER IF EXISTS bookings_seats_insert",
+			"DROP TABLE IF EXISTS seat_labels"));
+		// Marks every seat of a booking as booked in the seat String of its screening, which seat updates of
+		// earlier builds could overwrite with an older copy of the String
+		for (int seatIndex = 0; seatIndex < MAX_ROWS * Seat.SEATS_PER_ROW; seatIndex++) {
+			bookingSeats.add("UPDATE screenings SET seats = substr(seats, 1, " + seatIndex + ") || '1' || "
+				+ "substr(seats, " + (seatIndex + 2) + ") "
+				+ "WHERE length(seats) > " + seatIndex + " AND substr(seats, " + (seatIndex + 1) + ", 1) <> '1' "
+				+ "AND EXISTS (SELECT 1 FROM booking_seats b "
+				+ "WHERE b.screenID = screenings.screenID AND b.seatIndex = " + seatIndex + ")");
+		}
+		MIGRATIONS.add(bookingSeats);
+	}
+
+	/**
+	 * Internal helper method that lists the columns of a movie row that are copied into the full-text index
+	 *
+	 * @param row the row the values are taken from in a trigger, either NEW or OLD
+	 * @return the columns, separated by commas
+	 */
+	private static String ftsValues(String row) {
+		return row + "." + MOVIES_FTS_COLUMNS.replace(", ", ", " + row + ".");
+	}
+
+	/**
+	 * Brings the schema of the database up to date
+	 *
+	 * @param conn a connection to the database
+	 * @throws SQLException thrown if a migration fails, in which case its changes are rolled back
+	 */
+	static void migrate(Connection conn) throws SQLException {
+		try (Statement statement = conn.createStatement()) {
+			int version;
+			try (ResultSet rs = statement.executeQuery("PRAGMA user_version")) {
+				version = rs.next() ? rs.getInt(1) : 0;
+			}
+			for (int i = version; i < MIGRATIONS.size(); i++) {
+				long startTime = System.nanoTime();
+				conn.setAutoCommit(false);
+				try {
+					for (String sqlStatement : MIGRATIONS.get(i)) {
+						statement.executeUpdate(sqlStatement);
+					}
+					statement.executeUpdate("PRAGMA user_version = " + (i + 1));
+					conn.commit();
+				} catch (SQLException e) {
+					conn.rollback();
+					throw e;
+				} finally {
+					conn.setAutoCommit(true);
+				}
+				int newVersion = i + 1;
+				MainApp.LOGGER.info(() -> "Migrated the database to version " + newVersion + " in "
+					+ (System.nanoTime() - startTime) / 1000000 + " ms");
+			}
+		}
+	}
+
+	/**
+	 * Internal helper method that creates the statements of a trigger which adds or subtracts a booking from the rollups
+	 *
+	 * @param row the row of the trigger, "NEW" for inserted and "OLD" for deleted bookings
+	 * @param sign "+" to add the booking, "-" to subtract it
+	 * @return the statements of the trigger
+	 */
+	private static String bookingRollupUpdates(String row, String sign) {
+		String tickets = TICKETS.replace("seats", row + ".seats");
+		String set = "SET bookings = bookings " + sign + " 1, tickets = tickets " + sign + " " + tickets + " ";
+		return "UPDATE screening_stats " + set + "WHERE screenID = " + row + ".screenID; "
+			+ "UPDATE film_day_stats " + set + "WHERE (movieID, date) = "
+			+ "(SELECT movieID, date FROM screening_stats WHERE screenID = " + row + ".screenID); "
+			+ "UPDATE slot_day_stats " + set + "WHERE (date, time) = "
+			+ "(SELECT date, time FROM screening_stats WHERE screenID = " + row + ".screenID); ";
+	}
+}
@@ -2,13 +2,14 @@ package helpers;
 
 import models.Screening;
 
-import java.time.LocalDate;
 import java.util.Comparator;
 
 /**
  * This class compares two Screening objects based on their date and time
  *
  * Earlier dates and times precede later ones.
+ * The comparison uses the precomputed start of each screening in seconds,
+ * so no dates have to be parsed while a list is being sorted.
  *
  */
 public class ScreeningDateComparator implements Comparator<Screening> {
@@ -18,26 +19,12 @@ public class ScreeningDateComparator implements Comparator<Screening> {
 	 *
 	 * @param screening1 The first screening to be compared
 	 * @param screening2 The second screening to be compared
-	 * @return an integer indicating which screening comes temporally first. 1 if screening1 comes first, -1 if screening2 comes last and 0 if both are at the same time.
+	 * @return an integer indicating which screening comes temporally first. A negative number if screening1 comes first, a positive number if screening2 comes first and 0 if both are at the same time.
 	 */
 	@Override
 	public int compare(Screening screening1, Screening screening2) {
-		// Parses the date from the String fields of the screening objects
-		LocalDate date1 = LocalDate.parse(screening1.getDate());
-		LocalDate date2 = LocalDate.parse(screening2.getDate());
-		// Retrieves the time values from the screening objects
-		int time1 = screening1.getTime();
-		int time2 = screening2.getTime();
-		// If the date of screening1 is before screening2, return -1
-		if (date1.isBefore(date2)) {
-			return -1;
-		// If the date of screening1 is after screening2, return 1
-		} else if (date1.isAfter(date2)) {
-			return 1;
-		// If both are on the same day, compare them by time
-		} else {
-			return time1 - time2;
-		}
+		// Compares the starts that were computed when the screenings were loaded
+		return Long.compare(screening1.getStartsAt(), screening2.getStartsAt());
 	}
 
 	/**
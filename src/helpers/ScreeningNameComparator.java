@@ -5,9 +5,9 @@ import models.Screening;
 import java.util.Comparator;
 
 /**
- * This class compares two Screening objects based on their date and time
+ * This class compares two Screening objects based on their movie title
  *
- * Earlier dates and times precede later ones.
+ * Screenings of the same movie are ordered by their date and time.
  *
  */
 public class ScreeningNameComparator implements Comparator<Screening> {
@@ -18,16 +18,16 @@ public class ScreeningNameComparator implements Comparator<Screening> {
 	 *
 	 * @param screening1 The first screening to be compared
 	 * @param screening2 The second screening to be compared
-	 * @return an integer indicating which screening comes alphabetically first. If both screenings have the same name, they are compared temporally. 1 if screening1 comes first, -1 if screening2 comes last and 0 if both.
+	 * @return an integer indicating which screening comes alphabetically first. If both screenings have the same name, they are compared temporally. A negative number if screening1 comes first, a positive number if screening2 comes first and 0 if both are equal.
 	 */
 	@Override
 	public int compare(Screening screening1, Screening screening2) {
-		String name1 = screening1.getMovie().getName();
-		String name2 = screening2.getMovie().getName();
-		if (name1.compareTo(name2) == 0) {
-			return new ScreeningDateComparator().compare(screening1, screening2);
+		int nameComparison = screening1.getMovie().getName().compareTo(screening2.getMovie().getName());
+		if (nameComparison == 0) {
+			// If both have the same name, compares the precomputed starts
+			return Long.compare(screening1.getStartsAt(), screening2.getStartsAt());
 		} else {
-			return name1.compareTo(name2);
+			return nameComparison;
 		}
 	}
 
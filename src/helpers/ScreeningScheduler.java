@@ -0,0 +1,124 @@
+package helpers;
+
+import models.Movie;
+import models.Screening;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * This class creates a whole schedule of screenings from a simple pattern
+ *
+ * The pattern consists of a list of movies, a date range, the days of the week on which
+ * screenings take place and the time slots on each of these days. The cinema has a single room,
+ * so every time slot can only hold one screening. The movies are therefore assigned to the
+ * time slots in turn, one after the other.
+ *
+ * Time slots that are in the past or already taken by an existing screening are skipped.
+ * All conflict checks happen in memory against a set of taken time slots, so the existing
+ * screenings only have to be read from the database once for the whole schedule.
+ */
+public class ScreeningScheduler {
+
+	// Number of seats in the cinema room
+	private static final int NUMBER_OF_SEATS = 50;
+
+	private List<Movie> movies;
+	private LocalDate startDate, endDate;
+	private Set<DayOfWeek> days;
+	private List<Integer> times;
+	private int conflicts;
+
+	/**
+	 * Constructor that sets the pattern of the schedule
+	 *
+	 * @param movies the movies that are shown, in the order in which they are assigned to time slots
+	 * @param startDate the first day of the schedule
+	 * @param endDate the last day of the schedule
+	 * @param days the days of the week on which screenings take place
+	 * @param times the full hours at which screenings start on each of these days
+	 */
+	public ScreeningScheduler(List<Movie> movies, LocalDate startDate, LocalDate endDate,
+	                          Set<DayOfWeek> days, List<Integer> times) {
+		this.movies = movies;
+		this.startDate = startDate;
+		this.endDate = endDate;
+		this.days = days;
+		this.times = times;
+	}
+
+	/**
+	 * Creates a Screening object for every free time slot of the pattern
+	 *
+	 * @param existingScreenings the screenings that are already scheduled in the database
+	 * @return a list of new Screening objects, ordered by date and time
+	 */
+	public List<Screening> createScreenings(Collection<Screening> existingScreenings) {
+		conflicts = 0;
+		// Collects all time slots that are already taken by existing screenings
+		Set<String> takenSlots = new HashSet<>(existingScreenings.size() * 2);
+		for (Screening screening : existingScreenings) {
+			takenSlots.add(slotKey(screening.getDate(), screening.getTime()));
+		}
+		// Sorts the time slots so that the movies are assigned to them in chronological order
+		List<Integer> sortedTimes = new ArrayList<>(times);
+		Collections.sort(sortedTimes);
+		// Creates the String of available seats that is shared by all new screenings
+		StringBuilder seatString = new StringBuilder(NUMBER_OF_SEATS);
+		for (int i = 0; i < NUMBER_OF_SEATS; i++) {
+			seatString.append('0');
+		}
+		String seats = seatString.toString();
+
+		List<Screening> newScreenings = new ArrayList<>();
+		LocalDate today = LocalDate.now();
+		int currentHour = LocalTime.now().getHour();
+		int movieIndex = 0;
+		for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+			// Skips days of the week that are not part of the pattern
+			if (!days.contains(date.getDayOfWeek())) {
+				continue;
+			}
+			String dateString = date.toString();
+			for (int time : sortedTimes) {
+				// Skips time slots that are in the past or already taken
+				if (date.isBefore(today) || (date.isEqual(today) && currentHour >= time)
+					|| !takenSlots.add(slotKey(dateString, time))) {
+					conflicts++;
+					continue;
+				}
+				Movie movie = movies.get(movieIndex % movies.size());
+				movieIndex++;
+				// Creates the new screening without looking up its movie in the database again
+				Screening screening = new Screening();
+				screening.movieIDProperty().set(movie.getMovieID());
+				screening.setMovie(movie);
+				screening.setSeats(seats);
+				screening.setDate(dateString);
+				screening.setTime(time);
+				newScreenings.add(screening);
+			}
+		}
+		return newScreenings;
+	}
+
+	/**
+	 * @return the number of time slots that were skipped by the last call of createScreenings
+	 */
+	public int getConflicts() {
+		return conflicts;
+	}
+
+	/**
+	 * Internal helper method that creates a unique key for a time slot
+	 *
+	 * @param date the date of the time slot as YYYY-MM-DD
+	 * @param time the starting hour of the time slot
+	 * @return a String identifying the time slot
+	 */
+	private static String slotKey(String date, int time) {
+		return date + " " + time;
+	}
+}
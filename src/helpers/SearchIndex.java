@@ -0,0 +1,252 @@
+package helpers;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory full text index that finds items by words and parts of words in their texts
+ *
+ * Every item is identified by a key and added with one or more texts, e.g. the title, director, actors
+ * and genre of a movie. The texts are normalised once when the item is added: they are put into lower
+ * case, accents are removed and they are split into tokens at every character that is neither a letter
+ * nor a digit. The tokens are indexed by their trigrams (every sequence of three characters) and in a
+ * sorted map, so a search does not have to look at every item.
+ *
+ * A query is normalised the same way. An item matches if every token of the query is contained in one of
+ * its tokens, e.g. "wic" matches "John Wick". Query tokens shorter than three characters have to be the
+ * beginning of a token instead, so that e.g. "jo" does not match every item containing the letter pair.
+ *
+ * Items can be added, replaced and removed at any time. All methods are synchronized, so the index can
+ * be searched from a background thread while it is being updated.
+ *
+ * @param <K> the type of the keys identifying the items, e.g. movieIDs
+ */
+public class SearchIndex<K> {
+
+	// Length of the character sequences the tokens are indexed by
+	private static final int GRAM_LENGTH = 3;
+	// Matches the marks that remain when accented characters are decomposed, e.g. the accent of é
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	// Matches the characters that separate tokens
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	// The normalised tokens of every item, separated by spaces
+	private final Map<K, String> texts = new HashMap<>();
+	// The items containing each trigram
+	private final Map<String, Set<K>> grams = new HashMap<>();
+	// The items containing each token, sorted so that all tokens starting with a prefix are found at once
+	private final NavigableMap<String, Set<K>> tokens = new TreeMap<>();
+
+	/**
+	 * Adds an item to the index, replacing the texts it was added with before
+	 *
+	 * @param key the key identifying the item
+	 * @param itemTexts the texts the item can be found by, null texts are ignored
+	 */
+	public synchronized void put(K key, String... itemTexts) {
+		remove(key);
+		Set<String> itemTokens = new HashSet<>();
+		for (String text : itemTexts) {
+			if (text != null) {
+				itemTokens.addAll(tokenize(text));
+			}
+		}
+		texts.put(key, String.join(" ", itemTokens));
+		for (String token : itemTokens) {
+			tokens.computeIfAbsent(token, t -> new HashSet<>()).add(key);
+			for (String gram : grams(token)) {
+				grams.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+			}
+		}
+	}
+
+	/**
+	 * Removes an item from the index
+	 *
+	 * @param key the key identifying the item
+	 */
+	public synchronized void remove(K key) {
+		String text = texts.remove(key);
+		if (text == null || text.isEmpty()) {
+			return;
+		}
+		for (String token : text.split(" ")) {
+			removeKey(tokens, token, key);
+			for (String gram : grams(token)) {
+				removeKey(grams, gram, key);
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys of all items that match every token of the query
+	 *
+	 * @param query the words or parts of words the items are searched by
+	 * @return a new set with the keys of the matching items, or of all items if the query has no tokens
+	 */
+	public synchronized Set<K> search(String query) {
+		List<String> queryTokens = query == null ? Collections.emptyList() : tokenize(query);
+		if (queryTokens.isEmpty()) {
+			return new HashSet<>(texts.keySet());
+		}
+		// Looks up the token whose rarest trigram belongs to the fewest items and checks the others in their texts
+		String first = queryTokens.get(0);
+		for (String queryToken : queryTokens) {
+			if (rank(queryToken) < rank(first)) {
+				first = queryToken;
+			}
+		}
+		Set<K> matches = first.length() < GRAM_LENGTH ? prefixMatches(first) : partMatches(first);
+		queryTokens.remove(first);
+		for (String queryToken : queryTokens) {
+			matches.removeIf(key -> !contains(texts.get(key), queryToken));
+		}
+		return matches;
+	}
+
+	/**
+	 * @return the number of items in the index
+	 */
+	public synchronized int size() {
+		return texts.size();
+	}
+
+	/**
+	 * Puts a text into lower case and removes its accents, e.g. "Amélie" becomes "amelie"
+	 *
+	 * @param text the text
+	 * @return the normalised text
+	 */
+	public static String normalize(String text) {
+		String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Internal helper method that normalises a text and splits it into tokens
+	 *
+	 * @param text the text
+	 * @return the tokens of the text, in order and without empty tokens
+	 */
+	private static List<String> tokenize(String text) {
+		List<String> textTokens = new ArrayList<>(Arrays.asList(SEPARATORS.split(normalize(text))));
+		textTokens.removeIf(String::isEmpty);
+		return textTokens;
+	}
+
+	/**
+	 * Internal helper method that lists the trigrams of a token
+	 *
+	 * @param token the token
+	 * @return the trigrams, or an empty list if the token is shorter than three characters
+	 */
+	private static List<String> grams(String token) {
+		List<String> tokenGrams = new ArrayList<>(Math.max(token.length() - GRAM_LENGTH + 1, 0));
+		for (int i = 0; i + GRAM_LENGTH <= token.length(); i++) {
+			tokenGrams.add(token.substring(i, i + GRAM_LENGTH));
+		}
+		return tokenGrams;
+	}
+
+	/**
+	 * Internal helper method that finds the items with a token that starts with the provided prefix
+	 *
+	 * @param prefix the normalised prefix
+	 * @return a new set with the keys of the matching items
+	 */
+	private Set<K> prefixMatches(String prefix) {
+		Set<K> matches = new HashSet<>();
+		for (Set<K> keys : tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+			matches.addAll(keys);
+		}
+		return matches;
+	}
+
+	/**
+	 * Internal helper method that finds the items with a token that contains the provided part of a word
+	 *
+	 * The items containing the rarest trigram of the part are checked for the whole part.
+	 *
+	 * @param part the normalised part of a word, at least three characters long
+	 * @return a new set with the keys of the matching items
+	 */
+	private Set<K> partMatches(String part) {
+		Set<K> matches = new HashSet<>();
+		for (K key : rarestGram(part)) {
+			// Tokens are separated by spaces and the part contains none, so it cannot match across two tokens
+			if (contains(texts.get(key), part)) {
+				matches.add(key);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Internal helper method that finds the trigram of a part of a word that belongs to the fewest items
+	 *
+	 * @param part the normalised part of a word, at least three characters long
+	 * @return the keys of the items containing the rarest trigram, empty if an item contains none
+	 */
+	private Set<K> rarestGram(String part) {
+		Set<K> rarest = null;
+		for (String gram : grams(part)) {
+			Set<K> keys = grams.getOrDefault(gram, Collections.emptySet());
+			if (rarest == null || keys.size() < rarest.size()) {
+				rarest = keys;
+			}
+		}
+		return rarest;
+	}
+
+	/**
+	 * Internal helper method that estimates how many items a query token is looked up in
+	 *
+	 * @param queryToken the normalised query token
+	 * @return the number of items with the rarest trigram, or the number of all items for tokens shorter than three characters
+	 */
+	private int rank(String queryToken) {
+		return queryToken.length() < GRAM_LENGTH ? texts.size() : rarestGram(queryToken).size();
+	}
+
+	/**
+	 * Internal helper method that checks whether the text of an item matches a query token
+	 *
+	 * @param text the normalised tokens of the item, separated by spaces
+	 * @param queryToken the normalised query token
+	 * @return true if a token of the text contains the query token, or starts with it if it is shorter than three characters
+	 */
+	private static boolean contains(String text, String queryToken) {
+		if (queryToken.length() >= GRAM_LENGTH) {
+			return text.contains(queryToken);
+		}
+		return text.startsWith(queryToken) || text.contains(" " + queryToken);
+	}
+
+	/**
+	 * Internal helper method that removes a key from the set of items stored for an index entry
+	 *
+	 * @param index the map of index entries
+	 * @param entry the index entry, a token or trigram
+	 * @param key the key of the item
+	 */
+	private void removeKey(Map<String, Set<K>> index, String entry, K key) {
+		Set<K> keys = index.get(entry);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				index.remove(entry);
+			}
+		}
+	}
+}
@@ -0,0 +1,336 @@
+package helpers;
+
+import java.util.BitSet;
+
+/**
+ * Finds the best block of adjacent available seats for a party in a cinema room
+ *
+ * The room has a number of rows with the same number of seats each, and the seats are numbered row by row
+ * like in a screening's list of seats, see Seat.getIndex(). Row 0 (A) is the back row and the screen is in
+ * front of the last row, like in the CinemaRoom view. A block has to lie within one row, as the seats of
+ * different rows are not next to each other, and there is an aisle at both ends of every row.
+ *
+ * The seats are not looked at one by one. The available seats of a row are held as a bit mask in words of
+ * 64 seats, and a block of n seats can start at every seat whose bit survives ANDing the mask with itself
+ * shifted by 1, 2, 4... seats until n seats are covered, which takes log2(n) word operations per 64 seats.
+ * The best start within a row is then found with Long.numberOfTrailingZeros instead of trying every start.
+ *
+ * A block is scored by how far its centre is from the centre of its row, in seats, plus ROW_WEIGHT times how
+ * far its row is from the ideal row, two thirds of the way back from the screen. A lower score is better.
+ * With the AISLE preference, blocks that reach an aisle are scored by their row alone, and other blocks are
+ * only chosen if no block in the requested rows reaches an aisle. The rows are tried from the ideal row
+ * outwards, and the search stops once a row is too far away to beat the best block found so far.
+ *
+ * A SeatFinder holds no state besides the size of the room, so it can be used from several threads at once.
+ */
+public class SeatFinder {
+
+	// Score of a block per row between its row and the ideal row, so a better row outweighs a seat or two
+	private static final double ROW_WEIGHT = 1.5;
+	// Share of the rows between the ideal row and the back row, the ideal row being two thirds back from the screen
+	private static final double IDEAL_ROW_FROM_BACK = 1.0 / 3;
+
+	/**
+	 * Where in a row the party would like to sit
+	 */
+	public enum Preference {
+		// As close to the middle of the room as possible
+		CENTRE,
+		// At the end of a row, next to an aisle
+		AISLE
+	}
+
+	/**
+	 * A block of adjacent seats within a row
+	 */
+	public static class Block {
+		private final int row, first, firstIndex, size;
+		private final double score;
+
+		/**
+		 * Constructor that sets all properties of the block
+		 *
+		 * @param row the row, counting from 0 for row A
+		 * @param first the position of the first seat in the row, counting from 0
+		 * @param firstIndex the position of the first seat in the list of seats
+		 * @param size the number of seats
+		 * @param score the score of the block, lower is better
+		 */
+		private Block(int row, int first, int firstIndex, int size, double score) {
+			this.row = row;
+			this.first = first;
+			this.firstIndex = firstIndex;
+			this.size = size;
+			this.score = score;
+		}
+
+		/**
+		 * @return the row of the block, e.g. 'B'
+		 */
+		public char getRow() {
+			return (char) ('A' + row);
+		}
+
+		/**
+		 * @return the number of the first seat of the block within its row, counting from 1
+		 */
+		public int getFirstNumber() {
+			return first + 1;
+		}
+
+		/**
+		 * @return the position of the first seat of the block in the list of seats, see Seat.getIndex()
+		 */
+		public int getFirstIndex() {
+			return firstIndex;
+		}
+
+		/**
+		 * @return the number of seats in the block
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * @return the score of the block, lower is better
+		 */
+		public double getScore() {
+			return score;
+		}
+
+		/**
+		 * @return the first and last seat of the block, e.g. "B3-B8"
+		 */
+		@Override
+		public String toString() {
+			return size == 1 ? "" + getRow() + getFirstNumber()
+				: "" + getRow() + getFirstNumber() + "-" + getRow() + (getFirstNumber() + size - 1);
+		}
+	}
+
+	private final int rows, seatsPerRow;
+	// Number of 64 bit words holding the seats of one row
+	private final int rowWords;
+	private final double idealRow;
+
+	/**
+	 * Constructor that sets the size of the cinema room
+	 *
+	 * @param rows the number of rows
+	 * @param seatsPerRow the number of seats in every row
+	 */
+	public SeatFinder(int rows, int seatsPerRow) {
+		this.rows = rows;
+		this.seatsPerRow = seatsPerRow;
+		this.rowWords = (seatsPerRow + Long.SIZE - 1) / Long.SIZE;
+		this.idealRow = (rows - 1) * IDEAL_ROW_FROM_BACK;
+	}
+
+	/**
+	 * Finds the best block of adjacent available seats
+	 *
+	 * @param bookedSeats the positions of the booked seats in the list of seats, e.g. from BookingDAO.searchBookedSeats
+	 * @param partySize the number of seats
+	 * @param preference where in a row the party would like to sit
+	 * @param firstRow the first row the block may be in, e.g. 'A'
+	 * @param lastRow the last row the block may be in
+	 * @return the best block, or null if no row in the range has enough adjacent available seats
+	 */
+	public Block findBest(BitSet bookedSeats, int partySize, Preference preference, char firstRow, char lastRow) {
+		return findBest(bookedSeats.toLongArray(), partySize, preference, firstRow, lastRow);
+	}
+
+	/**
+	 * Finds the best block of adjacent available seats in a screening's stored list of seats
+	 *
+	 * @param seats the list of seats made up of 0's and 1's - 0 for an empty seat, 1 for a booked one
+	 * @param partySize the number of seats
+	 * @param preference where in a row the party would like to sit
+	 * @param firstRow the first row the block may be in, e.g. 'A'
+	 * @param lastRow the last row the block may be in
+	 * @return the best block, or null if no row in the range has enough adjacent available seats
+	 */
+	public Block findBest(CharSequence seats, int partySize, Preference preference, char firstRow, char lastRow) {
+		long[] bookedSeats = new long[(seats.length() + Long.SIZE - 1) / Long.SIZE];
+		for (int i = 0; i < seats.length(); i++) {
+			if (seats.charAt(i) == '1') {
+				bookedSeats[i >>> 6] |= 1L << i;
+			}
+		}
+		return findBest(bookedSeats, partySize, preference, firstRow, lastRow);
+	}
+
+	/**
+	 * Internal helper method that finds the best block in the bit mask of the booked seats
+	 *
+	 * @param bookedSeats the booked seats, bit i of word i / 64 standing for the seat at position i
+	 * @param partySize the number of seats
+	 * @param preference where in a row the party would like to sit
+	 * @param firstRow the first row the block may be in
+	 * @param lastRow the last row the block may be in
+	 * @return the best block, or null if there is none
+	 */
+	private Block findBest(long[] bookedSeats, int partySize, Preference preference, char firstRow, char lastRow) {
+		int from = Math.max(firstRow - 'A', 0), to = Math.min(lastRow - 'A', rows - 1);
+		if (partySize < 1 || partySize > seatsPerRow || from > to) {
+			return null;
+		}
+		// The start of the block that would be right in the middle of a row, between two seats if it cannot be
+		double centreStart = (seatsPerRow - partySize) / 2.0;
+		long[] starts = new long[rowWords];
+		Block best = null;
+		// Tries the rows from the ideal row outwards, alternating between the rows behind and in front of it
+		int behind = (int) Math.floor(idealRow), inFront = behind + 1;
+		while (behind >= from || inFront <= to) {
+			int row;
+			if (inFront > to || (behind >= from && idealRow - behind <= inFront - idealRow)) {
+				row = behind--;
+			} else {
+				row = inFront++;
+			}
+			if (row > to || row < from) {
+				continue;
+			}
+			double rowScore = ROW_WEIGHT * Math.abs(row - idealRow);
+			// Every further row is at least as far from the ideal row, so none of them can be better
+			if (best != null && rowScore >= best.score) {
+				break;
+			}
+			if (!findStarts(bookedSeats, row, partySize, starts)) {
+				continue;
+			}
+			if (preference == Preference.AISLE) {
+				// Only the first and last possible start reach an aisle
+				int aisleStart = isSet(starts, 0) ? 0 : isSet(starts, seatsPerRow - partySize) ? seatsPerRow - partySize : -1;
+				if (aisleStart >= 0) {
+					best = better(best, row, aisleStart, partySize, rowScore);
+					continue;
+				}
+			}
+			// The start closest to the middle of the row, looking both ways from the centre
+			int after = nextSetBit(starts, (int) Math.ceil(centreStart));
+			int before = previousSetBit(starts, (int) centreStart);
+			int start = after < 0 || (before >= 0 && centreStart - before <= after - centreStart) ? before : after;
+			double score = rowScore + Math.abs(start - centreStart);
+			if (preference == Preference.AISLE) {
+				// Only beats blocks at an aisle if there is none
+				score += seatsPerRow + ROW_WEIGHT * rows;
+			}
+			best = better(best, row, start, partySize, score);
+		}
+		return best;
+	}
+
+	/**
+	 * Internal helper method that calculates the seats of a row at which a block of adjacent available seats starts
+	 *
+	 * @param bookedSeats the booked seats
+	 * @param row the row
+	 * @param partySize the number of seats in the block
+	 * @param starts the words the starts are written to, bit i standing for the seat at position i of the row
+	 * @return true if the row has at least one start
+	 */
+	private boolean findStarts(long[] bookedSeats, int row, int partySize, long[] starts) {
+		long any = 0;
+		for (int word = 0; word < rowWords; word++) {
+			int seats = Math.min(Long.SIZE, seatsPerRow - word * Long.SIZE);
+			long mask = seats == Long.SIZE ? -1L : (1L << seats) - 1;
+			starts[word] = ~bits(bookedSeats, row * seatsPerRow + word * Long.SIZE) & mask;
+			any |= starts[word];
+		}
+		// Bit i stays set while seats i to i + covered - 1 are all available, doubling covered with every step
+		for (int covered = 1; covered < partySize && any != 0; ) {
+			int step = Math.min(covered, partySize - covered);
+			any = 0;
+			int wordShift = step >>> 6, bitShift = step & 63;
+			for (int word = 0; word < rowWords; word++) {
+				// Reads the words before they are overwritten, as only words at or after this one are needed
+				long low = word + wordShift < rowWords ? starts[word + wordShift] : 0;
+				long high = word + wordShift + 1 < rowWords ? starts[word + wordShift + 1] : 0;
+				starts[word] &= bitShift == 0 ? low : low >>> bitShift | high << (Long.SIZE - bitShift);
+				any |= starts[word];
+			}
+			covered += step;
+		}
+		return any != 0;
+	}
+
+	/**
+	 * Internal helper method that returns the block with the lower score
+	 *
+	 * @param best the best block so far, or null
+	 * @param row the row of the new block
+	 * @param first the position of the first seat of the new block in its row
+	 * @param size the number of seats
+	 * @param score the score of the new block
+	 * @return the new block if it is better than the best block so far, otherwise the best block
+	 */
+	private Block better(Block best, int row, int first, int size, double score) {
+		return best != null && best.score <= score ? best : new Block(row, first, row * seatsPerRow + first, size, score);
+	}
+
+	/**
+	 * Internal helper method that reads 64 bits starting at any position of a bit mask
+	 *
+	 * @param words the bit mask
+	 * @param position the position of the first bit
+	 * @return the bits, positions beyond the end of the mask being 0
+	 */
+	private static long bits(long[] words, int position) {
+		int word = position >>> 6, shift = position & 63;
+		long low = word < words.length ? words[word] : 0;
+		if (shift == 0) {
+			return low;
+		}
+		long high = word + 1 < words.length ? words[word + 1] : 0;
+		return low >>> shift | high << (Long.SIZE - shift);
+	}
+
+	/**
+	 * @param words a bit mask
+	 * @param position a position
+	 * @return true if the bit at the position is set
+	 */
+	private static boolean isSet(long[] words, int position) {
+		return (words[position >>> 6] & 1L << position) != 0;
+	}
+
+	/**
+	 * Internal helper method that finds the first set bit at or after a position
+	 *
+	 * @param words a bit mask
+	 * @param from the position
+	 * @return the position of the bit, or -1 if there is none
+	 */
+	private static int nextSetBit(long[] words, int from) {
+		int word = from >>> 6;
+		long bits = words[word] & -1L << from;
+		while (bits == 0) {
+			if (++word == words.length) {
+				return -1;
+			}
+			bits = words[word];
+		}
+		return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Internal helper method that finds the last set bit at or before a position
+	 *
+	 * @param words a bit mask
+	 * @param from the position
+	 * @return the position of the bit, or -1 if there is none
+	 */
+	private static int previousSetBit(long[] words, int from) {
+		int word = from >>> 6;
+		long bits = words[word] & -1L >>> (Long.SIZE - 1 - (from & 63));
+		while (bits == 0) {
+			if (--word < 0) {
+				return -1;
+			}
+			bits = words[word];
+		}
+		return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+	}
+}
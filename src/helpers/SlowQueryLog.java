@@ -0,0 +1,137 @@
+package helpers;
+
+import application.MainApp;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This helper class writes database statements that exceed a duration threshold to a JSON lines file
+ *
+ * Every line of the file describes one slow statement: the time it finished, its type, the SQL,
+ * its parameters, its duration, the number of rows it returned or changed and the DAO method that
+ * issued it. If enabled, the query plan SQLite chose for the statement is added, which shows
+ * for example whether a table was scanned completely instead of being searched through an index.
+ *
+ * The settings are read from system properties when the application starts:
+ * cinema.slowQuery.thresholdMs (default 100), cinema.slowQuery.explain (default false) and
+ * cinema.slowQuery.file (default logs/slow-queries.jsonl). The query plan is looked up and the
+ * file is written on a background thread, so slow statements do not become even slower.
+ */
+public class SlowQueryLog {
+
+	private static volatile long thresholdNanos =
+		Long.getLong("cinema.slowQuery.thresholdMs", 100) * 1000000;
+	private static volatile boolean explain = Boolean.getBoolean("cinema.slowQuery.explain");
+	private static volatile Path file = Paths.get(System.getProperty("cinema.slowQuery.file",
+		System.getProperty("user.dir") + "/logs/slow-queries.jsonl"));
+
+	// Single background thread that looks up query plans and writes the file in the order the statements finished
+	private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "slow-query-log");
+		// Does not keep the application running once the window has been closed
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Sets the duration above which statements are logged
+	 *
+	 * @param thresholdMillis the threshold in milliseconds
+	 */
+	public static void setThresholdMillis(long thresholdMillis) {
+		thresholdNanos = thresholdMillis * 1000000;
+	}
+
+	/**
+	 * Sets whether the query plan of slow statements is looked up and logged
+	 *
+	 * @param explainSlowQueries true to run EXPLAIN QUERY PLAN for every slow statement
+	 */
+	public static void setExplain(boolean explainSlowQueries) {
+		explain = explainSlowQueries;
+	}
+
+	/**
+	 * Sets the file the slow statements are appended to
+	 *
+	 * @param logFile the JSON lines file
+	 */
+	public static void setFile(Path logFile) {
+		file = logFile;
+	}
+
+	/**
+	 * Checks whether a statement took long enough to be logged
+	 *
+	 * @param durationNanos the duration of the statement in nanoseconds
+	 * @return true if the duration exceeds the threshold
+	 */
+	static boolean isSlow(long durationNanos) {
+		return durationNanos >= thresholdNanos;
+	}
+
+	/**
+	 * Appends a slow statement to the log file on the background thread
+	 *
+	 * @param type the type of the statement, e.g. "query" or "update"
+	 * @param sqlStatement the SQL statement
+	 * @param params the parameters of the statement, or null if it has none
+	 * @param durationNanos the duration of the statement in nanoseconds
+	 * @param rows the number of rows the statement returned or changed, or -1 if it failed
+	 * @param daoMethod the DAO method that issued the statement, e.g. "MovieDAO.searchMovies", or null
+	 */
+	static void record(String type, String sqlStatement, Object[] params, long durationNanos, int rows,
+	                   String daoMethod) {
+		Metrics.counter("db.slowStatements").increment();
+		Instant finished = Instant.now();
+		boolean explainStatement = explain;
+		Path logFile = file;
+		writer.execute(() -> {
+			StringBuilder line = new StringBuilder(256);
+			line.append("{\"time\":").append(JsonWriter.quote(finished.toString()));
+			line.append(",\"type\":").append(JsonWriter.quote(type));
+			line.append(",\"durationMs\":").append(String.format(Locale.ROOT, "%.3f", durationNanos / 1e6));
+			line.append(",\"rows\":").append(rows);
+			line.append(",\"caller\":").append(daoMethod == null ? "null" : JsonWriter.quote(daoMethod));
+			line.append(",\"sql\":").append(JsonWriter.quote(sqlStatement));
+			line.append(",\"params\":[");
+			if (params != null) {
+				for (int i = 0; i < params.length; i++) {
+					line.append(i > 0 ? "," : "").append(params[i] == null ? "null" : JsonWriter.quote(params[i].toString()));
+				}
+			}
+			line.append("]");
+			if (explainStatement) {
+				line.append(",\"plan\":[");
+				try {
+					List<String> plan = DBHelper.explainQueryPlan(sqlStatement, params);
+					for (int i = 0; i < plan.size(); i++) {
+						line.append(i > 0 ? "," : "").append(JsonWriter.quote(plan.get(i)));
+					}
+				} catch (SQLException e) {
+					MainApp.LOGGER.warning("Could not explain the query plan of a slow statement: " + e);
+				}
+				line.append("]");
+			}
+			line.append("}").append(System.lineSeparator());
+			try (Writer out = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+				out.write(line.toString());
+			} catch (IOException e) {
+				MainApp.LOGGER.warning("Could not write to the slow query log " + logFile + ": " + e);
+			}
+		});
+	}
+}
@@ -2,6 +2,8 @@ package models;
 
 import application.MainApp;
 import helpers.DBHelper;
+import helpers.LruCache;
+import helpers.PasswordHasher;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -16,10 +18,16 @@ import java.sql.SQLException;
  * It provides functions to search and return one or multiple Account from the database,
  * as well as to add a new account to the database.
  *
+ * Accounts found by username are kept in a cache for a minute, and unknown usernames for ten seconds,
+ * so that repeated logins at a kiosk do not query the database every time.
+ *
  * Source: http://www.swtestacademy.com/database-operations-javafx/
  */
 public class AccountDAO {
 
+	// Cache of accounts by username, which also remembers unknown usernames for a short time
+	private static final LruCache<String, Account> accountCache = new LruCache<>("accounts", 1000, 60000, 10000);
+
 	/**
 	 * This method searches for an Account in the database based on the provided username
 	 *
@@ -29,6 +37,11 @@ public class AccountDAO {
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static Account searchAccount(String username) throws SQLException, ClassNotFoundException {
+		// Returns a copy of the cached account, or null if the username is known not to exist
+		LruCache.Entry<Account> cachedAccount = accountCache.get(username);
+		if (cachedAccount != null) {
+			return copyAccount(cachedAccount.getValue());
+		}
 		//Declare a SELECT statement
 		String selectStatement = "SELECT * FROM accounts WHERE username='" + username + "'";
 
@@ -38,8 +51,10 @@ public class AccountDAO {
 			ResultSet rsAccount = DBHelper.dbExecuteQuery(selectStatement);
 			//Send ResultSet to the getMovieFromResultSet method and get Account Object
 			Account account = getAccountFromResultSet(rsAccount);
-			//Return Account object
-			return account;
+			// Caches the account, or that the username does not exist
+			accountCache.put(username, account);
+			//Return a copy of the Account object, so that the cached one cannot be changed by the caller
+			return copyAccount(account);
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("While searching an account with username " + username
 				+ ", an error occurred: " + e.getMessage());
@@ -67,6 +82,23 @@ public class AccountDAO {
 		return account;
 	}
 
+	/**
+	 * Internal helper method that copies an account
+	 *
+	 * @param account the account to be copied, or null
+	 * @return a new Account object with the same values, or null if no account was provided
+	 */
+	private static Account copyAccount(Account account) {
+		if (account == null) {
+			return null;
+		}
+		Account copy = new Account();
+		copy.setUsername(account.getUsername());
+		copy.setPassword(account.getPassword());
+		copy.setEmployee(account.getEmployee());
+		return copy;
+	}
+
 	/**
 	 * This method searches for a list of Accounts in the database
 	 *
@@ -121,21 +153,49 @@ public class AccountDAO {
 	/**
 	 * Adds a new row to the Accounts table in the database based on a provided account Objet
 	 *
-	 * @param account the account object to be saved in the database
+	 * Only a hash of the account's password is saved. The account object keeps its password in plain text.
+	 *
+	 * @param account the account object with the password in plain text to be saved in the database
 	 * @throws SQLException thrown if an error occurs during information retrieval
 	 */
 	public static void addAccount(Account account) throws SQLException {
+		// Hashes the plain password without changing the caller's account object
+		String passwordHash = PasswordHasher.hash(account.getPassword());
 		// Creates a new SQL statement with information from the provided account object
 		String addStatement =
 			"INSERT INTO accounts "
 				+ "(username, password, employee) "
 				+ "VALUES ("
 				+ "'" + account.getUsername() + "'"
-				+ ", '" + account.getPassword() + "'"
+				+ ", '" + passwordHash + "'"
 				+ ", " + account.getEmployee()
 				+ ");";
 		// Executes the statement
 		DBHelper.dbExecuteUpdate(addStatement);
+		// Forgets that the username did not exist before
+		accountCache.invalidate(account.getUsername());
+
+	}
 
+	/**
+	 * Replaces the stored password of an account with a new hash
+	 *
+	 * This is used when an account logs in whose password was stored in plain text or was
+	 * hashed with a different work factor.
+	 *
+	 * @param username the account's username
+	 * @param passwordHash the new hash as returned by PasswordHasher.hash()
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static void updatePassword(String username, String passwordHash) throws SQLException {
+		// Creates a new SQL statement with the new hash
+		String updateStatement =
+			"UPDATE accounts "
+				+ "SET password = '" + passwordHash + "' "
+				+ "WHERE username = '" + username + "';";
+		// Executes the statement
+		DBHelper.dbExecuteUpdate(updateStatement);
+		// Removes the account with the outdated password from the cache
+		accountCache.invalidate(username);
 	}
 }
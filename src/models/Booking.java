@@ -19,9 +19,9 @@ import java.util.ArrayList;
  * (unique identifier of its associated screening), the username of the user
  * who made the booking, and a List of seats that belong to the booking.
  *
- * Booking seats are represented as a comma separated String of seat identifiers
- * such as A10 or B2 in the database. They are parsed into an ArrayList to allow for
- * easier handling of Seats throughout the application.
+ * Booking seats are saved as one row per seat in the booking_seats table. The bookings table holds
+ * a copy of them as a comma separated String of seat identifiers such as A10 or B2.
+ * They are held in an ArrayList to allow for easier handling of Seats throughout the application.
  *
  * This application uses the Data Access Object (DAO) model for structuring its model.
  * This improves the readability and maintainability of the code by providing uniform
@@ -151,11 +151,12 @@ public class Booking {
 	 * @return a comma separated String of seat identifiers (eg. A8,D10)
 	 */
 	public String getSeats() {
-		String seatString = "";
+		// Every seat identifier takes at most four characters including the comma
+		StringBuilder seatString = new StringBuilder(seatList.size() * 4);
 		for (Seat seat : seatList) {
-			seatString += "" + seat.getRow() + seat.getNumber() + ",";
+			seatString.append(seat.getRow()).append(seat.getNumber()).append(',');
 		}
-		return seatString;
+		return seatString.toString();
 	}
 
 	/**
@@ -171,20 +172,28 @@ public class Booking {
 		String[] stringArray = seatString.split(",");
 		// Creates a new ArrayList
 		seatList = new ArrayList<>(stringArray.length);
-		for (int i = 0; i < stringArray.length; i++) {
+		for (String seatIdentifier : stringArray) {
 			// Retrieves the row of the seat
-			char row = stringArray[i].charAt(0);
+			char row = seatIdentifier.charAt(0);
 			// Retrieves the seat number of the seat
-			int number = Integer.parseInt(stringArray[i].substring(1));
-			// Creates a temporary booked seat object with the row and number
-			Seat tempSeat = new Seat(row, number, true);
-			// Searches a seat in the related booking that matches the just created temporary seat
-			int seatIndex = screening.getSeatList().indexOf(tempSeat);
-			// Adds the screening's seat object to this booking's seatList
-			seatList.add(screening.getSeatList().get(seatIndex));
+			int number = Integer.parseInt(seatIdentifier.substring(1));
+			// Adds the screening's seat object at the seat's position to this booking's seatList
+			addSeat(Seat.index(row, number));
 		}
 	}
 
+	/**
+	 * Adds the screening's seat at the provided position to this booking's list of seats
+	 *
+	 * @param seatIndex the position of the seat in the screening's list of seats, see Seat.getIndex()
+	 */
+	public void addSeat(int seatIndex) {
+		if (seatList == null) {
+			seatList = new ArrayList<>();
+		}
+		seatList.add(screening.getSeatList().get(seatIndex));
+	}
+
 	/**
 	 * @param seatList An ArrayList containing Seat elements
 	 */
@@ -5,8 +5,16 @@ import helpers.DBHelper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents a data access object (DAO) for Bookings.
@@ -20,27 +28,27 @@ import java.sql.SQLException;
  */
 public class BookingDAO {
 
+	// Declares constant for the statement that sets the character of a single seat in the seat String of a screening
+	// The parameters are the seat's position, the new character, the position again, the screenID and the position again
+	private static final String SET_SEAT_STATEMENT =
+		"UPDATE screenings SET seats = substr(seats, 1, ?) || ? || substr(seats, ? + 2) "
+			+ "WHERE screenID = ? AND length(seats) > ?;";
+
 	/**
 	 * This method searches for an Booking in the database based on the provided bookingID
 	 *
 	 * @param bookingID the booking's unique ID
-	 * @return the Booking object that was retrieved from the database
+	 * @return the Booking object that was retrieved from the database, or null if there is no such booking
 	 * @throws SQLException thrown if an error occurs during information retrieval
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static Booking searchBooking(int bookingID) throws SQLException, ClassNotFoundException {
-		//Declare a SELECT statement
-		String selectStatement = "SELECT * FROM bookings WHERE bookingID=" + bookingID;
-
 		//Execute SELECT statement
 		try {
-			//Get ResultSet from dbExecuteQuery method
-			ResultSet rsBooking = DBHelper.dbExecuteQuery(selectStatement);
-			//Send ResultSet to the getBookingFromResultSet method and
-			//get Booking Object
-			Booking booking = getBookingFromResultSet(rsBooking);
+			//Get the bookings from the searchBookingsWhere method
+			ObservableList<Booking> bookingList = searchBookingsWhere("b.bookingID = " + bookingID);
 			//Return Booking object
-			return booking;
+			return bookingList.isEmpty() ? null : bookingList.get(0);
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("While searching a booking with " + bookingID
 				+ " id, an error occurred: " + e.getMessage());
@@ -49,31 +57,6 @@ public class BookingDAO {
 		}
 	}
 
-	/**
-	 * Internal helper method that creates a new booking object from the provided result set
-	 *
-	 * @param rs the resultset containing information for the new booking
-	 * @return a Booking object
-	 * @throws SQLException thrown if an error occurs during information retrieval
-	 */
-	private static Booking getBookingFromResultSet(ResultSet rs) throws SQLException {
-		//Declare variable booking
-		Booking booking = null;
-		if (rs.next()) {
-			booking = new Booking();
-			booking.setBookingID(rs.getInt("bookingID"));
-			booking.setUsername(rs.getString("username"));
-			booking.setScreenID(rs.getInt("screenID"));
-			try {
-				booking.setScreening(ScreeningDAO.searchScreening("" + booking.getScreenID()));
-			} catch (ClassNotFoundException e) {
-				e.printStackTrace();
-			}
-			booking.setSeats(rs.getString("seats"));
-		}
-		return booking;
-	}
-
 	/**
 	 * This method searches for a list of Bookings in the database
 	 *
@@ -82,17 +65,10 @@ public class BookingDAO {
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static ObservableList<Booking> searchBookings() throws SQLException, ClassNotFoundException {
-		//Declare a SELECT statement
-		String selectStatement = "SELECT * FROM bookings";
-
 		//Execute SELECT statement
 		try {
-			//Get ResultSet from dbExecuteQuery method
-			ResultSet rsBookings = DBHelper.dbExecuteQuery(selectStatement);
-			//Send ResultSet to the getEmployeeList method and get booking object
-			ObservableList<Booking> bookingList = getBookingList(rsBookings);
-			//Return booking object
-			return bookingList;
+			//Get the bookings from the searchBookingsWhere method
+			return searchBookingsWhere("1");
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("SQL select operation has failed: " + e.getMessage());
 			//Rethrow exception
@@ -100,35 +76,6 @@ public class BookingDAO {
 		}
 	}
 
-	/**
-	 * Internal helper method that creates an observable list of new booking objects from the provided result set
-	 *
-	 * @param rs the resultset containing information for the new bookings
-	 * @return an ObservableList of Booking objects
-	 * @throws SQLException thrown if an error occurs during information retrieval
-	 */
-	private static ObservableList<Booking> getBookingList(ResultSet rs) throws SQLException {
-		//Declare an observable List comprising of Booking objects
-		ObservableList<Booking> bookingList = FXCollections.observableArrayList();
-
-		while (rs.next()) {
-			//Create new Booking object and fill it with information from the database
-			Booking booking = new Booking();
-			booking.setBookingID(rs.getInt("bookingID"));
-			booking.setUsername(rs.getString("username"));
-			booking.setScreenID(rs.getInt("screenID"));
-			try {
-				booking.setScreening(ScreeningDAO.searchScreening("" + booking.getScreenID()));
-			} catch (ClassNotFoundException e) {
-				e.printStackTrace();
-			}
-			booking.setSeats(rs.getString("seats"));
-			//Add booking to the ObservableList
-			bookingList.add(booking);
-		}
-		return bookingList;
-	}
-
 	/**
 	 * This method searches for a list of Bookings in the database based on the provided username
 	 *
@@ -138,16 +85,10 @@ public class BookingDAO {
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static ObservableList<Booking> searchBookings(String username) throws SQLException, ClassNotFoundException {
-		//Declare a SELECT statement
-		String selectStatement = "SELECT * FROM bookings WHERE username = '" + username + "'";
 		//Execute SELECT statement
 		try {
-			//Get ResultSet from dbExecuteQuery method
-			ResultSet rsBookings = DBHelper.dbExecuteQuery(selectStatement);
-			//Send ResultSet to the getEmployeeList method and get booking object
-			ObservableList<Booking> bookingList = getBookingList(rsBookings);
-			//Return booking object
-			return bookingList;
+			//Get the bookings from the searchBookingsWhere method
+			return searchBookingsWhere("b.username = '" + username + "'");
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("SQL select by username operation has failed: " + e.getMessage());
 			//Rethrow exception
@@ -164,16 +105,10 @@ public class BookingDAO {
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static ObservableList<Booking> searchBookings(int screenID) throws SQLException, ClassNotFoundException {
-		//Declare a SELECT statement
-		String selectStatement = "SELECT * FROM bookings WHERE screenID = " + screenID;
 		//Execute SELECT statement
 		try {
-			//Get ResultSet from dbExecuteQuery method
-			ResultSet rsBookings = DBHelper.dbExecuteQuery(selectStatement);
-			//Send ResultSet to the getEmployeeList method and get booking object
-			ObservableList<Booking> bookingList = getBookingList(rsBookings);
-			//Return booking object
-			return bookingList;
+			//Get the bookings from the searchBookingsWhere method
+			return searchBookingsWhere("b.screenID = " + screenID);
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("SQL select by screenID operation has failed: " + e.getMessage());
 			//Rethrow exception
@@ -181,38 +116,251 @@ public class BookingDAO {
 		}
 	}
 
+	/**
+	 * Returns the seats of a screening that belong to a booking
+	 *
+	 * The seats are read from the booking_seats table through its (screenID, seatIndex) index,
+	 * without reading the bookings themselves.
+	 *
+	 * @param screenID the screening's unique ID
+	 * @return the positions of the booked seats in the screening's list of seats, see Seat.getIndex()
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static BitSet searchBookedSeats(int screenID) throws SQLException {
+		//Declare a SELECT statement
+		String selectStatement = "SELECT seatIndex FROM booking_seats WHERE screenID = " + screenID;
+
+		//Execute SELECT statement
+		try {
+			ResultSet rsSeats = DBHelper.dbExecuteQuery(selectStatement);
+			if (rsSeats == null) {
+				throw new SQLException("The booked seats query failed");
+			}
+			BitSet bookedSeats = new BitSet();
+			while (rsSeats.next()) {
+				bookedSeats.set(rsSeats.getInt("seatIndex"));
+			}
+			return bookedSeats;
+		} catch (SQLException e) {
+			MainApp.LOGGER.warning("While searching the booked seats of screening " + screenID
+				+ ", an error occurred: " + e.getMessage());
+			//Rethrow exception
+			throw e;
+		}
+	}
+
+	/**
+	 * Internal helper method that searches for the bookings matching a condition together with their seats
+	 *
+	 * The bookings and their seats are read with a single query that joins the bookings table with the
+	 * booking_seats table, so each booking arrives as one row per seat, ordered by bookingID. Every
+	 * screening the bookings belong to is read only once.
+	 *
+	 * @param condition the WHERE condition on the bookings table, named b
+	 * @return a list of all matching Booking objects that were retrieved from the database
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
+	 */
+	private static ObservableList<Booking> searchBookingsWhere(String condition) throws SQLException, ClassNotFoundException {
+		//Declare a SELECT statement
+		String selectStatement =
+			  "SELECT b.bookingID, b.username, b.screenID, s.seatIndex "
+			+ "FROM bookings b LEFT JOIN booking_seats s ON s.bookingID = b.bookingID "
+			+ "WHERE " + condition + " "
+			+ "ORDER BY b.bookingID, s.seatIndex";
+		//Get ResultSet from dbExecuteQuery method
+		ResultSet rs = DBHelper.dbExecuteQuery(selectStatement);
+		if (rs == null) {
+			throw new SQLException("The bookings query failed");
+		}
+		//Declare an observable List comprising of Booking objects
+		ObservableList<Booking> bookingList = FXCollections.observableArrayList();
+		// Keeps the screenings that were already read
+		Map<Integer, Screening> screenings = new HashMap<>();
+		Booking booking = null;
+		while (rs.next()) {
+			int bookingID = rs.getInt("bookingID");
+			// Starts a new Booking object with the first row of every booking
+			if (booking == null || booking.getBookingID() != bookingID) {
+				booking = new Booking();
+				booking.setBookingID(bookingID);
+				booking.setUsername(rs.getString("username"));
+				// Sets the screenID without the lookup of setScreenID, as the screening is set below
+				booking.screenIDProperty().set(rs.getInt("screenID"));
+				Screening screening = screenings.get(booking.getScreenID());
+				if (screening == null) {
+					screening = ScreeningDAO.searchScreening("" + booking.getScreenID());
+					screenings.put(booking.getScreenID(), screening);
+				}
+				booking.setScreening(screening);
+				booking.setSeats(new ArrayList<>());
+				//Add booking to the ObservableList
+				bookingList.add(booking);
+			}
+			int seatIndex = rs.getInt("seatIndex");
+			if (!rs.wasNull()) {
+				booking.addSeat(seatIndex);
+			}
+		}
+		return bookingList;
+	}
+
 	/**
 	 * Adds a new row to the Bookings table in the database based on a provided booking Object
 	 *
+	 * The bookingID that the database generated for the new row is set on the booking object.
+	 * A row is added to the booking_seats table for every seat of the booking, and the seats are marked
+	 * as booked in the seat String of the screening. If one of the seats has already been booked for the
+	 * screening, nothing is saved and an SQLException is thrown, for which isSeatConflict returns true.
+	 *
 	 * @param booking the booking object to be saved in the database
-	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @return the bookingID of the new booking
+	 * @throws SQLException thrown if an error occurs during the database operation
 	 */
-	public static void addBooking(Booking booking) throws SQLException {
-		// Creates a new SQL statement with information from the provided booking object
+	public static int addBooking(Booking booking) throws SQLException {
+		addBookings(Collections.singletonList(booking));
+		return booking.getBookingID();
+	}
+
+	/**
+	 * Adds a new row to the Bookings table for every provided booking Object
+	 *
+	 * All bookings are inserted in a single transaction together with their rows in the booking_seats table
+	 * and the updates of the screenings' seat Strings, so either all of them are saved or none, e.g. none if
+	 * one of the seats has already been booked for its screening. Only the characters of the booked seats are
+	 * changed in the seat String, so bookings saved by other terminals at the same time are kept.
+	 * Afterwards every booking object holds the bookingID that the database generated for it.
+	 *
+	 * @param bookings the booking objects to be saved in the database
+	 * @return the number of bookings that were saved
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static int addBookings(List<Booking> bookings) throws SQLException {
+		// Creates new SQL statements with placeholders for the values of each booking and seat
+		// The seats column holds a copy of the seats in booking_seats for readers of the bookings table
 		String addStatement =
 			"INSERT INTO bookings "
 				+ "(username, screenID, seats) "
-			+ "VALUES ("
-				+ "'" + booking.getUsername() + "'"
-				+ ", " + booking.getScreenID()
-				+ ", '" + booking.getSeats() + "'"
-				+ ");";
-		// Executes the statement
-		DBHelper.dbExecuteUpdate(addStatement);
-
+			+ "VALUES (?, ?, ?);";
+		String addSeatStatement =
+			"INSERT INTO booking_seats "
+				+ "(bookingID, screenID, seatIndex) "
+			+ "VALUES (?, ?, ?);";
+		int[] bookingIDs = new int[bookings.size()];
+		// Executes the statements for all bookings at once
+		DBHelper.dbExecuteTransaction(addStatement, conn -> {
+			try (PreparedStatement addBookingStatement = conn.prepareStatement(addStatement, Statement.RETURN_GENERATED_KEYS);
+			     PreparedStatement addSeatsStatement = conn.prepareStatement(addSeatStatement);
+			     PreparedStatement bookSeatsStatement = conn.prepareStatement(SET_SEAT_STATEMENT)) {
+				for (int i = 0; i < bookings.size(); i++) {
+					Booking booking = bookings.get(i);
+					addBookingStatement.setString(1, booking.getUsername());
+					addBookingStatement.setInt(2, booking.getScreenID());
+					addBookingStatement.setString(3, booking.getSeats());
+					addBookingStatement.executeUpdate();
+					// Retrieves the bookingID that the seats of the booking refer to
+					try (ResultSet generatedKeys = addBookingStatement.getGeneratedKeys()) {
+						if (!generatedKeys.next()) {
+							throw new SQLException("The database did not report a generated key");
+						}
+						bookingIDs[i] = generatedKeys.getInt(1);
+					}
+					for (Seat seat : booking.getSeatList()) {
+						addSeatsStatement.setInt(1, bookingIDs[i]);
+						addSeatsStatement.setInt(2, booking.getScreenID());
+						addSeatsStatement.setInt(3, seat.getIndex());
+						addSeatsStatement.addBatch();
+						addSeatUpdate(bookSeatsStatement, booking.getScreenID(), seat.getIndex(), '1');
+					}
+				}
+				// Fails on a seat that is already booked, as booking_seats holds every seat of a screening once
+				addSeatsStatement.executeBatch();
+				executeSeatUpdates(bookSeatsStatement);
+				return bookings.size();
+			}
+		});
+		// Sets the bookingIDs that the database generated for the new rows once they have been saved
+		for (int i = 0; i < bookingIDs.length; i++) {
+			bookings.get(i).setBookingID(bookingIDs[i]);
+		}
+		ProgrammeCache.invalidate();
+		return bookingIDs.length;
 	}
 
 	/**
 	 * Deletes the provided booking from the database
+	 *
+	 * The seats of the booking are marked as available in the seat String of its screening in the same
+	 * transaction. The rows of the booking in the booking_seats table are deleted by the database.
+	 *
 	 * @param booking the booking to be deleted from the database
 	 * @throws SQLException thrown if an error occurs during the database operation
 	 */
 	public static void deleteBooking(Booking booking) throws SQLException {
 		String deleteStatement =
 			"DELETE FROM bookings WHERE "
-				+ "bookingID = " + booking.getBookingID() + ";";
-		// Executes the statement
-		DBHelper.dbExecuteUpdate(deleteStatement);
+				+ "bookingID = ?;";
+		// Executes the statement together with the updates of the seats that are released
+		DBHelper.dbExecuteTransaction(deleteStatement, conn -> {
+			try (PreparedStatement selectSeatsStatement = conn.prepareStatement(
+				     "SELECT screenID, seatIndex FROM booking_seats WHERE bookingID = ?;");
+			     PreparedStatement releaseSeatsStatement = conn.prepareStatement(SET_SEAT_STATEMENT);
+			     PreparedStatement deleteBookingStatement = conn.prepareStatement(deleteStatement)) {
+				// Reads the seats of the booking as saved in the database
+				selectSeatsStatement.setInt(1, booking.getBookingID());
+				try (ResultSet rsSeats = selectSeatsStatement.executeQuery()) {
+					while (rsSeats.next()) {
+						addSeatUpdate(releaseSeatsStatement, rsSeats.getInt("screenID"), rsSeats.getInt("seatIndex"), '0');
+					}
+				}
+				executeSeatUpdates(releaseSeatsStatement);
+				deleteBookingStatement.setInt(1, booking.getBookingID());
+				return deleteBookingStatement.executeUpdate();
+			}
+		});
+		ProgrammeCache.invalidate();
+	}
+
+	/**
+	 * Internal helper method that adds the update of a single seat in the seat String of a screening to a batch
+	 *
+	 * @param statement the prepared SET_SEAT_STATEMENT
+	 * @param screenID the screening's unique ID
+	 * @param seatIndex the position of the seat in the screening's list of seats, see Seat.getIndex()
+	 * @param status '1' to mark the seat as booked, '0' to mark it as available
+	 * @throws SQLException thrown if the parameters cannot be set
+	 */
+	private static void addSeatUpdate(PreparedStatement statement, int screenID, int seatIndex, char status)
+		throws SQLException {
+		statement.setInt(1, seatIndex);
+		statement.setString(2, String.valueOf(status));
+		statement.setInt(3, seatIndex);
+		statement.setInt(4, screenID);
+		statement.setInt(5, seatIndex);
+		statement.addBatch();
+	}
+
+	/**
+	 * Internal helper method that executes the batch of seat updates and checks that every seat exists
+	 *
+	 * @param statement the prepared SET_SEAT_STATEMENT
+	 * @throws SQLException thrown if an update fails or a seat is not part of its screening
+	 */
+	private static void executeSeatUpdates(PreparedStatement statement) throws SQLException {
+		for (int updateCount : statement.executeBatch()) {
+			if (updateCount == 0) {
+				throw new SQLException("Unknown seat in booking");
+			}
+		}
+	}
 
+	/**
+	 * Checks whether an exception thrown while adding a booking was caused by a seat that is already booked
+	 *
+	 * @param e the exception thrown by addBooking or addBookings
+	 * @return true if the booking was rejected because one of its seats already belongs to another booking
+	 */
+	public static boolean isSeatConflict(SQLException e) {
+		return e.getMessage() != null && e.getMessage().contains("UNIQUE constraint failed: booking_seats");
 	}
 }
@@ -2,6 +2,7 @@ package models;
 
 import application.MainApp;
 import helpers.DBHelper;
+import helpers.LruCache;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
@@ -16,10 +17,16 @@ import java.sql.SQLException;
  * It provides functions to search and return one or multiple Customers from the database
  * as well as to add new Customers to the database.
  *
+ * Customers found by username are kept in a cache for a minute, and unknown usernames for ten seconds.
+ * Adding or updating a customer removes it from the cache.
+ *
  * Source: http://www.swtestacademy.com/database-operations-javafx/
  */
 public class CustomerDAO {
 
+	// Cache of customers by username, which also remembers unknown usernames for a short time
+	private static final LruCache<String, Customer> customerCache = new LruCache<>("customers", 1000, 60000, 10000);
+
 	/**
 	 * This method searches for a Customer in the database based on the provided username
 	 *
@@ -29,6 +36,11 @@ public class CustomerDAO {
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static Customer searchCustomer(String username) throws SQLException, ClassNotFoundException {
+		// Returns a copy of the cached customer, or null if the username is known not to exist
+		LruCache.Entry<Customer> cachedCustomer = customerCache.get(username);
+		if (cachedCustomer != null) {
+			return copyCustomer(cachedCustomer.getValue());
+		}
 		//Declare a SELECT statement
 		String selectStatement = "SELECT * FROM customers WHERE username = '" + username + "'";
 
@@ -39,8 +51,10 @@ public class CustomerDAO {
 			//Send ResultSet to the getCustomerFromResultSet method and
 			//get Customer Object
 			Customer customer = getCustomerFromResultSet(rsCustomer);
-			//Return Customer object
-			return customer;
+			// Caches the customer, or that the username does not exist
+			customerCache.put(username, customer);
+			//Return a copy of the Customer object, so that the cached one cannot be changed by the caller
+			return copyCustomer(customer);
 		} catch (SQLException e) {
 			MainApp.LOGGER.warning("While searching a customer with username " + username
 				+ ", an error occurred: " + e);
@@ -72,6 +86,27 @@ public class CustomerDAO {
 		return customer;
 	}
 
+	/**
+	 * Internal helper method that copies a customer
+	 *
+	 * @param customer the customer to be copied, or null
+	 * @return a new Customer object with the same values, or null if no customer was provided
+	 */
+	private static Customer copyCustomer(Customer customer) {
+		if (customer == null) {
+			return null;
+		}
+		Customer copy = new Customer();
+		copy.setUsername(customer.getUsername());
+		copy.setFamilyname(customer.getFamilyname());
+		copy.setFirstname(customer.getFirstname());
+		copy.setAddress(customer.getAddress());
+		copy.setEmail(customer.getEmail());
+		copy.setBirthdate(customer.getBirthdate());
+		copy.setNewsletter(customer.getNewsletter());
+		return copy;
+	}
+
 	/**
 	 * This method searches for a list of Customers in the database
 	 *
@@ -145,6 +180,8 @@ public class CustomerDAO {
 				+ "username = '" + customer.getUsername() + "';";
 		// Executes the statement
 		DBHelper.dbExecuteUpdate(updateStatement);
+		// Removes the outdated customer from the cache
+		customerCache.invalidate(customer.getUsername());
 
 	}
 
@@ -170,5 +207,7 @@ public class CustomerDAO {
 				+ ");";
 		// Executes the statement
 		DBHelper.dbExecuteUpdate(addStatement);
+		// Forgets that the username did not exist before
+		customerCache.invalidate(customer.getUsername());
 	}
 }
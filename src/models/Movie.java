@@ -23,6 +23,16 @@ import javafx.beans.property.StringProperty;
  */
 public class Movie {
 
+	/**
+	 * The pattern a trailer URL has to match, e.g. https://www.youtube.com/embed/xyz
+	 */
+	public static final String TRAILER_URL_PATTERN =
+		"^((https?|ftp|smtp):\\/\\/)?(www.)?[a-z0-9]+\\.[a-z]+(\\/[a-zA-Z0-9#]+\\/?)*$";
+	/**
+	 * The maximum number of characters of a description
+	 */
+	public static final int MAX_DESCRIPTION_LENGTH = 300;
+
 	//Movie properties
 	private IntegerProperty movieID;
 	private StringProperty name;
@@ -2,23 +2,32 @@ package models;
 
 import application.MainApp;
 import helpers.DBHelper;
+import helpers.Metrics;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class represents a data access object (DAO) for Movies.
  *
  * Following the DAO design principle, this class acts as a layer between
  * the Model (the Movie) and the business logic of this application.
- * It provides functions to search and return one or multiple Movies from the database.
+ * It provides functions to search and return one or multiple Movies from the database,
+ * including a ranked full-text search over their texts.
+ * Added and deleted movies are passed on to the MovieSearch index.
  *
  * Source: http://www.swtestacademy.com/database-operations-javafx/
  */
 public class MovieDAO {
 
+	// Number of movies that are sent to the database together when adding many movies at once
+	private static final int BATCH_SIZE = 500;
+
 	/**
 	 * This method searches for a Movie in the database based on the provided movieID
 	 *
@@ -59,20 +68,32 @@ public class MovieDAO {
 		//Declare variable movie
 		Movie movie = null;
 		if (rs.next()) {
-			movie = new Movie();
-			movie.setMovieID(rs.getInt("movieID"));
-			movie.setName(rs.getString("name"));
-			movie.setDescription(rs.getString("description"));
-			movie.setGenre(rs.getString("genre"));
-			movie.setYear(rs.getInt("year"));
-			movie.setDirector(rs.getString("director"));
-			movie.setActors(rs.getString("actors"));
-			movie.setImgPath(rs.getString("imgPath"));
-			movie.setTrailerURL(rs.getString("trailerURL"));
+			movie = readMovie(rs);
 		}
 		return movie;
 	}
 
+	/**
+	 * Internal helper method that creates a new Movie object from the current row of the provided result set
+	 *
+	 * @param rs the resultset positioned on a row of the movies table
+	 * @return a Movie object
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	private static Movie readMovie(ResultSet rs) throws SQLException {
+		Movie movie = new Movie();
+		movie.setMovieID(rs.getInt("movieID"));
+		movie.setName(rs.getString("name"));
+		movie.setDescription(rs.getString("description"));
+		movie.setGenre(rs.getString("genre"));
+		movie.setYear(rs.getInt("year"));
+		movie.setDirector(rs.getString("director"));
+		movie.setActors(rs.getString("actors"));
+		movie.setImgPath(rs.getString("imgPath"));
+		movie.setTrailerURL(rs.getString("trailerURL"));
+		return movie;
+	}
+
 	/**
 	 * This method searches for a list of Movies in the database
 	 *
@@ -99,6 +120,26 @@ public class MovieDAO {
 		}
 	}
 
+	/**
+	 * Hands the movieID, name and year of every movie to the provided handler, in the order of the movieIDs
+	 *
+	 * No Movie objects are created, so the titles of large catalogues can be checked in memory, e.g. when
+	 * importing movies or screenings.
+	 *
+	 * @param handler the RowHandler that is called for every movie, whose columns are movieID, name and year
+	 * @return the number of movies that were handed to the handler
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static int streamMovieTitles(DBHelper.RowHandler handler) throws SQLException {
+		String selectStatement = "SELECT movieID, name, year FROM movies ORDER BY movieID";
+		try {
+			return DBHelper.dbStreamQuery(selectStatement, null, handler);
+		} catch (IOException e) {
+			// Cannot happen unless the handler writes the rows somewhere
+			throw new SQLException(e);
+		}
+	}
+
 	/**
 	 * Internal helper method that creates an observable list of new Movie objects from the provided result set
 	 *
@@ -111,30 +152,87 @@ public class MovieDAO {
 		ObservableList<Movie> movieList = FXCollections.observableArrayList();
 
 		while (rs.next()) {
-			//Create new Movie object and fill it with information from the database
-			Movie movie = new Movie();
-			movie.setMovieID(rs.getInt("movieID"));
-			movie.setName(rs.getString("name"));
-			movie.setDescription(rs.getString("description"));
-			movie.setGenre(rs.getString("genre"));
-			movie.setYear(rs.getInt("year"));
-			movie.setDirector(rs.getString("director"));
-			movie.setActors(rs.getString("actors"));
-			movie.setImgPath(rs.getString("imgPath"));
-			movie.setTrailerURL(rs.getString("trailerURL"));
-			//Add movie to the ObservableList
-			movieList.add(movie);
+			//Create new Movie object, fill it with information from the database and add it to the ObservableList
+			movieList.add(readMovie(rs));
 		}
 		return movieList;
 	}
 
+	/**
+	 * Searches the movies by words in their title, director, actors, genre and description
+	 *
+	 * The search uses the full-text index movies_fts, which the database keeps up to date whenever a movie
+	 * is added, changed or deleted. Every word of the query has to be the beginning of a word of the movie,
+	 * in any of the columns, e.g. "keanu matr" finds "The Matrix". Accents and upper case are ignored and
+	 * characters other than letters and digits only separate the words, so a query cannot contain operators.
+	 * Matches in the title rank highest, followed by the director and actors, the genre and the description.
+	 *
+	 * @param query the words or beginnings of words the movies are searched by
+	 * @param limit the maximum number of matches returned
+	 * @return the best matches, the best one first, or an empty list if the query contains no words
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static List<MovieMatch> fullTextSearch(String query, int limit) throws SQLException {
+		List<MovieMatch> matches = new ArrayList<>();
+		String matchQuery = toMatchQuery(query);
+		if (matchQuery.isEmpty()) {
+			return matches;
+		}
+		// Marks the matching words in the column that matched best, with up to ten words around them
+		String selectStatement =
+			"SELECT m.*, movies_fts.rank, snippet(movies_fts, -1, '[', ']', '...', 10) AS snippet "
+				+ "FROM movies_fts JOIN movies m ON m.movieID = movies_fts.rowid "
+				+ "WHERE movies_fts MATCH ? ORDER BY movies_fts.rank LIMIT ?";
+		long startTime = System.nanoTime();
+		try {
+			DBHelper.dbStreamQuery(selectStatement, new Object[] {matchQuery, limit}, row -> {
+				matches.add(new MovieMatch(readMovie(row), row.getDouble("rank"), row.getString("snippet")));
+				return true;
+			});
+		} catch (IOException e) {
+			// Cannot happen, as the rows are not written anywhere
+			throw new SQLException(e);
+		} catch (SQLException e) {
+			MainApp.LOGGER.warning("While searching movies for " + query + ", an error occurred: " + e);
+			//Rethrow exception
+			throw e;
+		}
+		Metrics.timer("search.movies.fullText").recordSince(startTime);
+		return matches;
+	}
+
+	/**
+	 * Internal helper method that turns the words of a search query into an FTS5 query
+	 *
+	 * Every word is quoted, so it is not read as an operator or column name, and marked as a prefix.
+	 * The words are separated by spaces, so a movie has to match all of them.
+	 *
+	 * @param query the search query
+	 * @return the FTS5 query, e.g. "keanu"* "matr"* for "Keanu, Matr", or an empty String if there are no words
+	 */
+	private static String toMatchQuery(String query) {
+		if (query == null) {
+			return "";
+		}
+		StringBuilder matchQuery = new StringBuilder();
+		for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+			if (!word.isEmpty()) {
+				matchQuery.append(matchQuery.length() == 0 ? "" : " ").append('"').append(word).append("\"*");
+			}
+		}
+		return matchQuery.toString();
+	}
+
 	/**
 	 * Adds a new row to the Movies table in the database based on a provided Movie Object
 	 *
+	 * The movieID that the database generated for the new row is set on the Movie object.
+	 *
 	 * @param movie the Movie object to be saved in the database
+	 * @return the movieID of the new movie
 	 * @throws SQLException thrown if an error occurs during the database operation
 	 */
-	public static void addMovie(Movie movie) throws SQLException {
+	public static int addMovie(Movie movie) throws SQLException {
 		// Creates a new SQL statement with information from the provided movie object
 		String addStatement =
 			"INSERT INTO movies "
@@ -149,8 +247,74 @@ public class MovieDAO {
 				+ ", '" + movie.getImgPath() + "'"
 				+ ", '" + movie.getTrailerURL() + "'"
 				+ ");";
-		// Executes the statement
-		DBHelper.dbExecuteUpdate(addStatement);
+		// Executes the statement and sets the generated movieID
+		movie.setMovieID(DBHelper.dbExecuteInsert(addStatement));
+		MovieSearch.add(movie);
+		return movie.getMovieID();
+	}
+
+	/**
+	 * Adds a new row to the Movies table for every provided Movie object
+	 *
+	 * All movies are inserted in a single transaction, so either all of them are saved or none.
+	 * Afterwards every Movie object holds the movieID that the database generated for it.
+	 *
+	 * @param movies the Movie objects to be saved in the database
+	 * @return the number of movies that were saved
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static int addMovies(List<Movie> movies) throws SQLException {
+		// Creates a new SQL statement with placeholders for the values of each movie
+		String addStatement =
+			"INSERT INTO movies "
+				+ "(name, description, genre, year, director, actors, imgPath, trailerURL) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+		// Collects the values of each movie in the order of the placeholders
+		List<Object[]> params = new ArrayList<>(movies.size());
+		for (Movie movie : movies) {
+			params.add(new Object[] {
+				movie.getName(), movie.getDescription(), movie.getGenre(), movie.getYear(),
+				movie.getDirector(), movie.getActors(), movie.getImgPath(), movie.getTrailerURL()});
+		}
+		// Executes the statement for all movies at once
+		List<Integer> movieIDs = DBHelper.executeBatch(addStatement, params, BATCH_SIZE);
+		// Sets the movieIDs that the database generated for the new rows
+		for (int i = 0; i < movieIDs.size(); i++) {
+			movies.get(i).setMovieID(movieIDs.get(i));
+			MovieSearch.add(movies.get(i));
+		}
+		return movieIDs.size();
+	}
+
+	/**
+	 * Prefixes the imgPath of saved movies with their movieID, e.g. "12_poster.jpg"
+	 *
+	 * This gives imported posters a file name that no other movie uses. Movies without a poster are left as they are.
+	 *
+	 * @param movies the saved Movie objects, whose imgPath is updated as well
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static void prefixImgPaths(List<Movie> movies) throws SQLException {
+		List<Movie> moviesWithPoster = new ArrayList<>();
+		List<String> movieIDs = new ArrayList<>();
+		for (Movie movie : movies) {
+			if (!movie.getImgPath().isEmpty()) {
+				moviesWithPoster.add(movie);
+				movieIDs.add(String.valueOf(movie.getMovieID()));
+			}
+		}
+		if (movieIDs.isEmpty()) {
+			return;
+		}
+		// Creates a new SQL statement that updates all of the movies at once
+		String updateStatement =
+			"UPDATE movies SET imgPath = movieID || '_' || imgPath "
+				+ "WHERE movieID IN (" + String.join(", ", movieIDs) + ");";
+		// Executes the statement, which unlike dbExecuteUpdate reports a failure
+		DBHelper.dbExecuteTransaction(updateStatement);
+		for (Movie movie : moviesWithPoster) {
+			movie.setImgPath(movie.getMovieID() + "_" + movie.getImgPath());
+		}
 	}
 
 	/**
@@ -165,5 +329,8 @@ public class MovieDAO {
 				+ "movieID = " + movie.getMovieID() + ";";
 		// Executes the statement
 		DBHelper.dbExecuteUpdate(deleteStatement);
+		// The cached screenings hold references to the deleted movie
+		ProgrammeCache.invalidate();
+		MovieSearch.remove(movie.getMovieID());
 	}
 }
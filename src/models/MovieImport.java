@@ -0,0 +1,261 @@
+package models;
+
+import application.MainApp;
+import helpers.ImportTask;
+import helpers.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * This class imports a catalogue of movies from a file through an ImportTask
+ *
+ * Every row of the file is a movie with the columns name (or title), description, genre, year, director,
+ * actors, trailerURL and poster. The rows are validated like the form of the EmployeeAddMovie view, and a
+ * movie whose name and year already exist is skipped. Several actors can be separated by line breaks,
+ * semicolons or a JSON array.
+ *
+ * The poster is optional and either the path of an image file, relative to the directory of the imported
+ * file, or an http(s) URL. After a chunk of movies has been saved, their posters are copied or downloaded
+ * into the img folder on a pool of worker threads, so slow downloads do not hold up the import. Every
+ * poster is stored under its movieID and file name, e.g. "12_poster.jpg", so posters with the same name
+ * do not overwrite each other. A poster that cannot be copied is logged and counted, the movie is kept
+ * without it.
+ */
+public class MovieImport implements ImportTask.Target<Movie> {
+
+	// Number of threads that copy or download posters
+	private static final int POSTER_THREADS = 4;
+	// Time after which connecting to the server of a poster, or waiting for its next bytes, is given up
+	private static final int POSTER_TIMEOUT_MILLIS = 15000;
+	// Number of posters that could not be copied whose reason is logged
+	private static final int LOGGED_POSTER_ERRORS = 20;
+	// Matches a valid trailer URL
+	private static final Pattern TRAILER_URL = Pattern.compile(Movie.TRAILER_URL_PATTERN);
+	// Matches the file names of the image formats the views can display
+	private static final Pattern POSTER_FILE = Pattern.compile("(?i).+\\.(jpg|jpeg|png|bmp)");
+
+	private final Path directory;
+	private final Path posterDirectory = Paths.get(System.getProperty("user.dir"), "img");
+	private final ExecutorService posterWorkers = Executors.newFixedThreadPool(POSTER_THREADS, runnable -> {
+		Thread thread = new Thread(runnable, "movie-import-posters");
+		// Does not keep the application running once the window has been closed
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicInteger posters = new AtomicInteger(), posterErrors = new AtomicInteger();
+
+	/**
+	 * Constructor that sets the directory relative to which the paths of the posters are resolved
+	 *
+	 * @param directory the directory of the imported file
+	 */
+	public MovieImport(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Validates a row and turns it into a movie
+	 *
+	 * Until the movie has been saved, its imgPath holds the source of the poster instead of its file name.
+	 *
+	 * @param row the values of the row by the names of their columns in lower case
+	 * @return the movie
+	 * @throws IllegalArgumentException thrown if a required value is missing or a value is invalid
+	 */
+	@Override
+	public Movie parse(Map<String, String> row) {
+		Movie movie = new Movie();
+		movie.setName(required(row, row.containsKey("name") ? "name" : "title"));
+		movie.setDescription(required(row, "description"));
+		if (movie.getDescription().length() > Movie.MAX_DESCRIPTION_LENGTH) {
+			throw new IllegalArgumentException("The description is longer than " + Movie.MAX_DESCRIPTION_LENGTH
+				+ " characters");
+		}
+		movie.setGenre(required(row, "genre"));
+		movie.setDirector(required(row, "director"));
+		// Stores the actors separated by line breaks, like the EmployeeAddMovie view
+		movie.setActors(String.join("\n", required(row, "actors").split("\\s*[\\n;]\\s*")));
+		String year = required(row, "year");
+		try {
+			movie.setYear(Integer.parseInt(year));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("The year " + year + " is not a number");
+		}
+		if (movie.getYear() < 1888 || movie.getYear() > LocalDate.now().getYear() + 5) {
+			throw new IllegalArgumentException("The year " + year + " is not plausible");
+		}
+		movie.setTrailerURL(required(row, "trailerurl"));
+		if (!TRAILER_URL.matcher(movie.getTrailerURL()).matches()) {
+			throw new IllegalArgumentException("The trailer URL " + movie.getTrailerURL() + " is not valid");
+		}
+		String poster = row.getOrDefault("poster", "").trim();
+		if (!poster.isEmpty() && !POSTER_FILE.matcher(fileName(poster)).matches()) {
+			throw new IllegalArgumentException("The poster " + poster + " is not a JPG, PNG or BMP image");
+		}
+		movie.setImgPath(poster);
+		return movie;
+	}
+
+	/**
+	 * @param movie a movie
+	 * @return the name in lower case and the year of the movie
+	 */
+	@Override
+	public String key(Movie movie) {
+		return key(movie.getName(), movie.getYear());
+	}
+
+	/**
+	 * @return the names and years of all movies in the database
+	 * @throws SQLException thrown if the movies cannot be read
+	 */
+	@Override
+	public Set<String> existingKeys() throws SQLException {
+		Set<String> keys = new HashSet<>();
+		MovieDAO.streamMovieTitles(row -> {
+			keys.add(key(row.getString("name"), row.getInt("year")));
+			return true;
+		});
+		return keys;
+	}
+
+	/**
+	 * Saves movies in the database and hands their posters to the poster workers
+	 *
+	 * @param movies the movies, whose imgPath holds the source of their poster
+	 * @throws SQLException thrown if the movies cannot be saved
+	 */
+	@Override
+	public void insert(List<Movie> movies) throws SQLException {
+		String[] sources = new String[movies.size()];
+		for (int i = 0; i < sources.length; i++) {
+			// Stores only the file name of the poster, which the views look up in the img folder
+			sources[i] = movies.get(i).getImgPath();
+			movies.get(i).setImgPath(fileName(sources[i]));
+		}
+		MovieDAO.addMovies(movies);
+		// Gives every poster a file name of its own, as different movies may have posters with the same name
+		MovieDAO.prefixImgPaths(movies);
+		for (int i = 0; i < sources.length; i++) {
+			String source = sources[i], fileName = movies.get(i).getImgPath();
+			if (!source.isEmpty()) {
+				posterWorkers.submit(() -> copyPoster(source, fileName));
+			}
+		}
+	}
+
+	/**
+	 * Waits until all posters have been copied
+	 *
+	 * @throws InterruptedException thrown if the import is cancelled while waiting, the remaining posters
+	 * are still copied in the background
+	 */
+	@Override
+	public void finish() throws InterruptedException {
+		posterWorkers.shutdown();
+		posterWorkers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		MainApp.LOGGER.info(() -> "Copied " + posters.get() + " posters, " + posterErrors.get() + " failed");
+	}
+
+	/**
+	 * @return the number of posters that could not be copied
+	 */
+	public int getPosterErrors() {
+		return posterErrors.get();
+	}
+
+	/**
+	 * Internal helper method that returns a value that must not be empty
+	 *
+	 * @param row the values of the row
+	 * @param column the name of the column in lower case
+	 * @return the value without leading and trailing whitespace
+	 * @throws IllegalArgumentException thrown if the value is missing or empty
+	 */
+	private static String required(Map<String, String> row, String column) {
+		String value = row.get(column);
+		if (value == null || value.trim().isEmpty()) {
+			throw new IllegalArgumentException("The " + column + " is missing");
+		}
+		return value.trim();
+	}
+
+	/**
+	 * Internal helper method that creates the key by which duplicate movies are recognised
+	 *
+	 * @param name the name of the movie
+	 * @param year the year of the movie
+	 * @return the key
+	 */
+	private static String key(String name, int year) {
+		return name.trim().toLowerCase(Locale.ROOT) + "\n" + year;
+	}
+
+	/**
+	 * Internal helper method that returns the file name of a poster path or URL
+	 *
+	 * @param source the path or URL, may be empty
+	 * @return the last part of the path or URL, or an empty String
+	 */
+	private static String fileName(String source) {
+		return source.substring(source.lastIndexOf(source.contains("/") ? '/' : '\\') + 1);
+	}
+
+	/**
+	 * Internal helper method that copies or downloads a poster into the img folder, called on a poster worker
+	 *
+	 * A poster whose source file does not exist is copied from the img folder if it already contains it.
+	 *
+	 * @param source the path or URL of the poster
+	 * @param fileName the file name of the poster in the img folder, which no other movie uses
+	 */
+	private void copyPoster(String source, String fileName) {
+		Path destination = posterDirectory.resolve(fileName);
+		try {
+			if (source.startsWith("http://") || source.startsWith("https://")) {
+				URLConnection connection = new URL(source).openConnection();
+				// Gives up on a server that does not respond, so that finish() does not wait forever
+				connection.setConnectTimeout(POSTER_TIMEOUT_MILLIS);
+				connection.setReadTimeout(POSTER_TIMEOUT_MILLIS);
+				try (InputStream in = connection.getInputStream()) {
+					Files.copy(in, destination, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} else {
+				Path file = directory.resolve(source);
+				if (!Files.exists(file)) {
+					file = posterDirectory.resolve(fileName(source));
+				}
+				if (!Files.exists(file)) {
+					throw new IOException("The file " + directory.resolve(source) + " does not exist");
+				}
+				Files.copy(file, destination, StandardCopyOption.REPLACE_EXISTING);
+			}
+			posters.incrementAndGet();
+			Metrics.counter("import.movies.posters").increment();
+		} catch (IOException | RuntimeException e) {
+			if (posterErrors.getAndIncrement() < LOGGED_POSTER_ERRORS) {
+				MainApp.LOGGER.warning("Could not copy the poster " + source + ": " + e);
+			}
+			Metrics.counter("import.movies.posterErrors").increment();
+		}
+	}
+}
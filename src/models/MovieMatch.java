@@ -0,0 +1,57 @@
+package models;
+
+/**
+ * This class represents a movie found by a full-text search, see MovieDAO.fullTextSearch
+ *
+ * Besides the movie it holds the rank of the match, by which the results of a search are ordered,
+ * and a snippet of the text that matched the query with the matching words marked.
+ */
+public class MovieMatch {
+
+	private final Movie movie;
+	private final double rank;
+	private final String snippet;
+
+	/**
+	 * Constructor that initializes all fields
+	 *
+	 * @param movie the movie that matched the query
+	 * @param rank the rank of the match, lower values are better matches
+	 * @param snippet the part of the movie's texts that matched best, the matching words surrounded by [ and ]
+	 */
+	public MovieMatch(Movie movie, double rank, String snippet) {
+		this.movie = movie;
+		this.rank = rank;
+		this.snippet = snippet;
+	}
+
+	/**
+	 * @return the movie that matched the query
+	 */
+	public Movie getMovie() {
+		return movie;
+	}
+
+	/**
+	 * @return the rank of the match, lower values are better matches
+	 */
+	public double getRank() {
+		return rank;
+	}
+
+	/**
+	 * @return the part of the movie's texts that matched best, the matching words surrounded by [ and ]
+	 */
+	public String getSnippet() {
+		return snippet;
+	}
+
+	/**
+	 * A custom implementation of the toString() method that returns the movie's name and the snippet
+	 * @return the movie name and the snippet
+	 */
+	@Override
+	public String toString() {
+		return movie.getName() + ": " + snippet;
+	}
+}
@@ -0,0 +1,102 @@
+package models;
+
+import application.MainApp;
+import helpers.Metrics;
+import helpers.SearchIndex;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * This class finds movies by their title, director, actors, genre and description
+ *
+ * The title, director, actors and genre are kept in a SearchIndex, which is filled from the database with
+ * the first search and afterwards updated by MovieDAO whenever a movie is added or deleted. It finds parts
+ * of words, e.g. "wick" in "Wick", without querying the database. The full-text index of the database is
+ * searched as well, which adds the movies whose description matches or whose words match across several
+ * columns, e.g. "keanu action". The duration of every search is recorded in the timer search.movies.time.
+ */
+public class MovieSearch {
+
+	// Maximum number of movies that are added from the full-text index, the best matches are added first
+	private static final int FULL_TEXT_LIMIT = 500;
+
+	// The index of all movies by their movieID, or null until the first search
+	private static SearchIndex<Integer> index = null;
+
+	/**
+	 * Returns the movieIDs of the movies that match every word of the query
+	 *
+	 * A movie matches if its title, director, actors or genre contain every word of the query (see SearchIndex),
+	 * or if every word is the beginning of a word in any of these or its description (see MovieDAO.fullTextSearch).
+	 *
+	 * @param query the words or parts of words the movies are searched by
+	 * @return a new set with the movieIDs of the matching movies, or of all movies if the query is empty
+	 * @throws SQLException thrown if the movies cannot be loaded into the index
+	 * @throws ClassNotFoundException thrown if the JDBC driver couldn't be loaded
+	 */
+	public static Set<Integer> search(String query) throws SQLException, ClassNotFoundException {
+		SearchIndex<Integer> movieIndex = getIndex();
+		long startTime = System.nanoTime();
+		Set<Integer> movieIDs = movieIndex.search(query);
+		for (MovieMatch match : MovieDAO.fullTextSearch(query, FULL_TEXT_LIMIT)) {
+			movieIDs.add(match.getMovie().getMovieID());
+		}
+		Metrics.timer("search.movies.time").recordSince(startTime);
+		return movieIDs;
+	}
+
+	/**
+	 * Adds a movie to the index or replaces its entry, unless the index has not been filled yet
+	 *
+	 * @param movie the movie that was added to the database
+	 */
+	static synchronized void add(Movie movie) {
+		if (index != null) {
+			put(index, movie);
+		}
+	}
+
+	/**
+	 * Removes a movie from the index
+	 *
+	 * @param movieID the movieID of the movie that was deleted from the database
+	 */
+	static synchronized void remove(int movieID) {
+		if (index != null) {
+			index.remove(movieID);
+		}
+	}
+
+	/**
+	 * Internal helper method that returns the index, filling it with all movies from the database on first use
+	 *
+	 * @return the index
+	 * @throws SQLException thrown if the movies cannot be loaded
+	 * @throws ClassNotFoundException thrown if the JDBC driver couldn't be loaded
+	 */
+	private static synchronized SearchIndex<Integer> getIndex() throws SQLException, ClassNotFoundException {
+		if (index == null) {
+			long startTime = System.nanoTime();
+			SearchIndex<Integer> movieIndex = new SearchIndex<>();
+			for (Movie movie : MovieDAO.searchMovies()) {
+				put(movieIndex, movie);
+			}
+			index = movieIndex;
+			Metrics.timer("search.movies.build").recordSince(startTime);
+			MainApp.LOGGER.info(() -> "Indexed " + movieIndex.size() + " movies for searching in "
+				+ (System.nanoTime() - startTime) / 1000000 + " ms");
+		}
+		return index;
+	}
+
+	/**
+	 * Internal helper method that adds a movie to an index by its title, director, actors and genre
+	 *
+	 * @param movieIndex the index
+	 * @param movie the movie
+	 */
+	private static void put(SearchIndex<Integer> movieIndex, Movie movie) {
+		movieIndex.put(movie.getMovieID(), movie.getName(), movie.getDirector(), movie.getActors(), movie.getGenre());
+	}
+}
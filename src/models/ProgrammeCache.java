@@ -0,0 +1,108 @@
+package models;
+
+import helpers.Counter;
+import helpers.Metrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class keeps the upcoming screenings in memory, so that repeated views of the programme do not query the database
+ *
+ * ScreeningDAO.searchUpcomingScreenings() reads through this cache: the first call loads all upcoming screenings together with
+ * their movies from the database, later calls are served from memory until the time to live has passed or
+ * ScreeningDAO changes a screening. The time to live limits how long changes made by other instances of the
+ * application remain unnoticed. It is read from the system property cinema.programmeCache.ttlSeconds
+ * and defaults to 10 seconds.
+ *
+ * Callers receive copies of the cached screenings, because views mark seats as booked on the screening objects
+ * they were given before the change is saved. Screenings that have started since they were loaded are left out.
+ * Hits, misses and invalidations are counted in Metrics.
+ */
+class ProgrammeCache {
+
+	/**
+	 * Loads the screenings from the database when the cache is empty or expired
+	 */
+	interface Loader {
+		/**
+		 * @return all upcoming screenings with their movies
+		 * @throws SQLException thrown if an error occurs during information retrieval
+		 * @throws ClassNotFoundException thrown if the JDBC driver couldn't be loaded
+		 */
+		List<Screening> load() throws SQLException, ClassNotFoundException;
+	}
+
+	private static final long TIME_TO_LIVE_NANOS = Long.getLong("cinema.programmeCache.ttlSeconds", 10) * 1000000000L;
+
+	private static final Counter hits = Metrics.counter("cache.programme.hits");
+	private static final Counter misses = Metrics.counter("cache.programme.misses");
+	private static final Counter invalidations = Metrics.counter("cache.programme.invalidations");
+
+	private static List<Screening> screenings = null;
+	private static long loadTime;
+	// Incremented by every invalidation, so that a load that overlapped with a change is not cached
+	private static long generation = 0;
+
+	/**
+	 * Returns copies of all upcoming screenings, loading them from the database if the cache is empty or expired
+	 *
+	 * @param loader the database query that is used on a miss
+	 * @return a new list of new Screening objects
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JDBC driver couldn't be loaded
+	 */
+	static List<Screening> getScreenings(Loader loader) throws SQLException, ClassNotFoundException {
+		List<Screening> cachedScreenings;
+		long loadGeneration;
+		synchronized (ProgrammeCache.class) {
+			cachedScreenings = screenings;
+			loadGeneration = generation;
+			if (cachedScreenings != null && System.nanoTime() - loadTime < TIME_TO_LIVE_NANOS) {
+				hits.increment();
+				return copy(cachedScreenings);
+			}
+		}
+		misses.increment();
+		// Queries the database outside of the lock, so other threads are not blocked meanwhile
+		long startTime = System.nanoTime();
+		cachedScreenings = loader.load();
+		synchronized (ProgrammeCache.class) {
+			// Only keeps the result if no screening has been changed while it was loaded
+			if (generation == loadGeneration) {
+				screenings = cachedScreenings;
+				loadTime = startTime;
+			}
+		}
+		return copy(cachedScreenings);
+	}
+
+	/**
+	 * Empties the cache, so the next call of getScreenings() loads the screenings from the database again
+	 */
+	static synchronized void invalidate() {
+		screenings = null;
+		generation++;
+		invalidations.increment();
+	}
+
+	/**
+	 * Internal helper method that copies the screenings of a list that have not started yet
+	 *
+	 * The movies are shared between the copies, since views do not change them, and the starts of the
+	 * screenings are copied instead of being parsed again.
+	 *
+	 * @param screenings the screenings to be copied
+	 * @return a new list of new Screening objects with the same values
+	 */
+	private static List<Screening> copy(List<Screening> screenings) {
+		List<Screening> copies = new ArrayList<>(screenings.size());
+		for (Screening screening : screenings) {
+			if (!screening.hasStarted()) {
+				copies.add(screening.copy());
+			}
+		}
+		return copies;
+	}
+}
@@ -0,0 +1,123 @@
+package models;
+
+import application.MainApp;
+import helpers.DBHelper;
+import helpers.SchemaMigrations;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * This class represents a data access object (DAO) for sales reports.
+ *
+ * The reports summarise the bookings and the seat occupancy of screenings per film, per day and per
+ * time slot. As the cinema has a single room, the time slot takes the place of a hall. The reports are
+ * read from the rollup tables film_day_stats and slot_day_stats, which hold one row per film and day and
+ * per time slot and day and are kept up to date by the database whenever a screening or booking is
+ * added or deleted, so creating a report does not read any bookings. The number of tickets of a booking
+ * is the number of seats in its seat list, and every ticket costs the same price.
+ *
+ * Every report has the columns of REPORT_HEADER, preceded by the film, the date or the time slot.
+ * The reports are returned as disconnected result sets, so the database is not kept busy while the
+ * rows are written to a file.
+ */
+public class ReportDAO {
+
+	// Declares constant for the price of a ticket in pounds, as shown when booking
+	public static final int TICKET_PRICE = 8;
+	// Declares constant for the names of the columns every report has after its first column
+	public static final String[] REPORT_HEADER = {
+		"Screenings", "Bookings", "Tickets Sold", "Revenue (GBP)", "Seats", "Occupancy (%)"};
+
+	/**
+	 * Returns the sales of every film that was screened within a period, the best-selling film first
+	 *
+	 * @param from the first day of the period, or null for no limit
+	 * @param to the last day of the period, or null for no limit
+	 * @return a result set with the film's name followed by the columns of REPORT_HEADER
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static ResultSet salesByFilm(LocalDate from, LocalDate to) throws SQLException {
+		return salesReport("m.name", "film_day_stats r JOIN movies m ON m.movieID = r.movieID", "r.movieID",
+			"5 DESC, m.name", from, to);
+	}
+
+	/**
+	 * Returns the sales of every day with screenings within a period, in chronological order
+	 *
+	 * @param from the first day of the period, or null for no limit
+	 * @param to the last day of the period, or null for no limit
+	 * @return a result set with the date followed by the columns of REPORT_HEADER
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static ResultSet salesByDay(LocalDate from, LocalDate to) throws SQLException {
+		return salesReport("r.date", "film_day_stats r", "r.date", "r.date", from, to);
+	}
+
+	/**
+	 * Returns the sales of every time slot with screenings within a period, e.g. of all screenings at 18:00
+	 *
+	 * @param from the first day of the period, or null for no limit
+	 * @param to the last day of the period, or null for no limit
+	 * @return a result set with the time slot, e.g. "18:00", followed by the columns of REPORT_HEADER
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static ResultSet salesByTimeSlot(LocalDate from, LocalDate to) throws SQLException {
+		return salesReport("r.time || ':00'", "slot_day_stats r", "r.time", "r.time", from, to);
+	}
+
+	/**
+	 * Internal helper method that runs a sales report on a rollup table grouped by the provided column
+	 *
+	 * @param label the expression for the first column of the report
+	 * @param rollup the rollup table, named r, and any joined tables
+	 * @param groupBy the expression the screenings are grouped by
+	 * @param orderBy the expression the rows are ordered by
+	 * @param from the first day of the period, or null for no limit
+	 * @param to the last day of the period, or null for no limit
+	 * @return the rows of the report
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	private static ResultSet salesReport(String label, String rollup, String groupBy, String orderBy,
+	                                     LocalDate from, LocalDate to) throws SQLException {
+		// Dates are stored as YYYY-MM-DD, so they can be compared as Strings
+		String period = " WHERE r.date BETWEEN '" + (from == null ? "0000-00-00" : from.toString()) + "'"
+			+ " AND '" + (to == null ? "9999-99-99" : to.toString()) + "'";
+		//Declare a SELECT statement
+		String selectStatement =
+			  "SELECT " + label + ", SUM(r.screenings), SUM(r.bookings), SUM(r.tickets), "
+			+ "SUM(r.tickets) * " + TICKET_PRICE + ", SUM(r.seats), "
+			+ "ROUND(100.0 * SUM(r.tickets) / SUM(r.seats), 1) "
+			+ "FROM " + rollup
+			+ period
+			+ " GROUP BY " + groupBy
+			+ " ORDER BY " + orderBy;
+
+		//Execute SELECT statement
+		try {
+			ResultSet rsReport = DBHelper.dbExecuteQuery(selectStatement);
+			if (rsReport == null) {
+				throw new SQLException("The sales report query failed");
+			}
+			return rsReport;
+		} catch (SQLException e) {
+			MainApp.LOGGER.warning("While creating a sales report, an error occurred: " + e);
+			//Rethrow exception
+			throw e;
+		}
+	}
+
+	/**
+	 * Recalculates all rollup tables from the screenings and bookings, e.g. after bookings were imported
+	 *
+	 * The rollup tables are emptied and refilled in a single transaction, so reports never see half-filled tables.
+	 *
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static void rebuildRollups() throws SQLException {
+		long startTime = System.nanoTime();
+		DBHelper.dbExecuteTransaction(SchemaMigrations.REBUILD_ROLLUPS);
+		MainApp.LOGGER.info(() -> "Rebuilt the rollup tables in " + (System.nanoTime() - startTime) / 1000000 + " ms");
+	}
+}
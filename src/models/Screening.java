@@ -6,6 +6,9 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 
 /**
@@ -17,6 +20,12 @@ import java.util.ArrayList;
  * an ArrayList containing its seat elements, Strings for the total, available and booked
  * number of seats and a reference for this screening's associated movie object.
  *
+ * The start of each screening is additionally kept as a LocalDateTime and as the number of seconds
+ * since 1970-01-01, which are computed once after the date or time has changed. The seconds are stored
+ * in the starts_at column of the screenings table and serve as primitive sort key. This allows lists
+ * of screenings to be sorted and compared with the current time without parsing the date String.
+ * The seconds count the local start time as if it were UTC, so they do not depend on the time zone.
+ *
  * This application uses the Data Access Object (DAO) model for structuring its model.
  * This improves the readability and maintainability of the code by providing uniform
  * ways to interact with all models, as well as with the database and by clearly separating
@@ -32,6 +41,12 @@ public class Screening {
 	private StringProperty totalSeats, availableSeats, bookedSeats;
 	private ArrayList<Seat> seats;
 	private Movie movie;
+	// Start of this screening, or null if no date has been set
+	private LocalDateTime start;
+	// Seconds since 1970-01-01 at which this screening starts, used as sort key
+	private long startsAt;
+	// Set when the date or time has changed since start and startsAt were computed
+	private boolean startOutdated;
 
 	/**
 	 * Constructor that initializes all fields
@@ -43,6 +58,9 @@ public class Screening {
 		date = new SimpleStringProperty();
 		time = new SimpleIntegerProperty();
 		movie = null;
+		// Recomputes the start and sort key when they are next needed after the date or the time has changed
+		date.addListener((observable, oldValue, newValue) -> startOutdated = true);
+		time.addListener((observable, oldValue, newValue) -> startOutdated = true);
 	}
 
 	//----------------------------------------//
@@ -219,6 +237,43 @@ public class Screening {
 		this.date.set(date);
 	}
 
+	/**
+	 * @return the date and time at which this screening starts, or null if no date has been set
+	 */
+	public LocalDateTime getStart() {
+		updateStart();
+		return start;
+	}
+
+	/**
+	 * Returns the start of this screening as a primitive sort key, as stored in the starts_at column
+	 *
+	 * @return the number of seconds between 1970-01-01 00:00 and the start of this screening, or 0 if no date has been set
+	 */
+	public long getStartsAt() {
+		updateStart();
+		return startsAt;
+	}
+
+	/**
+	 * Checks whether this screening has already started, in which case it can no longer be booked
+	 *
+	 * @return true if the screening starts now or started in the past
+	 */
+	public boolean hasStarted() {
+		return getStartsAt() <= toEpochSeconds(LocalDateTime.now());
+	}
+
+	/**
+	 * Converts a date and time into the format of the starts_at column
+	 *
+	 * @param dateTime the local date and time
+	 * @return the number of seconds between 1970-01-01 00:00 and the provided date and time
+	 */
+	public static long toEpochSeconds(LocalDateTime dateTime) {
+		return dateTime.toEpochSecond(ZoneOffset.UTC);
+	}
+
 	/**
 	 *
 	 * @return this screening's associated movie object
@@ -235,6 +290,48 @@ public class Screening {
 		this.movie = movie;
 	}
 
+	/**
+	 * Creates a copy of this screening with copies of its seats
+	 *
+	 * The movie is shared with the copy, and the start is copied instead of being parsed again.
+	 *
+	 * @return a new Screening object with the same values
+	 */
+	public Screening copy() {
+		Screening copy = new Screening();
+		copy.setScreenID(getScreenID());
+		// Sets the movieID without loading the movie from the database again
+		copy.movieIDProperty().set(getMovieID());
+		copy.setMovie(movie);
+		copy.setSeats(getSeats());
+		copy.setDate(getDate());
+		copy.setTime(getTime());
+		updateStart();
+		copy.start = start;
+		copy.startsAt = startsAt;
+		copy.startOutdated = false;
+		return copy;
+	}
+
+	/**
+	 * Internal helper method that parses the date and time of this screening into its start and sort key
+	 * if they have changed since the last call
+	 */
+	private void updateStart() {
+		if (!startOutdated) {
+			return;
+		}
+		startOutdated = false;
+		if (date.get() == null) {
+			start = null;
+			startsAt = 0;
+		} else {
+			// Adds the hours instead of using them as time of day, so that a time of 24 means midnight of the next day
+			start = LocalDate.parse(date.get()).atStartOfDay().plusHours(time.get());
+			startsAt = toEpochSeconds(start);
+		}
+	}
+
 	/**
 	 * Takes a String of 0's and 1's and parses them as available/unavailable seats for this screening
 	 *
@@ -245,12 +342,11 @@ public class Screening {
 		// Creates a new ArrayList
 		ArrayList<Seat> seatArrayList = new ArrayList<>(seatString.length());
 		for (int i = 0; i < seatString.length(); i++) {
-			final int SEATS_PER_ROW = 10;
 			// Calculates the row letter
 			// 65 is the ASCII code for capital A, adding to this leads to alphabetically increasing row identifiers
-			char row = (char)(65 + ((i / SEATS_PER_ROW)));
+			char row = (char)(65 + ((i / Seat.SEATS_PER_ROW)));
 			// Calculates the seat number within the row
-			int number = (i % SEATS_PER_ROW) + 1;
+			int number = (i % Seat.SEATS_PER_ROW) + 1;
 			Seat seat;
 			if (seatString.charAt(i) == '0') {
 				// If the seatString contains a 0 at this position, creates an available seat
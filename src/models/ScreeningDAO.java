@@ -5,8 +5,16 @@ import helpers.DBHelper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class represents a data access object (DAO) for Screenings.
@@ -15,10 +23,17 @@ import java.sql.SQLException;
  * the Model (the Screening) and the business logic of this application.
  * It provides functions to search and return one or multiple Screenings from the database.
  *
+ * The list of all upcoming screenings is kept in a ProgrammeCache, which is emptied whenever
+ * a screening is added, updated or deleted through this class. Screenings are selected by their
+ * start through the index on the starts_at column.
+ *
  * Source: http://www.swtestacademy.com/database-operations-javafx/
  */
 public class ScreeningDAO {
 
+	// Number of screenings that are sent to the database together when adding many screenings at once
+	private static final int BATCH_SIZE = 500;
+
 	/**
 	 * This method searches for a Screening in the database based on the provided screenID
 	 *
@@ -66,20 +81,51 @@ public class ScreeningDAO {
 	}
 
 	/**
-	 * This method searches for a list of Screenings in the database
+	 * This method returns a list of all Screenings, including the ones that have already taken place
 	 *
-	 * @return a list of all matching Screening objects that were retrieved from the database
+	 * @return a list of all Screening objects, ordered by their start
 	 * @throws SQLException thrown if an error occurs during information retrieval
 	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
 	public static ObservableList<Screening> searchScreenings() throws SQLException, ClassNotFoundException {
+		return FXCollections.observableArrayList(loadScreenings(0));
+	}
+
+	/**
+	 * This method returns a list of all Screenings that have not started yet
+	 *
+	 * The screenings are served from the ProgrammeCache if possible and loaded from the database otherwise.
+	 * Every call returns new Screening objects, which the caller may change.
+	 *
+	 * @return a list of all upcoming Screening objects, ordered by their start
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
+	 */
+	public static ObservableList<Screening> searchUpcomingScreenings() throws SQLException, ClassNotFoundException {
+		return FXCollections.observableArrayList(ProgrammeCache.getScreenings(
+			() -> loadScreenings(Screening.toEpochSeconds(LocalDateTime.now()) + 1)));
+	}
+
+	/**
+	 * Internal helper method that searches for a list of all Screenings in the database that start at
+	 * or after the provided time
+	 *
+	 * @param startsAt the earliest start in seconds since 1970-01-01, see Screening.getStartsAt()
+	 * @return a list of all matching Screening objects that were retrieved from the database, ordered by their start
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
+	 */
+	private static List<Screening> loadScreenings(long startsAt) throws SQLException, ClassNotFoundException {
 		//Declare a SELECT statement
-		String selectStatement = "SELECT * FROM screenings";
+		String selectStatement = "SELECT * FROM screenings WHERE starts_at >= " + startsAt + " ORDER BY starts_at";
 
 		//Execute SELECT statement
 		try {
 			//Get ResultSet from dbExecuteQuery method
 			ResultSet rsScreenings = DBHelper.dbExecuteQuery(selectStatement);
+			if (rsScreenings == null) {
+				throw new SQLException("The screenings query failed");
+			}
 			//Send ResultSet to the getEmployeeList method and return the screening object
 			return getScreeningList(rsScreenings);
 		} catch (SQLException e) {
@@ -89,22 +135,92 @@ public class ScreeningDAO {
 		}
 	}
 
+	/**
+	 * This method searches for the Screenings in the database that start within a period
+	 *
+	 * The period is looked up in the index on the starts_at column, so only the matching rows are read.
+	 *
+	 * @param from the earliest start, inclusive
+	 * @param to the latest start, exclusive
+	 * @return a list of all matching Screening objects, ordered by their start
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
+	 */
+	public static ObservableList<Screening> searchScreenings(LocalDateTime from, LocalDateTime to)
+		throws SQLException, ClassNotFoundException {
+		//Declare a SELECT statement
+		String selectStatement = "SELECT * FROM screenings "
+			+ "WHERE starts_at >= " + Screening.toEpochSeconds(from)
+			+ " AND starts_at < " + Screening.toEpochSeconds(to)
+			+ " ORDER BY starts_at";
+
+		//Execute SELECT statement
+		try {
+			//Get ResultSet from dbExecuteQuery method
+			ResultSet rsScreenings = DBHelper.dbExecuteQuery(selectStatement);
+			if (rsScreenings == null) {
+				throw new SQLException("The screenings query failed");
+			}
+			//Send ResultSet to the getScreeningList method and return the screening objects
+			return getScreeningList(rsScreenings);
+		} catch (SQLException e) {
+			MainApp.LOGGER.warning("SQL select by period operation has failed: " + e);
+			//Rethrow exception
+			throw e;
+		}
+	}
+
+	/**
+	 * Searches the start times of all screenings that start at or after the provided time
+	 *
+	 * The start times are read from the index on the starts_at column without creating Screening objects,
+	 * so the time slots that are taken can be checked in memory, e.g. when importing a schedule.
+	 *
+	 * @param from the earliest start, inclusive
+	 * @return the starts of the screenings in seconds since 1970-01-01, see Screening.getStartsAt
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static Set<Long> searchStartTimes(LocalDateTime from) throws SQLException {
+		String selectStatement = "SELECT starts_at FROM screenings WHERE starts_at >= ?";
+		Set<Long> startTimes = new HashSet<>();
+		try {
+			DBHelper.dbStreamQuery(selectStatement, new Object[] {Screening.toEpochSeconds(from)}, row -> {
+				startTimes.add(row.getLong(1));
+				return true;
+			});
+		} catch (IOException e) {
+			// Cannot happen, as the rows are not written anywhere
+			throw new SQLException(e);
+		}
+		return startTimes;
+	}
+
 	/**
 	 * Internal helper method that creates an observable list of new Screening objects from the provided result set
 	 *
+	 * All movies are read with a single query beforehand, instead of one query per screening.
+	 *
 	 * @param rs the resultset containing information for the new Screening
 	 * @return an ObservableList of Screening objects
 	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws ClassNotFoundException thrown if the JSBC driver couldn't be loaded
 	 */
-	private static ObservableList<Screening> getScreeningList(ResultSet rs) throws SQLException {
+	private static ObservableList<Screening> getScreeningList(ResultSet rs) throws SQLException, ClassNotFoundException {
 		//Declare an observable List comprising of Screening objects
 		ObservableList<Screening> screeningList = FXCollections.observableArrayList();
+		// Indexes all movies by their movieID
+		Map<Integer, Movie> movies = new HashMap<>();
+		for (Movie movie : MovieDAO.searchMovies()) {
+			movies.put(movie.getMovieID(), movie);
+		}
 
 		while (rs.next()) {
 			//Create new Screening object and fill it with information from the database
 			Screening screening = new Screening();
 			screening.setScreenID(rs.getInt("screenID"));
-			screening.setMovieID(rs.getInt("movieID"));
+			// Sets the movieID without loading the movie from the database again
+			screening.movieIDProperty().set(rs.getInt("movieID"));
+			screening.setMovie(movies.get(screening.getMovieID()));
 			screening.setSeats(rs.getString("seats"));
 			screening.setDate(rs.getString("date"));
 			screening.setTime(rs.getInt("time"));
@@ -115,37 +231,147 @@ public class ScreeningDAO {
 		return screeningList;
 	}
 
+	/**
+	 * Counts the screenings that exportScreenings would return
+	 *
+	 * @param screenIDs the screenIDs of the screenings to count, or null to count all screenings
+	 * @param upcomingOnly true to only count screenings that have not started yet
+	 * @return the number of screenings
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 */
+	public static int countScreenings(List<Integer> screenIDs, boolean upcomingOnly) throws SQLException {
+		List<Object> params = new ArrayList<>();
+		String countStatement = "SELECT COUNT(*) FROM screenings s" + exportCondition(screenIDs, upcomingOnly, params);
+		int[] count = new int[1];
+		try {
+			DBHelper.dbStreamQuery(countStatement, params.toArray(), row -> {
+				count[0] = row.getInt(1);
+				return false;
+			});
+		} catch (IOException e) {
+			// Cannot happen, as the row is not written anywhere
+			throw new SQLException(e);
+		}
+		return count[0];
+	}
+
+	/**
+	 * Streams a summary of screenings for exports, ordered by date and time
+	 *
+	 * The movie title is joined in the same query and the number of booked seats is counted by SQLite,
+	 * so no Screening or Movie objects are created and no further queries are needed per screening.
+	 * Every row consists of the columns movie title, date, time (e.g. "18:00"), total seats,
+	 * booked seats and available seats.
+	 *
+	 * @param screenIDs the screenIDs of the screenings to export, or null to export all screenings
+	 * @param upcomingOnly true to only export screenings that have not started yet
+	 * @param handler the RowHandler that receives every row
+	 * @return the number of rows that were handed to the handler
+	 * @throws SQLException thrown if an error occurs during information retrieval
+	 * @throws IOException thrown if the handler fails to write a row
+	 */
+	public static int exportScreenings(List<Integer> screenIDs, boolean upcomingOnly, DBHelper.RowHandler handler)
+		throws SQLException, IOException {
+		List<Object> params = new ArrayList<>();
+		String selectStatement =
+			  "SELECT m.name, s.date, s.time || ':00', length(s.seats), "
+			+ "length(s.seats) - length(replace(s.seats, '1', '')), length(replace(s.seats, '1', '')) "
+			+ "FROM screenings s JOIN movies m ON m.movieID = s.movieID"
+			+ exportCondition(screenIDs, upcomingOnly, params)
+			+ " ORDER BY s.starts_at";
+		try {
+			return DBHelper.dbStreamQuery(selectStatement, params.toArray(), handler);
+		} catch (SQLException e) {
+			MainApp.LOGGER.warning("While exporting screenings, an error occurred: " + e);
+			//Rethrow exception
+			throw e;
+		}
+	}
+
+	/**
+	 * Internal helper method that creates the WHERE clause which restricts an export to certain screenings
+	 *
+	 * @param screenIDs the screenIDs of the screenings to export, or null to export all screenings
+	 * @param upcomingOnly true to only export screenings that have not started yet
+	 * @param params the list the parameters of the clause are added to
+	 * @return the WHERE clause starting with a space, or an empty String if all screenings are exported
+	 */
+	private static String exportCondition(List<Integer> screenIDs, boolean upcomingOnly, List<Object> params) {
+		List<String> conditions = new ArrayList<>();
+		if (screenIDs != null) {
+			// The screenIDs are numbers, so they can be listed directly instead of using one placeholder each
+			StringBuilder idList = new StringBuilder();
+			for (Integer screenID : screenIDs) {
+				idList.append(idList.length() > 0 ? "," : "").append(screenID.intValue());
+			}
+			conditions.add("s.screenID IN (" + idList + ")");
+		}
+		if (upcomingOnly) {
+			// Served from the index on the starts_at column
+			conditions.add("s.starts_at > ?");
+			params.add(Screening.toEpochSeconds(LocalDateTime.now()));
+		}
+		return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+	}
+
 	/**
 	 * Adds a new row to the Screenings table in the database based on a provided Screening Object
 	 *
+	 * The screenID that the database generated for the new row is set on the Screening object.
+	 *
 	 * @param screening the Screening object to be saved in the database
+	 * @return the screenID of the new screening
 	 * @throws SQLException thrown if an error occurs during the database operation
 	 */
-	public static void addScreening(Screening screening) throws SQLException {
+	public static int addScreening(Screening screening) throws SQLException {
 		// Creates a new SQL statement with information from the provided screening object
 		String addStatement =
 			  "INSERT INTO screenings "
-			+ "(movieID, seats, date, time) "
+			+ "(movieID, seats, date, time, starts_at) "
 			+ "VALUES ("
 			+ "" + screening.getMovieID()
 			+ ", '" + screening.getSeats() + "'"
 			+ ", '" + screening.getDate() + "'"
 			+ ", " + screening.getTime()
+			+ ", " + screening.getStartsAt()
 			+ ");";
-		DBHelper.dbExecuteUpdate(addStatement);
+		// Executes the statement and sets the generated screenID
+		screening.setScreenID(DBHelper.dbExecuteInsert(addStatement));
+		ProgrammeCache.invalidate();
+		return screening.getScreenID();
 	}
 
-	//Updates the seat availability of a screening in the database
-	public static void updateScreening(Screening screening) throws SQLException {
-		// Creates a new SQL statement with information from the provided screening object
-		String updateStatement =
-			"UPDATE screenings "
-				+ "SET "
-				+ "seats = '" + screening.getSeats() + "' "
-				+ "WHERE "
-				+ "screenID = " + screening.getScreenID() + ";";
-		// Executes the statement
-		DBHelper.dbExecuteUpdate(updateStatement);
+	/**
+	 * Adds a new row to the Screenings table for every provided Screening object
+	 *
+	 * All screenings are inserted in a single transaction, so either all of them are saved or none.
+	 * Afterwards every Screening object holds the screenID that the database generated for it.
+	 *
+	 * @param screenings the Screening objects to be saved in the database
+	 * @return the number of screenings that were saved
+	 * @throws SQLException thrown if an error occurs during the database operation
+	 */
+	public static int addScreenings(List<Screening> screenings) throws SQLException {
+		// Creates a new SQL statement with placeholders for the values of each screening
+		String addStatement =
+			  "INSERT INTO screenings "
+			+ "(movieID, seats, date, time, starts_at) "
+			+ "VALUES (?, ?, ?, ?, ?);";
+		// Collects the values of each screening in the order of the placeholders
+		List<Object[]> params = new ArrayList<>(screenings.size());
+		for (Screening screening : screenings) {
+			params.add(new Object[] {
+				screening.getMovieID(), screening.getSeats(), screening.getDate(), screening.getTime(),
+				screening.getStartsAt()});
+		}
+		// Executes the statement for all screenings at once
+		List<Integer> screenIDs = DBHelper.executeBatch(addStatement, params, BATCH_SIZE);
+		ProgrammeCache.invalidate();
+		// Sets the screenIDs that the database generated for the new rows
+		for (int i = 0; i < screenIDs.size(); i++) {
+			screenings.get(i).setScreenID(screenIDs.get(i));
+		}
+		return screenIDs.size();
 	}
 
 	/**
@@ -160,6 +386,7 @@ public class ScreeningDAO {
 			+ "screenID = " + screening.getScreenID() + ";";
 		// Executes the statement
 		DBHelper.dbExecuteUpdate(deleteStatement);
+		ProgrammeCache.invalidate();
 	}
 
 }
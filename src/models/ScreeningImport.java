@@ -0,0 +1,177 @@
+package models;
+
+import helpers.ImportTask;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class imports a schedule of screenings from a file through an ImportTask
+ *
+ * Every row of the file is a screening with the columns movie (the title) or movieID, date (YYYY-MM-DD)
+ * and time (the full hour, e.g. 18 or 18:00). The times are limited to the time slots that can be chosen
+ * in the EmployeeAddScreening view. The cinema has a single room, so a screening whose time slot is already
+ * taken in the database or earlier in the file is skipped, like screenings that have already started.
+ * A title that belongs to several movies has to be replaced by the movieID.
+ */
+public class ScreeningImport implements ImportTask.Target<Screening> {
+
+	// Number of seats in the cinema room
+	private static final int NUMBER_OF_SEATS = 50;
+	// The first and last full hour at which screenings can start
+	private static final int FIRST_TIME = 12, LAST_TIME = 24;
+	// Marks a title in the map of titles that belongs to several movies
+	private static final int AMBIGUOUS = -1;
+
+	// The movieIDs by the titles of all movies in lower case, filled by existingKeys
+	private final Map<String, Integer> movieIDs = new HashMap<>();
+	private final Set<Integer> movieIDSet = new HashSet<>();
+	// The seats of a new screening, all of them available
+	private final String seats;
+
+	/**
+	 * Constructor that prepares the seats of the new screenings
+	 */
+	public ScreeningImport() {
+		StringBuilder seatString = new StringBuilder(NUMBER_OF_SEATS);
+		for (int i = 0; i < NUMBER_OF_SEATS; i++) {
+			seatString.append('0');
+		}
+		seats = seatString.toString();
+	}
+
+	/**
+	 * Validates a row and turns it into a screening
+	 *
+	 * @param row the values of the row by the names of their columns in lower case
+	 * @return the screening
+	 * @throws IllegalArgumentException thrown if a required value is missing or a value is invalid
+	 */
+	@Override
+	public Screening parse(Map<String, String> row) {
+		Screening screening = new Screening();
+		// Sets the movieID without loading the movie from the database
+		screening.movieIDProperty().set(movieID(row));
+		String date = required(row, "date");
+		try {
+			screening.setDate(LocalDate.parse(date).toString());
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("The date " + date + " is not in the format YYYY-MM-DD");
+		}
+		String time = required(row, "time");
+		try {
+			// Accepts both 18 and 18:00
+			screening.setTime(Integer.parseInt(time.endsWith(":00") ? time.substring(0, time.length() - 3) : time));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("The time " + time + " is not a full hour");
+		}
+		if (screening.getTime() < FIRST_TIME || screening.getTime() > LAST_TIME) {
+			throw new IllegalArgumentException("The time " + time + " is not between " + FIRST_TIME + ":00 and "
+				+ LAST_TIME + ":00");
+		}
+		if (screening.hasStarted()) {
+			throw new IllegalArgumentException("The screening on " + date + " at " + time + " is in the past");
+		}
+		screening.setSeats(seats);
+		return screening;
+	}
+
+	/**
+	 * @param screening a screening
+	 * @return the start of the screening, as there is only one cinema room
+	 */
+	@Override
+	public String key(Screening screening) {
+		return String.valueOf(screening.getStartsAt());
+	}
+
+	/**
+	 * Reads the titles of all movies and returns the starts of the screenings that have not started yet
+	 *
+	 * @return the starts of the upcoming screenings in the database
+	 * @throws SQLException thrown if the movies or screenings cannot be read
+	 */
+	@Override
+	public Set<String> existingKeys() throws SQLException {
+		MovieDAO.streamMovieTitles(row -> {
+			int movieID = row.getInt("movieID");
+			movieIDSet.add(movieID);
+			// Marks titles that belong to several movies, which can only be imported by their movieID
+			movieIDs.merge(row.getString("name").trim().toLowerCase(Locale.ROOT), movieID, (id1, id2) -> AMBIGUOUS);
+			return true;
+		});
+		Set<String> keys = new HashSet<>();
+		for (long startsAt : ScreeningDAO.searchStartTimes(LocalDateTime.now())) {
+			keys.add(String.valueOf(startsAt));
+		}
+		return keys;
+	}
+
+	/**
+	 * Saves screenings in the database
+	 *
+	 * @param screenings the screenings
+	 * @throws SQLException thrown if the screenings cannot be saved
+	 */
+	@Override
+	public void insert(List<Screening> screenings) throws SQLException {
+		ScreeningDAO.addScreenings(screenings);
+	}
+
+	/**
+	 * Internal helper method that finds the movie of a row by its movieID or its title
+	 *
+	 * @param row the values of the row
+	 * @return the movieID
+	 * @throws IllegalArgumentException thrown if the movie does not exist or the title is ambiguous
+	 */
+	private int movieID(Map<String, String> row) {
+		String movieID = row.get("movieid");
+		if (movieID != null && !movieID.trim().isEmpty()) {
+			try {
+				int id = Integer.parseInt(movieID.trim());
+				if (movieIDSet.contains(id)) {
+					return id;
+				}
+			} catch (NumberFormatException e) {
+				// Handled below like an unknown movieID
+			}
+			throw new IllegalArgumentException("There is no movie with the movieID " + movieID);
+		}
+		// Also accepts the column of the screening exports
+		String title = required(row, row.containsKey("movie") ? "movie" : "movie title");
+		Integer id = movieIDs.get(title.toLowerCase(Locale.ROOT));
+		if (id == null) {
+			throw new IllegalArgumentException("There is no movie with the title " + title);
+		}
+		if (id == AMBIGUOUS) {
+			throw new IllegalArgumentException("There are several movies with the title " + title
+				+ ", please specify the movieID");
+		}
+		return id;
+	}
+
+	/**
+	 * Internal helper method that returns a value that must not be empty
+	 *
+	 * @param row the values of the row
+	 * @param column the name of the column in lower case
+	 * @return the value without leading and trailing whitespace
+	 * @throws IllegalArgumentException thrown if the value is missing or empty
+	 */
+	private static String required(Map<String, String> row, String column) {
+		String value = row.get(column);
+		if (value == null || value.trim().isEmpty()) {
+			throw new IllegalArgumentException("The " + column + " is missing");
+		}
+		return value.trim();
+	}
+}
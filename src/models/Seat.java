@@ -11,6 +11,9 @@ package models;
  */
 public class Seat implements Cloneable {
 
+	// Declares constant for the number of seats in each row of the cinema room
+	public static final int SEATS_PER_ROW = 10;
+
 	private char row;
 	private int number;
 	private boolean booked;
@@ -117,4 +120,25 @@ public class Seat implements Cloneable {
 		this.booked = booked;
 	}
 
+	// Index
+
+	/**
+	 * Calculates the position of this seat in a screening's list of seats, e.g. 0 for A1 and 12 for B3
+	 *
+	 * @return this seat's index
+	 */
+	public int getIndex() {
+		return index(row, number);
+	}
+
+	/**
+	 * Calculates the position of a seat in a screening's list of seats
+	 *
+	 * @param row the seat's row
+	 * @param number the seat's number within the row
+	 * @return the seat's index, e.g. 0 for A1 and 12 for B3
+	 */
+	public static int index(char row, int number) {
+		return (row - 'A') * SEATS_PER_ROW + number - 1;
+	}
 }
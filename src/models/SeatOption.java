@@ -0,0 +1,53 @@
+package models;
+
+import helpers.Helpers;
+import helpers.SeatFinder;
+
+/**
+ * This class represents a block of adjacent available seats found in a screening, see SeatSearch
+ *
+ * Besides the screening it holds the block of seats, whose score ranks the options of a search.
+ */
+public class SeatOption {
+
+	private final Screening screening;
+	private final SeatFinder.Block block;
+
+	/**
+	 * Constructor that initializes all fields
+	 *
+	 * @param screening the screening the seats were found in
+	 * @param block the best block of adjacent available seats in the screening
+	 */
+	public SeatOption(Screening screening, SeatFinder.Block block) {
+		this.screening = screening;
+		this.block = block;
+	}
+
+	/**
+	 * @return the screening the seats were found in
+	 */
+	public Screening getScreening() {
+		return screening;
+	}
+
+	/**
+	 * @return the best block of adjacent available seats in the screening
+	 */
+	public SeatFinder.Block getBlock() {
+		return block;
+	}
+
+	/**
+	 * A custom implementation of the toString() method that returns the date, time and movie of the screening
+	 * and the seats, e.g. "22/12/2017 18:00 - Django - Seats B3-B8"
+	 *
+	 * @return a String describing the option
+	 */
+	@Override
+	public String toString() {
+		return Helpers.formatDateString(screening.getDate()) + " " + screening.getTime() + ":00 - "
+			+ (screening.getMovie() == null ? "Movie " + screening.getMovieID() : screening.getMovie().getName())
+			+ " - Seats " + block;
+	}
+}
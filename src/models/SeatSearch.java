@@ -0,0 +1,62 @@
+package models;
+
+import helpers.Metrics;
+import helpers.SeatFinder;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class finds adjacent available seats for a party across many screenings at once
+ *
+ * Every screening's list of seats is searched with a SeatFinder for its best block of the requested size,
+ * in a single pass over the screenings. Large sets of screenings are split between all processor cores with
+ * a parallel stream, as the screenings can be searched independently. The options are ranked by the score
+ * of their block, so the best seats come first whichever screening they are in, and then by their start.
+ * The duration of every search is recorded in the timer search.seats.time.
+ */
+public class SeatSearch {
+
+	// Number of screenings from which on they are searched in parallel, below it splitting them costs more than it saves
+	private static final int PARALLEL_THRESHOLD = 2000;
+
+	/**
+	 * Finds the best block of adjacent available seats in each of the provided screenings
+	 *
+	 * The screenings must not be changed while they are searched.
+	 *
+	 * @param screenings the screenings to search, e.g. the upcoming screenings of a movie
+	 * @param partySize the number of adjacent seats
+	 * @param preference where in a row the party would like to sit
+	 * @param limit the maximum number of options to return
+	 * @return the screenings that have enough adjacent available seats with their best block, the best first
+	 */
+	public static List<SeatOption> findAdjacentSeats(Collection<Screening> screenings, int partySize,
+		SeatFinder.Preference preference, int limit) {
+		long startTime = System.nanoTime();
+		long now = Screening.toEpochSeconds(LocalDateTime.now());
+		Stream<Screening> stream = screenings.size() >= PARALLEL_THRESHOLD ? screenings.parallelStream() : screenings.stream();
+		List<SeatOption> options = stream
+			// Skips the screenings that can no longer be booked
+			.filter(screening -> screening.getStartsAt() > now)
+			.map(screening -> {
+				String seats = screening.getSeats();
+				int rows = seats.length() / Seat.SEATS_PER_ROW;
+				SeatFinder.Block block = new SeatFinder(rows, Seat.SEATS_PER_ROW)
+					.findBest(seats, partySize, preference, 'A', (char) ('A' + rows - 1));
+				return block == null ? null : new SeatOption(screening, block);
+			})
+			.filter(Objects::nonNull)
+			.sorted(Comparator.comparingDouble((SeatOption option) -> option.getBlock().getScore())
+				.thenComparingLong(option -> option.getScreening().getStartsAt()))
+			.limit(limit)
+			.collect(Collectors.toList());
+		Metrics.timer("search.seats.time").recordSince(startTime);
+		return options;
+	}
+}